@@ -16,6 +16,7 @@ import org.springframework.util.StreamUtils;
 import org.springframework.web.context.WebApplicationContext;
 import uk.gov.hmcts.reform.sendletter.controllers.MediaTypes;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.helper.FakeFtpAvailabilityChecker;
 import uk.gov.hmcts.reform.sendletter.services.LocalSftpServer;
@@ -53,6 +54,9 @@ class FailingUploadTest {
     @Autowired
     private LetterRepository repository;
 
+    @Autowired
+    private LetterContentRepository contentRepository;
+
     @Autowired
     private FakeFtpAvailabilityChecker fakeFtpAvailabilityChecker;
 
@@ -120,12 +124,12 @@ class FailingUploadTest {
 
     private void corruptFileInDataBase(int ind) {
         // The interval between upload-letters tasks is 60 seconds (as defined by tasks.upload-letters.interval-ms),
-        // this gives enough time to corrupt letter in db by making fileContent null
+        // this gives enough time to corrupt letter in db by deleting its file content
         List<Letter> savedLetters = repository.findAll();
         Letter savedLetter = savedLetters.get(ind);
-        // making fileContent null causes NPE when file is being uploaded
-        savedLetter.setFileContent(null);
-        repository.saveAndFlush(savedLetter);
+        // missing file content fails the letter when it is being uploaded
+        contentRepository.deleteById(savedLetter.getId());
+        contentRepository.flush();
     }
 
     private String readResource(final String fileName) throws IOException {
@@ -22,6 +22,9 @@ class ClearFileContentTest {
     @Autowired
     LetterRepository repo;
 
+    @Autowired
+    LetterContentRepository contentRepo;
+
     @BeforeEach
     void setUp() {
         repo.deleteAll();
@@ -48,12 +51,12 @@ class ClearFileContentTest {
         assertThat(updateCount).isEqualTo(1);
         assertThat(repo.findAll())
             .extracting(l ->
-                tuple(l.getId(), l.getFileContent())
+                tuple(l.getId(), contentRepo.existsById(l.getId()))
             )
             .containsExactlyInAnyOrder(
-                tuple(l1.getId(), l1.getFileContent()),
-                tuple(l2.getId(), null),
-                tuple(l3.getId(), l3.getFileContent())
+                tuple(l1.getId(), true),
+                tuple(l2.getId(), false),
+                tuple(l3.getId(), true)
             );
     }
 
@@ -61,7 +64,8 @@ class ClearFileContentTest {
     Letter storeLetter(LocalDateTime createdAt, LetterStatus status) {
         Letter letter = SampleData.letterEntity("service1", createdAt, "type1");
         letter.setStatus(status);
-        letter.setFileContent("blah blah".getBytes());
-        return repo.save(letter);
+        Letter saved = repo.saveAndFlush(letter);
+        contentRepo.saveAndFlush(new LetterContent(saved.getId(), "blah blah".getBytes()));
+        return saved;
     }
 }
@@ -0,0 +1,99 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.sendletter.SampleData;
+import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+class LetterContentReaderTest {
+
+    @Autowired
+    private LetterRepository repository;
+
+    @Autowired
+    private LetterContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LetterContentReader reader;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        reader = new LetterContentReader(jdbcTemplate, DataSize.ofBytes(3_000));
+    }
+
+    @Test
+    void should_stream_content_in_chunks() throws Exception {
+        // given
+        byte[] content = new byte[10_000];
+        new Random(1).nextBytes(content);
+        Letter letter = SampleData.letterEntity("a.service", LocalDateTime.now());
+        repository.saveAndFlush(letter);
+        contentRepository.saveAndFlush(new LetterContent(letter.getId(), content));
+
+        // when
+        long length = reader.getContentLength(letter.getId());
+        byte[] read;
+        try (InputStream stream = reader.openContent(letter.getId(), length)) {
+            read = stream.readAllBytes();
+        }
+
+        // then
+        assertThat(length).isEqualTo(content.length);
+        assertThat(read).isEqualTo(content);
+    }
+
+    @Test
+    void should_read_content_saved_in_letters_table() throws Exception {
+        // given
+        byte[] content = new byte[5_000];
+        new Random(2).nextBytes(content);
+        Letter letter = SampleData.letterEntity("a.service", LocalDateTime.now());
+        repository.saveAndFlush(letter);
+        // as saved by instances which do not write to letter_content yet
+        jdbcTemplate.update("UPDATE letters SET file_content = ? WHERE id = ?", content, letter.getId());
+
+        // when
+        long length = reader.getContentLength(letter.getId());
+        byte[] read;
+        try (InputStream stream = reader.openContent(letter.getId(), length)) {
+            read = stream.readAllBytes();
+        }
+
+        // then
+        assertThat(length).isEqualTo(content.length);
+        assertThat(read).isEqualTo(content);
+    }
+
+    @Test
+    void should_fail_when_content_was_cleared() {
+        // given
+        Letter letter = SampleData.letterEntity("a.service", LocalDateTime.now());
+        repository.saveAndFlush(letter);
+
+        // when
+        // then
+        assertThatThrownBy(() -> reader.getContentLength(letter.getId()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("has no file content");
+    }
+}
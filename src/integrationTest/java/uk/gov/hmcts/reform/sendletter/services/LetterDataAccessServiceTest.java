@@ -0,0 +1,268 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.hmcts.reform.sendletter.SampleData;
+import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
+import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterReportInfo;
+import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.entity.Report;
+import uk.gov.hmcts.reform.sendletter.entity.ReportRepository;
+import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+class LetterDataAccessServiceTest {
+
+    @Autowired
+    private LetterRepository repository;
+
+    @Autowired
+    private LetterContentRepository contentRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LetterDataAccessService dataAccessService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        dataAccessService = new LetterDataAccessService(repository, jdbcTemplate);
+    }
+
+    @Test
+    void should_save_outcome_of_each_upload_and_let_go_of_claims() {
+        // given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Letter uploaded = claimed(SampleData.letterEntity("a.service", now.minusMinutes(3)));
+        Letter skipped = claimed(SampleData.letterEntity("a.service", now.minusMinutes(2)));
+        Letter failed = claimed(SampleData.letterEntity("a.service", now.minusMinutes(1)));
+
+        LetterUploadResults results = new LetterUploadResults();
+        results.uploaded(uploaded.getId(), now);
+        results.skipped(skipped.getId());
+        results.failed(failed.getId(), "msg");
+
+        // when
+        dataAccessService.saveUploadResults(results);
+
+        // then
+        assertThat(status(uploaded)).isEqualTo(LetterStatus.Uploaded.name());
+        assertThat(status(skipped)).isEqualTo(LetterStatus.Skipped.name());
+        assertThat(status(failed)).isEqualTo(LetterStatus.FailedToUpload.name());
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT sent_to_print_at FROM letters WHERE id = ?", LocalDateTime.class, uploaded.getId()
+        )).isEqualTo(now);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM letters WHERE upload_claimed_by IS NOT NULL", Integer.class
+        )).isZero();
+
+        // and
+        List<Map<String, Object>> events =
+            jdbcTemplate.queryForList("SELECT letter_id, type, notes FROM letter_events");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0))
+            .containsEntry("letter_id", failed.getId())
+            .containsEntry("type", "FAILED_TO_UPLOAD")
+            .containsEntry("notes", "msg");
+    }
+
+    @Test
+    void should_not_change_letters_that_are_no_longer_created() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        Letter posted = SampleData.letterEntity("a.service", now.minusMinutes(1));
+        posted.setStatus(LetterStatus.Posted);
+        repository.saveAndFlush(posted);
+
+        LetterUploadResults results = new LetterUploadResults();
+        results.failed(posted.getId(), "msg");
+
+        // when
+        dataAccessService.saveUploadResults(results);
+
+        // then
+        assertThat(status(posted)).isEqualTo(LetterStatus.Posted.name());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM letter_events", Integer.class)).isZero();
+    }
+
+    @Test
+    void should_do_nothing_when_there_are_no_results() {
+        // given
+        Letter letter = claimed(SampleData.letterEntity("a.service", LocalDateTime.now().minusMinutes(1)));
+
+        // when
+        dataAccessService.saveUploadResults(new LetterUploadResults());
+
+        // then
+        assertThat(status(letter)).isEqualTo(LetterStatus.Created.name());
+    }
+
+    @Test
+    void should_mark_uploaded_letters_of_report_as_posted() {
+        // given
+        Letter uploaded = SampleData.letterEntity("a.service");
+        uploaded.setStatus(LetterStatus.Uploaded);
+        repository.saveAndFlush(uploaded);
+        contentRepository.saveAndFlush(new LetterContent(uploaded.getId(), "file-content".getBytes()));
+        Letter created = repository.saveAndFlush(SampleData.letterEntity("a.service"));
+        UUID unknown = UUID.randomUUID();
+
+        ZonedDateTime printedAt = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // when
+        LetterPostedResults results = dataAccessService.markLettersAsPosted(List.of(
+            new LetterPrintStatus(uploaded.getId(), printedAt),
+            new LetterPrintStatus(created.getId(), printedAt),
+            new LetterPrintStatus(unknown, printedAt)
+        ));
+
+        // then
+        assertThat(results.getPosted()).containsExactly(uploaded.getId());
+        assertThat(results.getUnexpectedStatus()).containsExactly(entry(created.getId(), LetterStatus.Created));
+        assertThat(results.getUnknown()).containsExactly(unknown);
+
+        // and
+        assertThat(status(uploaded)).isEqualTo(LetterStatus.Posted.name());
+        assertThat(status(created)).isEqualTo(LetterStatus.Created.name());
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT printed_at FROM letters WHERE id = ?", LocalDateTime.class, uploaded.getId()
+        )).isEqualTo(printedAt.toLocalDateTime());
+        assertThat(contentRepository.existsById(uploaded.getId())).isFalse();
+    }
+
+    @Test
+    void should_find_service_and_report_flags_of_letters() {
+        // given
+        Letter ibca = repository.saveAndFlush(
+            withAdditionalData("sscs", LocalDateTime.now(), Map.of("isIbca", true, "isInternational", "TRUE"))
+        );
+        Letter notIbca = repository.saveAndFlush(
+            withAdditionalData("sscs", LocalDateTime.now(), Map.of("isIbca", "false"))
+        );
+        Letter noAdditionalData = repository.saveAndFlush(SampleData.letterEntity("a.service"));
+        jdbcTemplate.update("UPDATE letters SET additional_data = NULL WHERE id = ?", noAdditionalData.getId());
+        UUID unknown = UUID.randomUUID();
+
+        // when
+        Map<UUID, LetterReportInfo> reportInfo = dataAccessService.findReportInfo(
+            List.of(ibca.getId(), notIbca.getId(), noAdditionalData.getId(), unknown)
+        );
+
+        // then
+        assertThat(reportInfo).containsOnly(
+            entry(ibca.getId(), new LetterReportInfo(ibca.getId(), "sscs", true, true)),
+            entry(notIbca.getId(), new LetterReportInfo(notIbca.getId(), "sscs", false, false)),
+            entry(noAdditionalData.getId(), new LetterReportInfo(noAdditionalData.getId(), "a.service", false, false))
+        );
+        assertThat(dataAccessService.findReportInfo(ibca.getId()))
+            .contains(new LetterReportInfo(ibca.getId(), "sscs", true, true));
+        assertThat(dataAccessService.findReportInfo(unknown)).isEmpty();
+    }
+
+    @Test
+    void should_mark_uploaded_letters_with_no_report_as_aborted() {
+        // given
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(10);
+        LocalDate printDate = createdAt.toLocalDate().plusDays(1);
+        reportRepository.deleteAll();
+        reportRepository.saveAndFlush(report("CODE1", printDate, false));
+        reportRepository.saveAndFlush(report("SSCS-IB", printDate, true));
+
+        Letter withReport = uploaded(SampleData.letterEntity("a.service", createdAt), printDate);
+        Letter printedOnOtherDay = uploaded(SampleData.letterEntity("a.service", createdAt), printDate.plusDays(1));
+        Letter ibcaWithReport = uploaded(
+            withAdditionalData("sscs", createdAt, Map.of("isIbca", "true", "isInternational", true)), printDate
+        );
+        Letter reformWithoutReport = uploaded(
+            withAdditionalData("sscs", createdAt, Map.of("isInternational", true)), printDate
+        );
+        Letter unknownService = uploaded(SampleData.letterEntity("other.service", createdAt), printDate);
+        Letter recent = uploaded(SampleData.letterEntity("other.service", LocalDateTime.now()), printDate);
+
+        // when
+        Map<String, Integer> aborted = dataAccessService.markLettersWithNoReportAsAborted(
+            LocalDateTime.now().minusDays(7),
+            List.of(
+                new ReportsServiceConfig.ServiceReportCodes("a.service", "CODE1", "CODE1"),
+                new ReportsServiceConfig.ServiceReportCodes("sscs", "SSCS-REFORM", "SSCS-IB")
+            )
+        );
+
+        // then
+        assertThat(aborted).containsOnly(entry("a.service", 1), entry("sscs", 1), entry("other.service", 1));
+        assertThat(status(withReport)).isEqualTo(LetterStatus.Uploaded.name());
+        assertThat(status(printedOnOtherDay)).isEqualTo(LetterStatus.NoReportAborted.name());
+        assertThat(status(ibcaWithReport)).isEqualTo(LetterStatus.Uploaded.name());
+        assertThat(status(reformWithoutReport)).isEqualTo(LetterStatus.NoReportAborted.name());
+        assertThat(status(unknownService)).isEqualTo(LetterStatus.NoReportAborted.name());
+        assertThat(status(recent)).isEqualTo(LetterStatus.Uploaded.name());
+
+        // and
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT letter_id FROM letter_events WHERE type = 'MARKED_AS_NO_REPORT_ABORTED'", UUID.class
+        )).containsExactlyInAnyOrder(printedOnOtherDay.getId(), reformWithoutReport.getId(), unknownService.getId());
+    }
+
+    private Letter uploaded(Letter letter, LocalDate printDate) {
+        letter.setStatus(LetterStatus.Uploaded);
+        letter.setSentToPrintAt(printDate.atTime(10, 0));
+        return repository.saveAndFlush(letter);
+    }
+
+    private static Report report(String reportCode, LocalDate reportDate, boolean isInternational) {
+        return Report.builder()
+            .reportName(reportCode + ".csv")
+            .reportCode(reportCode)
+            .reportDate(reportDate)
+            .isInternational(isInternational)
+            .build();
+    }
+
+    private Letter claimed(Letter letter) {
+        repository.saveAndFlush(letter);
+        jdbcTemplate.update(
+            "UPDATE letters SET upload_claimed_by = 'node-a', upload_lease_expires_at = now() WHERE id = ?",
+            letter.getId()
+        );
+        return letter;
+    }
+
+    private static Letter withAdditionalData(
+        String service,
+        LocalDateTime createdAt,
+        Map<String, Object> additionalData
+    ) {
+        return SampleData.letterEntity(
+            service, createdAt, "letterType1", null, Map.of("Document_1", 1),
+            SampleData.checkSumSupplier, additionalData
+        );
+    }
+
+    private String status(Letter letter) {
+        return jdbcTemplate.queryForObject("SELECT status FROM letters WHERE id = ?", String.class, letter.getId());
+    }
+}
@@ -3,6 +3,7 @@ package uk.gov.hmcts.reform.sendletter.services;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,13 +19,18 @@ import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.entity.DuplicateLetter;
 import uk.gov.hmcts.reform.sendletter.entity.ExceptionLetter;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterEventRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptor;
 import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
 import uk.gov.hmcts.reform.sendletter.services.zip.Zipper;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -54,6 +60,9 @@ class LetterServiceTest {
     @Autowired
     private LetterRepository letterRepository;
 
+    @Autowired
+    private LetterContentRepository letterContentRepository;
+
     @Autowired
     private LetterEventRepository letterEventRepository;
 
@@ -69,11 +78,18 @@ class LetterServiceTest {
         BDDMockito.given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("some_folder_name"));
         objectMapper = new ObjectMapper();
         service = new LetterService(
-            new PdfCreator(new DuplexPreparator()),
+            new PdfCreator(
+                new DuplexPreparator(),
+                Runnable::run,
+                1,
+                MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+            ),
             letterRepository,
+            new DatabaseLetterContentStore(letterContentRepository, mock(LetterContentReader.class)),
             letterEventRepository,
             documentService,
             new Zipper(),
+            new PgpEncryptor(),
             new ObjectMapper(),
             false,
             null,
@@ -81,7 +97,8 @@ class LetterServiceTest {
             execusionService,
             duplicateLetterService,
             exceptionLetterService,
-            letterChecksumService
+            letterChecksumService,
+            new RecentLetterChecksums(100, Duration.ofHours(1), Clock.systemUTC())
         );
     }
 
@@ -103,7 +120,7 @@ class LetterServiceTest {
         assertThat(copies).containsAllEntriesOf(Map.of("Document_1", 4, "Document_2", 10));
         assertThat(result.isEncrypted()).isFalse();
         assertThat(result.getEncryptionKeyFingerprint()).isNull();
-        PdfHelper.validateZippedPdf(result.getFileContent());
+        PdfHelper.validateZippedPdf(letterContentRepository.findById(id).orElseThrow().getFileContent());
         verify(duplicateLetterService, never()).save(isA(DuplicateLetter.class));
         verify(exceptionLetterService, never()).save(isA(ExceptionLetter.class));
 
@@ -118,7 +135,7 @@ class LetterServiceTest {
             .orElseThrow(() -> new RuntimeException("Letter not found " + id.toString()));
         assertThat(result.isEncrypted()).isFalse();
         assertThat(result.getEncryptionKeyFingerprint()).isNull();
-        PdfHelper.validateZippedPdf(result.getFileContent());
+        PdfHelper.validateZippedPdf(letterContentRepository.findById(id).orElseThrow().getFileContent());
 
         String expectedAdditionData = "{\"reference\":\"ABD-123-WAZ\",\"count\":10,\"additionInfo\":\"present\"}";
         JsonNode expectedAdditionalData = objectMapper.readTree(expectedAdditionData);
@@ -142,7 +159,7 @@ class LetterServiceTest {
         assertThat(result.getAdditionalData()).isEmpty();
         assertThat(result.isEncrypted()).isFalse();
         assertThat(result.getEncryptionKeyFingerprint()).isNull();
-        PdfHelper.validateZippedPdf(result.getFileContent());
+        PdfHelper.validateZippedPdf(letterContentRepository.findById(id).orElseThrow().getFileContent());
 
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
@@ -0,0 +1,122 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.hmcts.reform.sendletter.SampleData;
+import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+class LetterUploadClaimServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+
+    @Autowired
+    private LetterRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private LetterUploadClaimService nodeA;
+    private LetterUploadClaimService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        nodeA = new LetterUploadClaimService(jdbcTemplate, "node-a", LEASE, clock);
+        nodeB = new LetterUploadClaimService(jdbcTemplate, "node-b", LEASE, clock);
+    }
+
+    @Test
+    void should_claim_oldest_created_letters_up_to_limit() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        Letter uploaded = SampleData.letterEntity("a.service", now.minusMinutes(4));
+        uploaded.setStatus(LetterStatus.Uploaded);
+        repository.saveAndFlush(uploaded);
+        Letter first = repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(3)));
+        Letter second = repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(2)));
+        repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(1)));
+        repository.saveAndFlush(SampleData.letterEntity("a.service", now.plusMinutes(1)));
+
+        // when
+        List<UUID> claimed = nodeA.claim(now, 2);
+
+        // then
+        assertThat(claimed).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void should_give_each_node_a_different_batch() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (int i = 5; i > 0; i--) {
+            repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(i)));
+        }
+
+        // when
+        List<UUID> claimedByA = nodeA.claim(now, 3);
+        List<UUID> claimedByB = nodeB.claim(now, 3);
+
+        // then
+        assertThat(claimedByA).hasSize(3);
+        assertThat(claimedByB).hasSize(2).doesNotContainAnyElementsOf(claimedByA);
+        assertThat(nodeA.claim(now, 3)).isEmpty();
+    }
+
+    @Test
+    void should_recover_letters_with_expired_lease() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        Letter letter = repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(1)));
+        assertThat(nodeA.claim(now, 10)).containsExactly(letter.getId());
+
+        // when
+        LetterUploadClaimService nodeBAfterLease = new LetterUploadClaimService(
+            jdbcTemplate,
+            "node-b",
+            LEASE,
+            Clock.offset(clock, LEASE.plusMinutes(1))
+        );
+
+        // then
+        assertThat(nodeB.claim(now, 10)).isEmpty();
+        assertThat(nodeBAfterLease.claim(now, 10)).containsExactly(letter.getId());
+    }
+
+    @Test
+    void should_only_release_own_claims() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        Letter letter = repository.saveAndFlush(SampleData.letterEntity("a.service", now.minusMinutes(1)));
+        assertThat(nodeA.claim(now, 10)).containsExactly(letter.getId());
+
+        // when
+        nodeB.release(List.of(letter.getId()));
+
+        // then
+        assertThat(nodeB.claim(now, 10)).isEmpty();
+
+        // when
+        nodeA.release(List.of(letter.getId()));
+
+        // then
+        assertThat(nodeB.claim(now, 10)).containsExactly(letter.getId());
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
 import uk.gov.hmcts.reform.sendletter.entity.ReportRepository;
@@ -34,7 +36,7 @@ class MarkLettersPostedServiceTest {
     LetterRepository repository;
 
     @Autowired
-    LetterService letterService;
+    LetterContentRepository contentRepository;
 
     @Autowired
     ReportRepository reportRepository;
@@ -55,13 +57,13 @@ class MarkLettersPostedServiceTest {
         Letter letter = SampleData.letterEntity("some_service_name");
         letter.setStatus(LetterStatus.Uploaded);
         repository.saveAndFlush(letter);
+        contentRepository.saveAndFlush(new LetterContent(letter.getId(), "file-content".getBytes()));
 
         when(checker.isFtpAvailable(any(LocalTime.class))).thenReturn(true);
         try (LocalSftpServer server = LocalSftpServer.create()) {
             FtpClient client = FtpHelper.getSuccessfulClient(LocalSftpServer.port);
             MarkLettersPostedService mlService = new MarkLettersPostedService(
                 dataAccessService,
-                letterService,
                 client,
                 checker,
                 parser,
@@ -81,7 +83,7 @@ class MarkLettersPostedServiceTest {
         assertThat(letter.getStatus()).isEqualTo(LetterStatus.Posted);
         // Check that printed at date has been set.
         assertThat(letter.getPrintedAt()).isNotNull();
-        assertThat(letter.getFileContent()).isNull();
+        assertThat(contentRepository.existsById(letter.getId())).isFalse();
 
         verify(insights).trackPrintReportReceived(any(ParsedReport.class));
     }
@@ -1,10 +1,13 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import uk.gov.hmcts.reform.sendletter.exception.DuplexException;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
 import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
 
 import java.util.Collections;
@@ -21,16 +24,21 @@ class PdfCreatorTest {
 
     @BeforeEach
     void setUp() {
-        this.pdfCreator = new PdfCreator(new DuplexPreparator());
+        this.pdfCreator = new PdfCreator(
+            new DuplexPreparator(),
+            Runnable::run,
+            1,
+            MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+        );
     }
 
     @Test
     void should_handle_base64_encoded_pdfs() throws Exception {
         // given
 
-        List<byte[]> pdfs = asList(
-            loadResource("pdfs/test1.pdf"),
-            loadResource("pdfs/test2.pdf")
+        List<DocumentContent> pdfs = asList(
+            DocumentContent.of(loadResource("pdfs/test1.pdf")),
+            DocumentContent.of(loadResource("pdfs/test2.pdf"))
         );
 
         // when
@@ -60,8 +68,8 @@ class PdfCreatorTest {
     @Test
     void should_throw_an_exception_if_bytes_do_not_represent_pdf() {
         // given
-        List<byte[]> pdfs = Collections.singletonList(
-            "clearly not a pdf".getBytes()
+        List<DocumentContent> pdfs = Collections.singletonList(
+            DocumentContent.of("clearly not a pdf".getBytes())
         );
 
         // when
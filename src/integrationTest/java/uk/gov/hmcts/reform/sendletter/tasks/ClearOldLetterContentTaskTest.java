@@ -1,40 +1,48 @@
 package uk.gov.hmcts.reform.sendletter.tasks;
 
 import jakarta.persistence.EntityManager;
-import org.assertj.core.api.Condition;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.services.DatabaseLetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentReader;
 import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
 
 import java.time.Clock;
 import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @DataJpaTest
 class ClearOldLetterContentTaskTest {
 
     @Autowired LetterRepository repository;
+    @Autowired LetterContentRepository contentRepository;
     @Autowired EntityManager entityManager;
+    @Autowired JdbcTemplate jdbcTemplate;
 
     @Test
     void should_clear_content_of_old_letters() {
         // given
         Letter letter = SampleData.letterEntity("bulkprint");
         letter.setStatus(LetterStatus.Uploaded);
-        letter.setFileContent("file-content".getBytes());
 
         repository.saveAndFlush(letter);
+        contentRepository.saveAndFlush(new LetterContent(letter.getId(), "file-content".getBytes()));
 
         var task = new ClearOldLetterContentTask(
-            new LetterDataAccessService(repository),
+            new LetterDataAccessService(repository, jdbcTemplate),
+            new DatabaseLetterContentStore(contentRepository, mock(LetterContentReader.class)),
             Duration.ofSeconds(0), // clear immediately
             Clock.systemDefaultZone()
         );
@@ -44,12 +52,10 @@ class ClearOldLetterContentTaskTest {
 
         // then
         entityManager.flush();
-        var letterAfterTaskRun = repository.findById(letter.getId());
-        assertThat(letterAfterTaskRun)
-            .hasValueSatisfying(
-                new Condition<>(
-                    l -> l.getFileContent() == null,
-                    "File content should be cleared"
-                ));
+        entityManager.clear();
+        assertThat(repository.findById(letter.getId())).isPresent();
+        assertThat(contentRepository.existsById(letter.getId()))
+            .as("File content should be cleared")
+            .isFalse();
     }
 }
@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.sendletter.tasks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -10,29 +11,41 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
 import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterEventRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
 import uk.gov.hmcts.reform.sendletter.exception.FtpException;
 import uk.gov.hmcts.reform.sendletter.helper.FtpHelper;
 import uk.gov.hmcts.reform.sendletter.launchdarkly.LaunchDarklyClient;
+import uk.gov.hmcts.reform.sendletter.services.DatabaseLetterContentStore;
 import uk.gov.hmcts.reform.sendletter.services.DocumentService;
 import uk.gov.hmcts.reform.sendletter.services.DuplicateLetterService;
 import uk.gov.hmcts.reform.sendletter.services.ExceptionLetterService;
 import uk.gov.hmcts.reform.sendletter.services.ExecusionService;
 import uk.gov.hmcts.reform.sendletter.services.LetterChecksumService;
-import uk.gov.hmcts.reform.sendletter.services.LetterEventService;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentReader;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
 import uk.gov.hmcts.reform.sendletter.services.LetterService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadClaimService;
 import uk.gov.hmcts.reform.sendletter.services.LocalSftpServer;
+import uk.gov.hmcts.reform.sendletter.services.RecentLetterChecksums;
+import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptor;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpAvailabilityChecker;
 import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
 import uk.gov.hmcts.reform.sendletter.services.zip.Zipper;
 
 import java.io.File;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -51,6 +64,16 @@ class UploadLettersTaskTest {
     @Autowired
     private LetterRepository letterRepository;
 
+    @Autowired
+    private LetterContentRepository letterContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LetterUploadClaimService claimService;
+
+    private LetterContentStore contentStore;
+
     @Autowired
     private LetterEventRepository letterEventRepository;
 
@@ -60,9 +83,6 @@ class UploadLettersTaskTest {
     @Mock
     private FtpAvailabilityChecker availabilityChecker;
 
-    @Mock
-    private LetterEventService letterEventService;
-
     @Mock ServiceFolderMapping serviceFolderMapping;
 
     private LetterService letterService;
@@ -72,6 +92,8 @@ class UploadLettersTaskTest {
 
     private final LaunchDarklyClient launchDarklyClient = mock(LaunchDarklyClient.class);
     private final LetterChecksumService letterChecksumService = new LetterChecksumService();
+    private final RecentLetterChecksums recentLetterChecksums =
+        new RecentLetterChecksums(100, Duration.ofHours(1), Clock.systemUTC());
 
     @BeforeEach
     void setUp() {
@@ -82,12 +104,24 @@ class UploadLettersTaskTest {
         ExceptionLetterService exceptionLetterService = mock(ExceptionLetterService.class);
 
         letterRepository.deleteAll();
+        claimService = new LetterUploadClaimService(jdbcTemplate, Duration.ofMinutes(10), Clock.systemDefaultZone());
+        contentStore = new DatabaseLetterContentStore(
+            letterContentRepository,
+            new LetterContentReader(jdbcTemplate, DataSize.ofMegabytes(1))
+        );
         this.letterService = new LetterService(
-            new PdfCreator(new DuplexPreparator()),
+            new PdfCreator(
+                new DuplexPreparator(),
+                Runnable::run,
+                1,
+                MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+            ),
                 letterRepository,
+            contentStore,
             letterEventRepository,
             documentService,
             new Zipper(),
+            new PgpEncryptor(),
             new ObjectMapper(),
             false,
             null,
@@ -95,7 +129,8 @@ class UploadLettersTaskTest {
             execusionService,
             duplicateLetterService,
             exceptionLetterService,
-            letterChecksumService);
+            letterChecksumService,
+            recentLetterChecksums);
     }
 
     @ParameterizedTest
@@ -103,11 +138,14 @@ class UploadLettersTaskTest {
     void uploads_file_to_sftp_and_sets_letter_status_to_uploaded(String async) throws Exception {
         UUID id = letterService.save(SampleData.letterRequest(), "bulkprint", async);
         UploadLettersTask task = new UploadLettersTask(
-                letterRepository,
+            letterRepository,
+            claimService,
+            contentStore,
             FtpHelper.getSuccessfulClient(LocalSftpServer.port),
             availabilityChecker,
-            letterEventService,
+            new LetterDataAccessService(letterRepository, jdbcTemplate),
             serviceFolderMapping,
+            recentLetterChecksums,
             0
         );
 
@@ -126,7 +164,7 @@ class UploadLettersTaskTest {
             assertThat(l.getStatus()).isEqualTo(LetterStatus.Uploaded);
             assertThat(l.getSentToPrintAt()).isNotNull();
             assertThat(l.getPrintedAt()).isNull();
-            assertThat(l.getFileContent()).isNotNull();
+            assertThat(letterContentRepository.existsById(id)).isTrue();
         }
     }
 
@@ -140,11 +178,14 @@ class UploadLettersTaskTest {
 
         // and
         UploadLettersTask task = new UploadLettersTask(
-                letterRepository,
+            letterRepository,
+            claimService,
+            contentStore,
             FtpHelper.getFailingClient(LocalSftpServer.port),
             availabilityChecker,
-            letterEventService,
+            new LetterDataAccessService(letterRepository, jdbcTemplate),
             serviceFolderMapping,
+            recentLetterChecksums,
             0
         );
 
@@ -164,7 +205,7 @@ class UploadLettersTaskTest {
             Letter l = letterRepository.findById(id).get();
             assertThat(l.getStatus()).isEqualTo(LetterStatus.Created);
             assertThat(l.getSentToPrintAt()).isNull();
-            assertThat(l.getFileContent()).isNotNull();
+            assertThat(letterContentRepository.existsById(id)).isTrue();
         }
     }
 }
@@ -0,0 +1,141 @@
+package uk.gov.hmcts.reform.sendletter.tasks;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.sendletter.SampleData;
+import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.helper.FtpHelper;
+import uk.gov.hmcts.reform.sendletter.services.DatabaseLetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentReader;
+import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadClaimService;
+import uk.gov.hmcts.reform.sendletter.services.LocalSftpServer;
+import uk.gov.hmcts.reform.sendletter.services.RecentLetterChecksums;
+import uk.gov.hmcts.reform.sendletter.services.ftp.FtpAvailabilityChecker;
+import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures letters uploaded per minute against the embedded SFTP server with different numbers of sessions.
+ * Run with {@code -Dupload.benchmark=true}, optionally setting {@code upload.benchmark.letters}
+ * and {@code upload.benchmark.letter-size-bytes}.
+ */
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // sessions read letters in their own transactions
+@EnabledIfSystemProperty(named = "upload.benchmark", matches = "true")
+class UploadLettersThroughputTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadLettersThroughputTest.class);
+
+    private static final int LETTERS = Integer.getInteger("upload.benchmark.letters", 200);
+    private static final int LETTER_SIZE_BYTES = Integer.getInteger("upload.benchmark.letter-size-bytes", 200_000);
+
+    @Autowired
+    private LetterRepository letterRepository;
+
+    @Autowired
+    private LetterContentRepository letterContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LetterUploadClaimService claimService;
+
+    private final FtpAvailabilityChecker availabilityChecker = mock(FtpAvailabilityChecker.class);
+    private final ServiceFolderMapping serviceFolderMapping = mock(ServiceFolderMapping.class);
+
+    @BeforeEach
+    void setUp() {
+        given(availabilityChecker.isFtpAvailable(any(LocalTime.class))).willReturn(true);
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of(LocalSftpServer.SERVICE_FOLDER));
+        claimService = new LetterUploadClaimService(jdbcTemplate, Duration.ofMinutes(10), Clock.systemDefaultZone());
+        letterRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        letterRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 8})
+    void measures_letters_uploaded_per_minute(int sessions) throws Exception {
+        // given
+        saveCreatedLetters();
+        UploadLettersTask task = new UploadLettersTask(
+            letterRepository,
+            claimService,
+            new DatabaseLetterContentStore(
+                letterContentRepository,
+                new LetterContentReader(jdbcTemplate, DataSize.ofMegabytes(1))
+            ),
+            FtpHelper.getSuccessfulClient(LocalSftpServer.port),
+            availabilityChecker,
+            new LetterDataAccessService(letterRepository, jdbcTemplate),
+            serviceFolderMapping,
+            new RecentLetterChecksums(100, Duration.ofHours(1), Clock.systemUTC()),
+            UploadDrainPolicy.singleBatch(),
+            0,
+            LETTERS,
+            sessions,
+            UploadLettersTask.RESULTS_FLUSH_SIZE
+        );
+
+        try (LocalSftpServer server = LocalSftpServer.create()) {
+            // when
+            LetterUploadReport report = task.uploadLetters();
+
+            // then
+            logger.info("{} letters of {} bytes, {} sessions: {}", LETTERS, LETTER_SIZE_BYTES, sessions, report);
+            assertThat(report.getUploaded()).isEqualTo(LETTERS);
+            assertThat(server.lettersFolder.listFiles()).hasSize(LETTERS);
+            assertThat(letterRepository.countByStatus(LetterStatus.Uploaded)).isEqualTo(LETTERS);
+        }
+    }
+
+    private void saveCreatedLetters() {
+        Random random = new Random(LETTERS);
+        LocalDateTime createdAt = LocalDateTime.now().minusMinutes(5);
+        List<Letter> letters = new ArrayList<>(LETTERS);
+        List<LetterContent> contents = new ArrayList<>(LETTERS);
+        for (int i = 0; i < LETTERS; i++) {
+            Letter letter = SampleData.letterEntity("bulkprint", createdAt.plusNanos(i * 1_000L));
+            byte[] content = new byte[LETTER_SIZE_BYTES];
+            random.nextBytes(content);
+            letters.add(letter);
+            contents.add(new LetterContent(letter.getId(), content));
+        }
+        letterRepository.saveAll(letters);
+        letterContentRepository.saveAll(contents);
+    }
+}
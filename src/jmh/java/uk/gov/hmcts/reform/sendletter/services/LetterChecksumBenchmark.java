@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsAndNumberOfCopiesRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the letter checksum taken on every save, for the legacy and the canonical version.
+ * Run with the gc profiler to compare the bytes allocated per checksum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LetterChecksumBenchmark {
+
+    @Param({"1", "2"})
+    public int version;
+
+    @Param({"102400", "5242880"})
+    public int documentSize;
+
+    @Param({"1", "10"})
+    public int documents;
+
+    private LetterChecksumService checksumService;
+    private LetterWithPdfsAndNumberOfCopiesRequest letter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(documentSize);
+        List<Doc> docs = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            byte[] content = new byte[documentSize];
+            random.nextBytes(content);
+            docs.add(new Doc(content, 1 + i % 3));
+        }
+
+        letter = new LetterWithPdfsAndNumberOfCopiesRequest(
+            docs,
+            "benchmark-type",
+            Map.of("caseId", "1234567890", "caseRef", "ref-1", "recipients", List.of("a", "b"))
+        );
+        checksumService = new LetterChecksumService(version);
+    }
+
+    @Benchmark
+    public String checksum() {
+        return checksumService.generateLetterChecksum(letter);
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing a print report, in rows per second.
+ * Run with the gc profiler to see the bytes allocated per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReportParserBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 1000;
+
+    private ReportParser parser;
+    private byte[] report;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(ROWS);
+        StringBuilder csv = new StringBuilder("StartDate,StartTime,InputFileName,LetterID,TotalDocs,TotalPages\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(String.format(
+                "\"%02d-03-2026\",\"%02d:%02d\",\"CMC001_cmcclaimstore_%s.pdf\",\"W2P%08d\",\"1\",\"%d\"%n",
+                1 + i % 28, i % 24, i % 60, new UUID(random.nextLong(), random.nextLong()), i, 1 + i % 9
+            ));
+        }
+        report = csv.toString().getBytes(StandardCharsets.UTF_8);
+        parser = new ReportParser();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ParsedReport parse(Blackhole blackhole) {
+        return parser.parse(
+            new StreamedReport("benchmark.csv", new ByteArrayInputStream(report), 0),
+            CHUNK_SIZE,
+            blackhole::consume
+        );
+    }
+}
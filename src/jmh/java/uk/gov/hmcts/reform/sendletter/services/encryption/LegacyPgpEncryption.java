@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.sendletter.services.encryption;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPCompressedDataGenerator;
+import org.bouncycastle.openpgp.PGPEncryptedDataGenerator;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPLiteralData;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDataEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyKeyEncryptionMethodGenerator;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.security.Security;
+
+import static org.bouncycastle.bcpg.CompressionAlgorithmTags.ZIP;
+import static org.bouncycastle.bcpg.SymmetricKeyAlgorithmTags.AES_256;
+
+/**
+ * Baseline for {@link PgpEncryptionBenchmark}: the encryption path used before {@link PgpEncryptor},
+ * which registers the provider per call and round trips the content through a temporary file.
+ * Unlike the original the temporary directory is removed afterwards, so benchmark runs do not fill the disk.
+ */
+final class LegacyPgpEncryption {
+
+    private LegacyPgpEncryption() {
+    }
+
+    static byte[] encryptFile(byte[] inputFile, String inputFileName, PGPPublicKey pgpPublicKey)
+        throws IOException, PGPException {
+        Security.addProvider(new BouncyCastleProvider());
+
+        Path tempDir = Files.createTempDirectory("pg");
+        try {
+            File tempFile = tempDir.resolve(inputFileName).toFile();
+            Files.write(tempFile.toPath(), inputFile);
+
+            var compressed = new ByteArrayOutputStream();
+            try (OutputStream out = new PGPCompressedDataGenerator(ZIP).open(compressed)) {
+                PGPUtil.writeFileToLiteralData(out, PGPLiteralData.BINARY, tempFile);
+            }
+
+            var dataEncryptor = new BcPGPDataEncryptorBuilder(AES_256);
+            dataEncryptor.setWithIntegrityPacket(true);
+            dataEncryptor.setSecureRandom(new SecureRandom());
+
+            var encryptedDataGenerator = new PGPEncryptedDataGenerator(dataEncryptor);
+            encryptedDataGenerator.addMethod(new BcPublicKeyKeyEncryptionMethodGenerator(pgpPublicKey));
+
+            byte[] bytes = compressed.toByteArray();
+            var encrypted = new ByteArrayOutputStream();
+            try (OutputStream out = encryptedDataGenerator.open(encrypted, bytes.length)) {
+                out.write(bytes);
+            }
+            return encrypted.toByteArray();
+        } finally {
+            FileSystemUtils.deleteRecursively(tempDir);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.hmcts.reform.sendletter.services.encryption;
+
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encryption throughput of the {@link PgpEncryptor} backends on a single thread.
+ * The {@code megabytes} counter is reported per second, which gives MB/s per core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class PgpEncryptionBackendBenchmark {
+
+    private static final double MEGABYTE = 1024d * 1024d;
+
+    @Param({"bc", "jce"})
+    public String backend;
+
+    @Param({"1048576", "10485760"})
+    public int size;
+
+    private byte[] content;
+    private PGPPublicKey publicKey;
+    private PgpEncryptor encryptor;
+
+    /**
+     * Counts the volume of content encrypted by a benchmark thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Volume {
+        public double megabytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        content = new byte[size];
+        new Random(size).nextBytes(content);
+
+        try (InputStream key = getClass().getResourceAsStream("/encryption/pubkey.asc")) {
+            publicKey = PgpEncryptionUtil.loadPublicKey(key.readAllBytes());
+        }
+        encryptor = new PgpEncryptor(backend);
+    }
+
+    @Benchmark
+    public byte[] encrypt(Volume volume) {
+        byte[] encrypted = encryptor.encrypt(content, "benchmark.zip", publicKey);
+        volume.megabytes += size / MEGABYTE;
+        return encrypted;
+    }
+}
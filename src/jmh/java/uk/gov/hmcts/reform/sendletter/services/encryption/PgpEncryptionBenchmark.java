@@ -0,0 +1,57 @@
+package uk.gov.hmcts.reform.sendletter.services.encryption;
+
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PgpEncryptor} with the previous temp file based encryption for typical letter sizes.
+ * Input is random, so like a zipped PDF it does not compress any further.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PgpEncryptionBenchmark {
+
+    private static final String FILE_NAME = "benchmark.zip";
+
+    @Param({"102400", "1048576", "5242880", "20971520"})
+    public int size;
+
+    private byte[] content;
+    private PGPPublicKey publicKey;
+    private PgpEncryptor encryptor;
+
+    @Setup
+    public void setUp() throws IOException {
+        content = new byte[size];
+        new Random(size).nextBytes(content);
+
+        try (InputStream key = getClass().getResourceAsStream("/encryption/pubkey.asc")) {
+            publicKey = PgpEncryptionUtil.loadPublicKey(key.readAllBytes());
+        }
+        encryptor = new PgpEncryptor();
+    }
+
+    @Benchmark
+    public byte[] tempFileEncryption() throws IOException, PGPException {
+        return LegacyPgpEncryption.encryptFile(content, FILE_NAME, publicKey);
+    }
+
+    @Benchmark
+    public byte[] inMemoryEncryption() {
+        return encryptor.encrypt(content, FILE_NAME, publicKey);
+    }
+}
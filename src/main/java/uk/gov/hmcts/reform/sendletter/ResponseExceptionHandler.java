@@ -33,6 +33,7 @@ import uk.gov.hmcts.reform.sendletter.model.out.errors.FieldError;
 import uk.gov.hmcts.reform.sendletter.model.out.errors.ModelValidationError;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static java.util.stream.Collectors.toList;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
@@ -53,6 +54,8 @@ public class ResponseExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ResponseExceptionHandler.class);
 
+    private static final String RETRY_AFTER_SECONDS = "5";
+
     /**
      * Activates direct field access for the DataBinder.
      *
@@ -309,4 +312,18 @@ public class ResponseExceptionHandler extends ResponseEntityExceptionHandler {
         log.warn(exc.getMessage(), exc);
         return status(SERVICE_UNAVAILABLE).body(exc.getMessage());
     }
+
+    /**
+     * Handles RejectedExecutionException, raised when too many letters are waiting to be saved asynchronously.
+     *
+     * @param exc RejectedExecutionException
+     * @return ResponseEntity
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    protected ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException exc) {
+        log.warn(exc.getMessage(), exc);
+        return status(SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+            .body("Too many letters are waiting to be saved, please retry later");
+    }
 }
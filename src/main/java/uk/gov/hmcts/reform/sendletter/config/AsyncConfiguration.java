@@ -1,13 +1,17 @@
 package uk.gov.hmcts.reform.sendletter.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration for async executor.
@@ -18,18 +22,55 @@ public class AsyncConfiguration {
 
     /**
      * Get the async executor.
-     * @param threadPoolSize The size of the thread pool
+     * When all threads are busy and the queue is full further letters are rejected,
+     * so that a burst of async requests can not fill the heap with waiting letters.
+     * @param threadPoolSize The number of letters saved at the same time
+     * @param queueSize The number of letters waiting to be saved
+     * @param mode Either platform, for a fixed thread pool, or virtual, for a virtual thread per letter
+     * @param meterRegistry The meter registry
      * @return The async executor
      */
     @Bean(name = "AsyncExecutor")
-    public Executor getExecutor(@Value("${async.threadpool-size}") int threadPoolSize) {
-        return Executors.newFixedThreadPool(threadPoolSize,
+    public BoundedAsyncExecutor getExecutor(
+        @Value("${async.threadpool-size}") int threadPoolSize,
+        @Value("${async.queue-size:100}") int queueSize,
+        @Value("${async.mode:platform}") String mode,
+        MeterRegistry meterRegistry
+    ) {
+        BoundedAsyncExecutor.Mode executorMode = BoundedAsyncExecutor.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        logger.info("Async executor running {} tasks on {} threads, {} waiting",
+            threadPoolSize, executorMode, queueSize);
+        return new BoundedAsyncExecutor(
+            "AsyncExecutor", "letters.async", executorMode, threadPoolSize, queueSize, meterRegistry
+        );
+    }
+
+    /**
+     * Get the executor parsing letter documents in parallel.
+     * When all threads are busy and the queue is full the request thread parses the document itself,
+     * so a burst of large letters slows down instead of failing.
+     * @param threadPoolSize The size of the thread pool
+     * @param queueSize The number of documents waiting for a thread
+     * @return The PDF preparation executor
+     */
+    @Bean(name = "PdfPreparationExecutor")
+    public Executor getPdfPreparationExecutor(
+        @Value("${pdf.preparation.threadpool-size:4}") int threadPoolSize,
+        @Value("${pdf.preparation.queue-size:100}") int queueSize
+    ) {
+        return new ThreadPoolExecutor(
+            threadPoolSize,
+            threadPoolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
             (Runnable r) -> {
                 Thread t = new Thread(r);
-                t.setName("AsyncExecutor");
+                t.setName("PdfPreparationExecutor");
                 t.setDaemon(true);
                 return t;
-            }
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
         );
     }
 }
@@ -0,0 +1,122 @@
+package uk.gov.hmcts.reform.sendletter.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for letters saved asynchronously, with a bounded number of waiting tasks.
+ *
+ * <p>Each waiting task holds the request and the zipped letter in heap, so at most {@code queueSize} tasks
+ * may wait on top of the {@code concurrency} running ones. Any further task is rejected with
+ * a {@link RejectedExecutionException}, which the API reports as a temporary failure.
+ *
+ * <p>Tasks run either on a fixed pool of platform threads or each on its own virtual thread.
+ * Virtual threads are still limited to {@code concurrency} tasks running at the same time,
+ * so that the database connection pool is not exhausted.
+ */
+public class BoundedAsyncExecutor implements Executor, AutoCloseable {
+
+    /**
+     * Kind of threads running the tasks.
+     */
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private final ExecutorService threads;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Timer queuedTime;
+    private final Counter rejected;
+
+    /**
+     * Constructor for the BoundedAsyncExecutor.
+     * @param name The name of the threads
+     * @param meterPrefix The prefix of the queue size, active tasks, queued time and rejection meters
+     * @param mode The kind of threads running the tasks
+     * @param concurrency The number of tasks running at the same time
+     * @param queueSize The number of tasks waiting to run
+     * @param meterRegistry The meter registry
+     */
+    public BoundedAsyncExecutor(
+        String name,
+        String meterPrefix,
+        Mode mode,
+        int concurrency,
+        int queueSize,
+        MeterRegistry meterRegistry
+    ) {
+        this.threads = switch (mode) {
+            case PLATFORM -> Executors.newFixedThreadPool(
+                concurrency,
+                Thread.ofPlatform().name(name).daemon(true).factory()
+            );
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name).factory());
+        };
+        this.admitted = new Semaphore(concurrency + queueSize);
+        this.running = new Semaphore(concurrency);
+
+        Gauge.builder(meterPrefix + ".queue.size", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder(meterPrefix + ".active", active, AtomicInteger::get).register(meterRegistry);
+        this.queuedTime = Timer.builder(meterPrefix + ".queued")
+            .description("Time tasks waited before running")
+            .register(meterRegistry);
+        this.rejected = meterRegistry.counter(meterPrefix + ".rejected");
+    }
+
+    /**
+     * Queues the task.
+     * @param task The task
+     * @throws RejectedExecutionException if the queue is full
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many letters waiting to be saved");
+        }
+
+        long queuedAt = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            threads.execute(() -> run(task, queuedAt));
+        } catch (RejectedExecutionException exc) {
+            queued.decrementAndGet();
+            admitted.release();
+            throw exc;
+        }
+    }
+
+    private void run(Runnable task, long queuedAt) {
+        running.acquireUninterruptibly();
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        try {
+            queuedTime.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            task.run();
+        } finally {
+            running.release();
+            admitted.release();
+            active.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        threads.shutdown();
+    }
+}
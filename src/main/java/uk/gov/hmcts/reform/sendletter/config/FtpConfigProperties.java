@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.sendletter.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +34,8 @@ public class FtpConfigProperties {
 
     private Map<String, String> serviceFolders;
 
+    private Pool pool = new Pool();
+
     public static class ServiceFolderMapping {
 
         private String service;
@@ -70,6 +73,60 @@ public class FtpConfigProperties {
         // endregion
     }
 
+    /**
+     * Settings of the pool of SFTP sessions shared by all callers.
+     */
+    public static class Pool {
+
+        // 0 opens a new connection for every operation
+        private int maxSessions = 8;
+        private int minIdle = 0;
+        private Duration maxIdleTime = Duration.ofMinutes(5);
+        private Duration borrowTimeout = Duration.ofMinutes(1);
+        // idle sessions older than this are checked with a round trip before being reused
+        private Duration validateAfter = Duration.ofSeconds(30);
+
+        public int getMaxSessions() {
+            return maxSessions;
+        }
+
+        public void setMaxSessions(int maxSessions) {
+            this.maxSessions = maxSessions;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getBorrowTimeout() {
+            return borrowTimeout;
+        }
+
+        public void setBorrowTimeout(Duration borrowTimeout) {
+            this.borrowTimeout = borrowTimeout;
+        }
+
+        public Duration getValidateAfter() {
+            return validateAfter;
+        }
+
+        public void setValidateAfter(Duration validateAfter) {
+            this.validateAfter = validateAfter;
+        }
+    }
+
     public String getHostname() {
         return hostname;
     }
@@ -160,4 +217,12 @@ public class FtpConfigProperties {
             .filter(ServiceFolderMapping::isEnabled)
             .collect(toMap(ServiceFolderMapping::getService, ServiceFolderMapping::getFolder));
     }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
 }
@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.sendletter.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+import uk.gov.hmcts.reform.sendletter.services.DatabaseLetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.FilesystemLetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentReader;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for where letter file content is kept, selected with {@code letter-content.store}.
+ */
+@Configuration
+public class LetterContentStoreConfiguration {
+
+    /**
+     * Create a bean of LetterContentStore keeping content in the database.
+     * @param letterContentRepository The repository for letter file content
+     * @param contentReader The reader streaming letter file content
+     * @return The LetterContentStore
+     */
+    @Bean
+    @ConditionalOnProperty(name = "letter-content.store", havingValue = "database", matchIfMissing = true)
+    public LetterContentStore databaseLetterContentStore(
+        LetterContentRepository letterContentRepository,
+        LetterContentReader contentReader
+    ) {
+        return new DatabaseLetterContentStore(letterContentRepository, contentReader);
+    }
+
+    /**
+     * Create a bean of LetterContentStore keeping content in files.
+     * @param root The directory files are kept in, shared by all instances
+     * @param gracePeriod How long an unreferenced file is kept
+     * @param letterContentRepository The repository for letter file content
+     * @param contentReader The reader for content of letters saved in the database
+     * @param jdbcTemplate The JDBC template
+     * @param clock The clock
+     * @return The LetterContentStore
+     */
+    @Bean
+    @ConditionalOnProperty(name = "letter-content.store", havingValue = "filesystem")
+    public LetterContentStore filesystemLetterContentStore(
+        @Value("${letter-content.filesystem.root:}") String root,
+        @Value("${letter-content.filesystem.grace-period:PT1H}") Duration gracePeriod,
+        LetterContentRepository letterContentRepository,
+        LetterContentReader contentReader,
+        JdbcTemplate jdbcTemplate,
+        Clock clock
+    ) {
+        if (root.isBlank()) {
+            throw new IllegalArgumentException("letter-content.filesystem.root has to be set for the filesystem store");
+        }
+        return new FilesystemLetterContentStore(
+            Path.of(root),
+            gracePeriod,
+            letterContentRepository,
+            contentReader,
+            jdbcTemplate,
+            clock
+        );
+    }
+}
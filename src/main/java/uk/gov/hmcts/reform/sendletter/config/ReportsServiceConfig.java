@@ -1,7 +1,6 @@
 package uk.gov.hmcts.reform.sendletter.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import uk.gov.hmcts.reform.sendletter.model.out.LetterStatus;
 
 import java.util.HashSet;
 import java.util.List;
@@ -64,6 +63,16 @@ public class ReportsServiceConfig {
         }
     }
 
+    /**
+     * Report codes of a service, for letters that are and are not flagged as infected blood.
+     *
+     * @param service        The name of the service
+     * @param reportCode     The report code of letters not flagged as infected blood (may be {@code null})
+     * @param ibcaReportCode The report code of letters flagged as infected blood (may be {@code null})
+     */
+    public record ServiceReportCodes(String service, String reportCode, String ibcaReportCode) {
+    }
+
     public Map<String, Mapping> getServiceConfig() {
         return serviceConfig;
     }
@@ -102,6 +111,21 @@ public class ReportsServiceConfig {
         return codes;
     }
 
+    /**
+     * Return the report codes of every service, as resolved by {@link #getReportCode(String, boolean)}.
+     *
+     * @return the {@link List} of report codes by service
+     */
+    public List<ServiceReportCodes> getServiceReportCodes() {
+        return serviceConfig.keySet().stream()
+            .map(service -> new ServiceReportCodes(
+                service,
+                getReportCode(service, false),
+                getReportCode(service, true)
+            ))
+            .toList();
+    }
+
     /**
      * Set the service configuration.
      *
@@ -126,11 +150,11 @@ public class ReportsServiceConfig {
     /**
      * Get the report code for a service.
      *
-     * @param serviceName  The name of the service
-     * @param letterStatus The associated letter status (only required for SSCS)
+     * @param serviceName The name of the service
+     * @param isIbca      Whether the letter is flagged as infected blood (only required for SSCS)
      * @return The report code (may be {@code null})
      */
-    public String getReportCode(String serviceName, LetterStatus letterStatus) {
+    public String getReportCode(String serviceName, boolean isIbca) {
         String code = Optional.ofNullable(serviceName)
             .map(serviceConfig::get)
             .map(Mapping::getReportCode)
@@ -138,13 +162,7 @@ public class ReportsServiceConfig {
 
         // special case for sscs
         if (SSCS_CODE.equalsIgnoreCase(code)) {
-            code = Optional.ofNullable(letterStatus)
-                .map(ls -> ls.additionalData)
-                .map(ad -> ad.get("isIbca"))
-                .map(Object::toString)// can be either a string or a boolean...
-                .filter("true"::equalsIgnoreCase)
-                .map(c -> SSCS_CODE + SSCS_IB_SUFFIX)
-                .orElse(SSCS_CODE + SSCS_REFORM_SUFFIX);
+            code = isIbca ? SSCS_CODE + SSCS_IB_SUFFIX : SSCS_CODE + SSCS_REFORM_SUFFIX;
         }
 
         return code;
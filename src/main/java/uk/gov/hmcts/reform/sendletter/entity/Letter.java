@@ -17,6 +17,7 @@ import java.util.UUID;
 
 /**
  * Letter entity.
+ * The file content is kept apart in {@link LetterContent}, so that loading a letter doesn't load its file.
  */
 @Entity
 @Table(name = "letters")
@@ -38,7 +39,6 @@ public class Letter {
     private String type;
     @Enumerated(EnumType.STRING)
     private LetterStatus status = LetterStatus.Created;
-    private byte[] fileContent;
     private Boolean isEncrypted;
     private String encryptionKeyFingerprint;
     @Type(JsonType.class)
@@ -56,7 +56,6 @@ public class Letter {
      * @param service The service of the letter
      * @param additionalData The additional data of the letter
      * @param type The type of the letter
-     * @param fileContent The file content of the letter
      * @param isEncrypted The isEncrypted of the letter
      * @param encryptionKeyFingerprint The encryptionKeyFingerprint of the letter
      * @param createdAt The created at of the letter
@@ -68,7 +67,6 @@ public class Letter {
         String service,
         JsonNode additionalData,
         String type,
-        byte[] fileContent,
         Boolean isEncrypted,
         String encryptionKeyFingerprint,
         LocalDateTime createdAt,
@@ -79,7 +77,6 @@ public class Letter {
         this.service = service;
         this.additionalData = additionalData;
         this.type = type;
-        this.fileContent = fileContent;
         this.isFailed = false;
         this.isEncrypted = isEncrypted;
         this.encryptionKeyFingerprint = encryptionKeyFingerprint;
@@ -111,14 +108,6 @@ public class Letter {
         this.status = status;
     }
 
-    public byte[] getFileContent() {
-        return fileContent;
-    }
-
-    public void setFileContent(byte[] fileContent) {
-        this.fileContent = fileContent;
-    }
-
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
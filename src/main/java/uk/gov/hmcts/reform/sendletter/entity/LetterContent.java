@@ -0,0 +1,57 @@
+package uk.gov.hmcts.reform.sendletter.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.UUID;
+
+/**
+ * The file sent to print for a letter, kept apart from the letter so that it is only read when uploading.
+ * The file is either held in the row itself or, with the filesystem content store, referenced by its blob key.
+ */
+@Entity
+@Table(name = "letter_content")
+public class LetterContent {
+    @Id
+    private UUID letterId;
+    private byte[] fileContent;
+    private String blobKey;
+
+    // For use by hibernate.
+    private LetterContent() {
+    }
+
+    /**
+     * Constructor for the LetterContent.
+     * @param letterId The ID of the letter
+     * @param fileContent The zipped or encrypted file of the letter
+     */
+    public LetterContent(UUID letterId, byte[] fileContent) {
+        this(letterId, fileContent, null);
+    }
+
+    /**
+     * Constructor for the LetterContent.
+     * @param letterId The ID of the letter
+     * @param fileContent The zipped or encrypted file of the letter, null if stored outside the database
+     * @param blobKey The key of the file stored outside the database, null if stored in the database
+     */
+    public LetterContent(UUID letterId, byte[] fileContent, String blobKey) {
+        this.letterId = letterId;
+        this.fileContent = fileContent;
+        this.blobKey = blobKey;
+    }
+
+    public UUID getLetterId() {
+        return letterId;
+    }
+
+    public byte[] getFileContent() {
+        return fileContent;
+    }
+
+    public String getBlobKey() {
+        return blobKey;
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.sendletter.entity;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+/**
+ * Letter content repository.
+ * Content is deleted together with the letter status changes in {@link LetterRepository}.
+ */
+public interface LetterContentRepository extends JpaRepository<LetterContent, UUID> {
+}
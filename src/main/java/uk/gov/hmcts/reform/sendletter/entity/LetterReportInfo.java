@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.sendletter.entity;
+
+import java.util.UUID;
+
+/**
+ * What is needed to tell which print report a letter is expected in, read without loading the letter.
+ * @param id The ID
+ * @param service The service
+ * @param isIbca Whether the additional data flags the letter as infected blood
+ * @param isInternational Whether the additional data flags the letter as international
+ */
+public record LetterReportInfo(
+    UUID id,
+    String service,
+    boolean isIbca,
+    boolean isInternational
+) {
+}
@@ -63,17 +63,6 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
      */
     List<BasicLetterInfo> findByStatusInAndCreatedAtBeforeOrderByCreatedAtAsc(Collection<LetterStatus> statuses, LocalDateTime createdAtBefore);
 
-    /**
-     * Find by status in and created before where sentToPrintAt is not null, ordered by created at
-     * ascending.
-     *
-     * @param statuses the letter statuses
-     * @param createdAtBefore the created before date
-     * @return the {@link List} of found {@link BasicLetterInfo}s
-     */
-    List<BasicLetterInfo> findByStatusInAndCreatedAtBeforeAndSentToPrintAtNotNullOrderByCreatedAtAsc(
-        Collection<LetterStatus> statuses, LocalDateTime createdAtBefore);
-
     /**
      * Find by status not in and type not and created at between order by created at asc.
      * @param letterStatuses the letter statuses
@@ -118,12 +107,21 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
     List<BasicLetterInfo> findCreatedAt(@Param("createdAt") LocalDate createdAt);
 
     /**
-     * Find by checksum and status order by created at desc.
+     * Find the id of the latest letter with the checksum and status, without loading the letter.
      * @param checksum the checksum
      * @param status the status
-     * @return Letter
+     * @return the letter id
      */
-    Optional<Letter> findByChecksumAndStatusOrderByCreatedAtDesc(String checksum, LetterStatus status);
+    @Query("SELECT l.id FROM Letter l WHERE l.checksum = :checksum AND l.status = :status ORDER BY l.createdAt DESC LIMIT 1")
+    Optional<UUID> findLatestIdByChecksumAndStatus(@Param("checksum") String checksum, @Param("status") LetterStatus status);
+
+    /**
+     * Check whether the letter has the status.
+     * @param id the id
+     * @param status the status
+     * @return true if the letter exists with the status
+     */
+    boolean existsByIdAndStatus(UUID id, LetterStatus status);
 
     /**
      * Find by id.
@@ -132,6 +130,16 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
      */
     Optional<Letter> findById(UUID id);
 
+    /**
+     * Find what is needed to upload a Created letter, leaving out its file content.
+     * @param id the id
+     * @return LetterUploadInfo optional, empty if the letter is no longer Created
+     */
+    @Query("select new uk.gov.hmcts.reform.sendletter.entity.LetterUploadInfo(l.id, l.checksum, l.service, l.type, l.additionalData, l.createdAt, l.isEncrypted)"
+        + " from Letter l"
+        + " where l.id = :id and l.status = 'Created'")
+    Optional<LetterUploadInfo> findLetterToUpload(@Param("id") UUID id);
+
     /**
      * Find letter status.
      * @param id the id
@@ -141,27 +149,33 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
     Optional<LetterStatus> findLetterStatus(@Param("id") UUID id);
 
     /**
-     * Mark letter as printed.
+     * Mark letter as printed and delete its file content.
+     * Also clears the file_content column of letters saved before the content moved to letter_content.
      * @param id the id
      * @param printedAt the printed at
      * @return int number of updated records
      */
     @Modifying(clearAutomatically = true)
-    @Query("UPDATE Letter l SET l.status = 'Posted', l.printedAt = :printedAt, l.fileContent = null WHERE l.id = :id")
+    @Query(value = "WITH deleted AS (DELETE FROM letter_content c WHERE c.letter_id = :id)"
+        + " UPDATE letters SET status = 'Posted', printed_at = :printedAt, file_content = NULL WHERE id = :id",
+        nativeQuery = true)
     int markLetterAsPosted(@Param("id") UUID id, @Param("printedAt") LocalDateTime printedAt);
 
     /**
      * Clear file content.
+     * Also clears the file_content column of letters saved before the content moved to letter_content.
      * @param createdBefore the created before
      * @param status the status
      * @return int number of updated records
      */
     @Modifying(clearAutomatically = true)
-    @Query("UPDATE Letter l"
-        + " SET l.fileContent = null "
-        + " WHERE l.createdAt < :createdBefore "
-        + " AND l.status = :status"
-    )
+    @Query(value = "WITH deleted AS ("
+        + "   DELETE FROM letter_content c USING letters l"
+        + "   WHERE c.letter_id = l.id AND l.created_at < :createdBefore AND l.status = :#{#status.name()}"
+        + " )"
+        + " UPDATE letters SET file_content = NULL"
+        + " WHERE created_at < :createdBefore AND status = :#{#status.name()}",
+        nativeQuery = true)
     int clearFileContent(
         @Param("createdBefore") LocalDateTime createdBefore,
         @Param("status") LetterStatus status
@@ -219,18 +233,6 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
     )
     int markLetterAsAborted(@Param("id") UUID id);
 
-    /**
-     * Mark letter as no report aborted.
-     * @param id the id
-     * @return int number of updated records
-     */
-    @Modifying(clearAutomatically = true)
-    @Query("UPDATE Letter l"
-        + " SET l.status = uk.gov.hmcts.reform.sendletter.entity.LetterStatus.NoReportAborted"
-        + " WHERE l.id = :id"
-    )
-    int markLetterAsNoReportAborted(UUID id);
-
     /**
      * Mark letter as posted locally.
      * @param id the id
@@ -242,13 +244,4 @@ public interface LetterRepository extends JpaRepository<Letter, UUID> {
         + " WHERE l.id = :id AND l.status in ('Uploaded', 'Posted')"
     )
     int markLetterAsPostedLocally(@Param("id") UUID id);
-
-    /**
-     * Find the related service for a letter.
-     *
-     * @param id the letter id
-     * @return the service
-     */
-    @Query("SELECT l.service FROM Letter l WHERE l.id = :id")
-    Optional<String> findLetterService(UUID id);
 }
@@ -0,0 +1,27 @@
+package uk.gov.hmcts.reform.sendletter.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What the upload task needs to know about a letter, without its file content.
+ * @param id The ID
+ * @param checksum The checksum
+ * @param service The service
+ * @param type The type
+ * @param additionalData The additional data
+ * @param createdAt The created at
+ * @param isEncrypted Whether the file content is encrypted
+ */
+public record LetterUploadInfo(
+    UUID id,
+    String checksum,
+    String service,
+    String type,
+    JsonNode additionalData,
+    LocalDateTime createdAt,
+    Boolean isEncrypted
+) {
+}
@@ -184,7 +184,7 @@ public class AppInsights {
         telemetryClient.trackEvent(
             LETTER_PRINT_REPORT,
             ImmutableMap.of("isReportParsedFully", BooleanUtils.toStringYesNo(report.allRowsParsed)),
-            ImmutableMap.of("reportSize", (double) report.statuses.size())
+            ImmutableMap.of("reportSize", (double) report.letterCount)
         );
     }
 }
@@ -1,12 +1,11 @@
 package uk.gov.hmcts.reform.sendletter.model;
 
 import java.time.LocalDate;
-import java.util.List;
 
 public class ParsedReport {
 
     public final String path;
-    public final List<LetterPrintStatus> statuses;
+    public final long letterCount;
     public final boolean allRowsParsed;
     public final LocalDate reportDate;
 
@@ -14,12 +13,12 @@ public class ParsedReport {
      * Constructor.
      *
      * @param path the path
-     * @param statuses the statuses
+     * @param letterCount the number of letters parsed
      * @param allRowsParsed the all rows parsed
      */
-    public ParsedReport(String path, List<LetterPrintStatus> statuses, boolean allRowsParsed, LocalDate reportDate) {
+    public ParsedReport(String path, long letterCount, boolean allRowsParsed, LocalDate reportDate) {
         this.path = path;
-        this.statuses = statuses;
+        this.letterCount = letterCount;
         this.allRowsParsed = allRowsParsed;
         this.reportDate = reportDate;
     }
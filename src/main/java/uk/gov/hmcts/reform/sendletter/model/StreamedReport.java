@@ -1,23 +1,24 @@
 package uk.gov.hmcts.reform.sendletter.model;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 
-public class Report {
+public class StreamedReport {
 
     public final String path;
-    public final byte[] content;
+    public final InputStream content;
     public final LocalDate reportDate;
 
     /**
      * Constructor.
      *
      * @param path the path
-     * @param content the content
-     * @param mtime the mtime attribute of the downloaded file (epoch second)
+     * @param content the content, read from the server as it is consumed
+     * @param mtime the mtime attribute of the file (epoch second)
      */
-    public Report(String path, byte[] content, long mtime) {
+    public StreamedReport(String path, InputStream content, long mtime) {
         this.path = path;
         this.content = content;
         reportDate = LocalDate.ofInstant(Instant.ofEpochSecond(mtime), ZoneOffset.UTC);
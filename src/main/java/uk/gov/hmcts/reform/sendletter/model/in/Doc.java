@@ -1,9 +1,9 @@
 package uk.gov.hmcts.reform.sendletter.model.in;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotEmpty;
 
 import java.io.Serializable;
 
@@ -14,8 +14,9 @@ public class Doc implements Serializable {
 
     private static final long serialVersionUID = -1718267310344700595L;
 
-    @NotEmpty
-    public final byte[] content;
+    // the content is only held as an array while serialised, so that version 1 letter checksums stay the same
+    private final transient DocumentContent pdf;
+    private final byte[] content;
 
     @Min(1)
     @Max(100)
@@ -28,10 +29,42 @@ public class Doc implements Serializable {
      * @param copies the number of copies
      */
     public Doc(
-        @JsonProperty("content") byte[] content,
+        @JsonProperty("content") @JsonDeserialize(using = StreamingBase64Deserializer.class) DocumentContent content,
         @JsonProperty("copies") int copies
     ) {
+        this.pdf = content;
+        this.content = null;
+        this.copies = copies;
+    }
+
+    /**
+     * Constructor for a document held in heap.
+     *
+     * @param content the document content
+     * @param copies the number of copies
+     */
+    public Doc(byte[] content, int copies) {
+        this(content == null ? null : DocumentContent.of(content), copies);
+    }
+
+    // serial form, holding the content as an array
+    private Doc(int copies, byte[] content) {
+        this.pdf = null;
         this.content = content;
         this.copies = copies;
     }
+
+    /**
+     * The document content.
+     *
+     * @return the content
+     */
+    @NotEmptyContent
+    public DocumentContent getContent() {
+        return pdf;
+    }
+
+    private Object writeReplace() {
+        return pdf == null ? this : new Doc(copies, pdf.toByteArray());
+    }
 }
@@ -0,0 +1,123 @@
+package uk.gov.hmcts.reform.sendletter.model.in;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Decoded content of a document in a letter request, held in heap or spooled to a temporary file.
+ *
+ * <p>Documents above the spool threshold are decoded to a file by {@link StreamingBase64Deserializer},
+ * which deletes it once the request has completed. Such documents are parsed and digested from the file,
+ * so they are only read into heap when a whole array is asked for.
+ *
+ * <p>Java serialisation writes the content as a {@code byte[]}, the way documents were bound before,
+ * so that version 1 letter checksums stay the same.
+ */
+@Schema(type = "string", format = "byte")
+public final class DocumentContent implements Serializable {
+
+    private static final long serialVersionUID = -4437419530284719375L;
+
+    private final transient byte[] bytes;
+    private final transient Path file;
+    private final transient long length;
+
+    private DocumentContent(byte[] bytes, Path file, long length) {
+        this.bytes = bytes;
+        this.file = file;
+        this.length = length;
+    }
+
+    /**
+     * Content held in heap.
+     *
+     * @param bytes the decoded document, not copied
+     * @return the content
+     */
+    public static DocumentContent of(byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+        return new DocumentContent(bytes, null, bytes.length);
+    }
+
+    /**
+     * Content spooled to a file, which the caller deletes once done with it.
+     *
+     * @param file the file holding the decoded document
+     * @param length the length of the file
+     * @return the content
+     */
+    static DocumentContent spooled(Path file, long length) {
+        return new DocumentContent(null, file, length);
+    }
+
+    /**
+     * Length of the decoded document.
+     *
+     * @return the number of bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Whether the decoded document has no bytes.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * File the document is spooled to.
+     *
+     * @return the file, null when the document is held in heap
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Opens the decoded document for reading.
+     *
+     * @return the stream, to be closed by the caller
+     * @throws IOException if the spooled file can not be opened
+     */
+    public InputStream openStream() throws IOException {
+        return file == null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+    }
+
+    /**
+     * The decoded document as a whole array. A spooled document is read into heap for that.
+     *
+     * @return the bytes, not to be modified
+     */
+    public byte[] toByteArray() {
+        if (file == null) {
+            return bytes;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    void delete() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Object writeReplace() {
+        return toByteArray();
+    }
+}
@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.sendletter.model.in;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
@@ -22,7 +23,7 @@ public class LetterWithPdfsRequest implements Serializable, ILetterRequest {
      */
     @Schema(description = "List of base64 encoded pdfs to be printed. Maximum allowed is 30", required = true)
     @Size(min = 1, max = 30)
-    public final List<byte[]> documents;
+    public final List<DocumentContent> documents;
 
     @Schema(description = "Type to be used to print documents", required = true)
     @NotEmpty
@@ -41,7 +42,8 @@ public class LetterWithPdfsRequest implements Serializable, ILetterRequest {
      * @param additionalData the additional data
      */
     public LetterWithPdfsRequest(
-        @JsonProperty("documents") List<byte[]> documents,
+        @JsonProperty("documents")
+        @JsonDeserialize(contentUsing = StreamingBase64Deserializer.class) List<DocumentContent> documents,
         @JsonProperty("type") String type,
         @JsonProperty("additional_data") Map<String, Object> additionalData
     ) {
@@ -0,0 +1,21 @@
+package uk.gov.hmcts.reform.sendletter.model.in;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for validating that document content is present and not empty, as {@code NotEmpty} does for arrays.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = NotEmptyContentValidator.class)
+public @interface NotEmptyContent {
+    String message() default "must not be empty";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.sendletter.model.in;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validator for document content.
+ */
+public class NotEmptyContentValidator implements ConstraintValidator<NotEmptyContent, DocumentContent> {
+
+    /**
+     * Validates that the content is present and has at least one byte.
+     *
+     * @param value   the content to validate
+     * @param context the validation context
+     * @return true if the content is not empty
+     */
+    @Override
+    public boolean isValid(DocumentContent value, ConstraintValidatorContext context) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,178 @@
+package uk.gov.hmcts.reform.sendletter.model.in;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.PrimitiveArrayDeserializers;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Decodes base64 encoded documents straight from the request body, without an intermediate base64 string.
+ *
+ * <p>Default binding of {@code byte[]} reads the whole base64 string into a text buffer before decoding it,
+ * so each document is held in heap both as text, two bytes per base64 character, and as bytes. This deserializer
+ * lets the parser decode the value incrementally from its input buffer instead.
+ *
+ * <p>Up to {@code letters.documents.spool-threshold} of a document is decoded into heap. A larger document is
+ * decoded to a temporary file in {@code letters.documents.spool-dir}, which is deleted once the request has
+ * completed. Outside a request there is nothing to delete the file once done with, so documents are kept in heap.
+ */
+public class StreamingBase64Deserializer extends StdDeserializer<DocumentContent> {
+
+    private static final long serialVersionUID = 3921486410734263471L;
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingBase64Deserializer.class);
+
+    private static final JsonDeserializer<?> FALLBACK = PrimitiveArrayDeserializers.forType(Byte.TYPE);
+
+    private static final DataSize DEFAULT_SPOOL_THRESHOLD = DataSize.ofMegabytes(1);
+
+    private final long spoolThreshold;
+    private final transient Path spoolDir;
+
+    /**
+     * Constructor for mappers not created by Spring, using the default spool threshold and the JVM temp directory.
+     */
+    public StreamingBase64Deserializer() {
+        this(DEFAULT_SPOOL_THRESHOLD, "");
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param spoolThreshold the size above which a document is decoded to a temporary file
+     * @param spoolDir the directory for temporary files, the JVM temp directory when empty
+     */
+    @Autowired
+    public StreamingBase64Deserializer(
+        @Value("${letters.documents.spool-threshold:1MB}") DataSize spoolThreshold,
+        @Value("${letters.documents.spool-dir:}") String spoolDir
+    ) {
+        super(DocumentContent.class);
+        this.spoolThreshold = spoolThreshold.toBytes();
+        this.spoolDir = StringUtils.hasText(spoolDir)
+            ? Path.of(spoolDir)
+            : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Decodes the current base64 string value.
+     *
+     * @param parser the parser positioned at the value
+     * @param context the deserialization context
+     * @return the decoded document
+     * @throws IOException if the value can not be read or is not valid base64
+     */
+    @Override
+    public DocumentContent deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            // embedded binary or array of numbers, nothing to stream
+            return DocumentContent.of((byte[]) FALLBACK.deserialize(parser, context));
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Spool spool = new Spool(request == null ? Long.MAX_VALUE : spoolThreshold);
+        try {
+            parser.readBinaryValue(context.getBase64Variant(), spool);
+            DocumentContent content = spool.finish();
+            if (content.getFile() != null) {
+                // temporary files have unique names, so they do for callback names too
+                request.registerDestructionCallback(
+                    content.getFile().toString(),
+                    () -> delete(content),
+                    RequestAttributes.SCOPE_REQUEST
+                );
+            }
+            return content;
+        } catch (IllegalArgumentException exc) {
+            spool.discard();
+            throw context.weirdStringException(null, byte[].class, exc.getMessage());
+        } catch (IOException | RuntimeException exc) {
+            spool.discard();
+            throw exc;
+        }
+    }
+
+    private static void delete(DocumentContent content) {
+        try {
+            content.delete();
+        } catch (IOException exc) {
+            log.warn("Failed to delete spooled document {}", content.getFile(), exc);
+        }
+    }
+
+    /**
+     * Collects decoded bytes in heap up to the threshold, and in a temporary file beyond.
+     */
+    private final class Spool extends OutputStream {
+
+        private final long threshold;
+        private final ByteArrayBuilder buffer = new ByteArrayBuilder();
+        private Path file;
+        private OutputStream fileOut;
+        private long length;
+
+        private Spool(long threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (file == null && length + len > threshold) {
+                spill();
+            }
+            if (file == null) {
+                buffer.write(b, off, len);
+            } else {
+                fileOut.write(b, off, len);
+            }
+            length += len;
+        }
+
+        private void spill() throws IOException {
+            Files.createDirectories(spoolDir);
+            file = Files.createTempFile(spoolDir, "letter-document", ".pdf");
+            fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+            // toByteArray also resets the buffer, so what was decoded so far is not held in heap any longer
+            fileOut.write(buffer.toByteArray());
+        }
+
+        private DocumentContent finish() throws IOException {
+            if (file == null) {
+                return DocumentContent.of(buffer.toByteArray());
+            }
+            fileOut.close();
+            return DocumentContent.spooled(file, length);
+        }
+
+        private void discard() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -5,16 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
-import uk.gov.hmcts.reform.sendletter.entity.BasicLetterInfo;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
-import uk.gov.hmcts.reform.sendletter.entity.ReportRepository;
-import uk.gov.hmcts.reform.sendletter.exception.LetterNotFoundException;
 import uk.gov.hmcts.reform.sendletter.model.out.CheckPostedTaskResponse;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -25,71 +21,38 @@ public class CheckLettersPostedService {
 
     @Value("${stale-letters.min-age-in-days-for-no-report-abort}")
     private int minAgeInDaysForNoReportAbort;
-    private final StaleLetterService staleLetterService;
-    private final LetterService letterService;
-    private final LetterActionService letterActionService;
-    private final ReportRepository reportRepository;
+    private final LetterDataAccessService dataAccessService;
     private final ReportsServiceConfig reportsServiceConfig;
 
     /**
      * This function performs the following tasks.
      *
      * <ol>
-     *     <li>Retrieves the set of documents that have been in an
-     *         {@link LetterStatus#Uploaded} status for more than 7 days.</li>
-     *     <li>For each letter retrieved:
-     *         <ol>
-     *             <li>Works out the expected report code, date and international status using the status/attributes
-     *                 of the letter.</li>
-     *             <li>If a report was NOT recorded for that date (no row in reports table): Sets the letter to
-     *                 {@link LetterStatus#NoReportAborted}.</li>
-     *         </ol>
-     *     </li>
+     *     <li>Finds the letters that have been in an {@link LetterStatus#Uploaded} status for more than 7 days
+     *         and for which NO report was recorded (no row in reports table) with the report code, date and
+     *         international status expected from the attributes of the letter.</li>
+     *     <li>Sets those letters to {@link LetterStatus#NoReportAborted}.</li>
      * </ol>
+     *
+     * <p>Both are done in one statement, however many letters there are.
      * @return a{@link CheckPostedTaskResponse} that contains details of the letters marked as
      *         {@link LetterStatus#NoReportAborted}.
      */
     public CheckPostedTaskResponse checkLetters() {
         log.info("Started '{}' task", TASK_NAME);
-        int count = 0;
-        List<BasicLetterInfo> letters = staleLetterService.getStaleLettersWithValidPrintDate(
-            List.of(LetterStatus.Uploaded),
-            LocalDateTime.now(ZoneOffset.UTC).minusDays(minAgeInDaysForNoReportAbort)
+        Map<String, Integer> aborted = dataAccessService.markLettersWithNoReportAsAborted(
+            LocalDateTime.now(ZoneOffset.UTC).minusDays(minAgeInDaysForNoReportAbort),
+            reportsServiceConfig.getServiceReportCodes()
         );
-        for (BasicLetterInfo letter : letters) {
-            try {
-                if (!reportExistsForLetter(letter)) {
-                    count += letterActionService.markLetterAsNoReportAborted(letter.getId());
-                }
-            } catch (LetterNotFoundException e) {
-                log.warn("Letter not found for id {} during posted check", letter.getId());
+        int count = 0;
+        for (Map.Entry<String, Integer> serviceAborted : aborted.entrySet()) {
+            if (reportsServiceConfig.getReportCode(serviceAborted.getKey(), false) == null) {
+                log.warn("Unable to determine report code for service {}, assumed no report for {} letters.",
+                    serviceAborted.getKey(), serviceAborted.getValue());
             }
+            count += serviceAborted.getValue();
         }
-        log.info("Completed '{}' task", TASK_NAME);
+        log.info("Completed '{}' task. Marked {} letters as NoReportAborted: {}", TASK_NAME, count, aborted);
         return new CheckPostedTaskResponse(count);
     }
-
-    private boolean reportExistsForLetter(BasicLetterInfo letter) {
-        uk.gov.hmcts.reform.sendletter.model.out.LetterStatus status =
-            letterService.getStatus(letter.getId(), Boolean.TRUE.toString(), Boolean.FALSE.toString());
-        String reportCode = reportsServiceConfig.getReportCode(letter.getService(), status);
-        if (reportCode != null) {
-            return reportRepository.findFirstByReportCodeAndReportDateAndIsInternational(
-                reportCode,
-                letter.getSentToPrintAt().toLocalDate(),
-                calculateIsInternational(status)
-            ).isPresent();
-        }
-        log.warn("Unable to determine report code for service {}, assuming no report.", letter.getService());
-        return false;
-    }
-
-    private boolean calculateIsInternational(final uk.gov.hmcts.reform.sendletter.model.out.LetterStatus status) {
-        return Optional.ofNullable(status.additionalData)
-            .map(m -> m.get("isInternational"))
-            .map(Object::toString) // probably unnecessary
-            .map(Boolean::valueOf)
-            .orElse(false);
-    }
-
 }
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Keeps letter file content in the letter_content table. Rows are deleted together with the letter content
+ * when letters are posted or their content is cleared, so there is nothing left to delete afterwards.
+ */
+public class DatabaseLetterContentStore implements LetterContentStore {
+
+    private final LetterContentRepository letterContentRepository;
+    private final LetterContentReader contentReader;
+
+    /**
+     * Constructor for the DatabaseLetterContentStore.
+     * @param letterContentRepository The repository for letter file content
+     * @param contentReader The reader streaming letter file content
+     */
+    public DatabaseLetterContentStore(
+        LetterContentRepository letterContentRepository,
+        LetterContentReader contentReader
+    ) {
+        this.letterContentRepository = letterContentRepository;
+        this.contentReader = contentReader;
+    }
+
+    @Override
+    public void save(UUID letterId, byte[] content) {
+        letterContentRepository.save(new LetterContent(letterId, content));
+    }
+
+    @Override
+    public long getContentLength(UUID letterId) {
+        return contentReader.getContentLength(letterId);
+    }
+
+    @Override
+    public InputStream openContent(UUID letterId, long length) {
+        return contentReader.openContent(letterId, length);
+    }
+
+    @Override
+    public int deleteUnreferenced() {
+        return 0;
+    }
+}
@@ -51,8 +51,17 @@ public class DocumentService {
      * @return The letter id
      */
     public Optional<UUID> checkDocumentDuplicates(List<?> documents, String recipientListChecksum) {
-        for (Object document : documents) {
-            String checkSum = letterChecksumService.generateChecksumForPdfPages(document);
+        return checkDocumentChecksumDuplicates(getChecksums(documents), recipientListChecksum);
+    }
+
+    /**
+     * Check for duplicate documents by their already calculated checksums.
+     * @param checksums The document checksums
+     * @param recipientListChecksum The recipient list checksum
+     * @return The letter id
+     */
+    public Optional<UUID> checkDocumentChecksumDuplicates(List<String> checksums, String recipientListChecksum) {
+        for (String checkSum : checksums) {
             Optional<Document> documentFound = documentRepository.findOneCreatedAfter(
                 checkSum,
                 recipientListChecksum,
@@ -81,11 +90,21 @@ public class DocumentService {
      */
     @Transactional
     public void saveDocuments(UUID letterId, List<?> documents, String recipientsChecksum) {
-        log.debug("Saving {} documents, letterId {}", documents.size(), letterId);
-        documents.forEach((document) -> {
+        saveDocumentChecksums(letterId, getChecksums(documents), recipientsChecksum);
+    }
+
+    /**
+     * Save documents by their already calculated checksums.
+     * @param letterId The letter id
+     * @param checksums The document checksums
+     * @param recipientsChecksum The recipients checksum
+     */
+    @Transactional
+    public void saveDocumentChecksums(UUID letterId, List<String> checksums, String recipientsChecksum) {
+        log.debug("Saving {} documents, letterId {}", checksums.size(), letterId);
+        checksums.forEach((checkSum) -> {
             UUID id = UUID.randomUUID();
             log.debug("Saving document, id {}, letterId {}", id, letterId);
-            String checkSum = letterChecksumService.generateChecksumForPdfPages(document);
             Optional<Document> documentFound = documentRepository.findOneCreatedAfter(
                 checkSum,
                 recipientsChecksum,
@@ -113,4 +132,10 @@ public class DocumentService {
             }
         });
     }
+
+    private List<String> getChecksums(List<?> documents) {
+        return documents.stream()
+            .map(letterChecksumService::generateChecksumForPdfPages)
+            .toList();
+    }
 }
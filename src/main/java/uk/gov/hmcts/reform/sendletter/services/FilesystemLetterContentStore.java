@@ -0,0 +1,273 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps letter file content as files in a directory shared by all instances, e.g. an NFS mount,
+ * so that it adds nothing to the database, its WAL or its backups.
+ *
+ * <p>Files are named after the SHA-256 of their content and referenced from letter_content by that key.
+ * A file is written to a temporary file, synced to disk and then renamed into place, so it is either
+ * complete or absent. Files are never deleted when a letter is posted, as identical content may be
+ * referenced by another letter. {@link #deleteUnreferenced} deletes them once no letter_content row
+ * references them, leaving alone files younger than the grace period that may belong to a letter being saved.
+ * A file is moved aside before it is deleted and checked again once moved, as a letter with the same content
+ * may have been saved meanwhile.
+ *
+ * <p>Letters with no blob key, saved before switching to this store, are read from the database.
+ */
+public class FilesystemLetterContentStore implements LetterContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilesystemLetterContentStore.class);
+
+    private static final String BLOB_KEY_QUERY = "SELECT blob_key FROM letter_content WHERE letter_id = ?";
+    private static final String REFERENCED_QUERY =
+        "SELECT EXISTS (SELECT 1 FROM letter_content WHERE blob_key = ?)";
+
+    private static final Pattern BLOB_KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String DELETING_SUFFIX = ".deleting";
+
+    private final Path root;
+    private final Duration gracePeriod;
+    private final LetterContentRepository letterContentRepository;
+    private final LetterContentReader databaseReader;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    /**
+     * Constructor for the FilesystemLetterContentStore.
+     * @param root The directory files are kept in
+     * @param gracePeriod How long an unreferenced file is kept, has to outlast saving a letter
+     * @param letterContentRepository The repository for letter file content
+     * @param databaseReader The reader for content of letters saved in the database
+     * @param jdbcTemplate The JDBC template for running SQL queries
+     * @param clock The clock
+     */
+    public FilesystemLetterContentStore(
+        Path root,
+        Duration gracePeriod,
+        LetterContentRepository letterContentRepository,
+        LetterContentReader databaseReader,
+        JdbcTemplate jdbcTemplate,
+        Clock clock
+    ) {
+        this.root = root;
+        this.gracePeriod = gracePeriod;
+        this.letterContentRepository = letterContentRepository;
+        this.databaseReader = databaseReader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @Override
+    public void save(UUID letterId, byte[] content) {
+        String key = blobKey(content);
+        try {
+            write(key, content);
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Unable to store file content of letter " + letterId, exc);
+        }
+        letterContentRepository.save(new LetterContent(letterId, null, key));
+    }
+
+    @Override
+    public long getContentLength(UUID letterId) {
+        Optional<String> key = findBlobKey(letterId);
+        if (key.isEmpty()) {
+            return databaseReader.getContentLength(letterId);
+        }
+        try {
+            return Files.size(path(key.get()));
+        } catch (NoSuchFileException exc) {
+            throw new IllegalStateException("Letter " + letterId + " has no file content", exc);
+        } catch (IOException exc) {
+            // surfaces as an upload I/O error, so the letter is retried rather than failed
+            throw new UncheckedIOException("Unable to read file content of letter " + letterId, exc);
+        }
+    }
+
+    @Override
+    public InputStream openContent(UUID letterId, long length) throws IOException {
+        Optional<String> key = findBlobKey(letterId);
+        return key.isPresent()
+            ? Files.newInputStream(path(key.get()))
+            : databaseReader.openContent(letterId, length);
+    }
+
+    @Override
+    public int deleteUnreferenced() {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        Instant cutoff = clock.instant().minus(gracePeriod);
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile).iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                if (delete(file, cutoff)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Unable to delete unreferenced letter content in " + root, exc);
+        }
+        return deleted;
+    }
+
+    private Optional<String> findBlobKey(UUID letterId) {
+        return jdbcTemplate.queryForList(BLOB_KEY_QUERY, String.class, letterId)
+            .stream()
+            .filter(Objects::nonNull)
+            .findFirst();
+    }
+
+    private boolean delete(Path file, Instant cutoff) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(DELETING_SUFFIX)) {
+            // left behind by a clean-up that stopped before deleting it
+            String key = name.substring(0, name.length() - DELETING_SUFFIX.length());
+            return BLOB_KEY.matcher(key).matches() && deleteOrRestore(file, file.resolveSibling(key), cutoff);
+        }
+        if (isRecent(file, cutoff)) {
+            return false;
+        }
+        if (name.endsWith(TEMP_SUFFIX)) {
+            // left behind by a save that failed
+            return Files.deleteIfExists(file);
+        }
+        if (!BLOB_KEY.matcher(name).matches() || isReferenced(name)) {
+            return false;
+        }
+        Path deleting = file.resolveSibling(name + DELETING_SUFFIX);
+        try {
+            Files.move(file, deleting, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException exc) {
+            return false;
+        }
+        return deleteOrRestore(deleting, file, cutoff);
+    }
+
+    /**
+     * Deletes a file moved aside for deletion, unless a letter saved while it was being checked
+     * refreshed or references it. Once the file is moved aside, a save no longer finds it
+     * and writes the content again, so nothing can start using it after this check.
+     * @param deleting the file moved aside
+     * @param file the name to restore it to
+     * @param cutoff the time files modified after are kept
+     * @return true if the file was deleted
+     */
+    private boolean deleteOrRestore(Path deleting, Path file, Instant cutoff) throws IOException {
+        if (isRecent(deleting, cutoff) || isReferenced(file.getFileName().toString())) {
+            try {
+                Files.move(deleting, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException exc) {
+                // a save has written the same content again
+                Files.deleteIfExists(deleting);
+            }
+            return false;
+        }
+        return Files.deleteIfExists(deleting);
+    }
+
+    private static boolean isRecent(Path file, Instant cutoff) throws IOException {
+        return Files.getLastModifiedTime(file).toInstant().isAfter(cutoff);
+    }
+
+    private boolean isReferenced(String key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(REFERENCED_QUERY, Boolean.class, key));
+    }
+
+    private void write(String key, byte[] content) throws IOException {
+        Path target = path(key);
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+
+        if (refresh(target)) {
+            return;
+        }
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(directory);
+    }
+
+    /**
+     * Marks a file with the same content, saved for another letter, as recently used
+     * so that it is not deleted before the new letter references it.
+     * @param target the file
+     * @return false if there is no such file
+     */
+    private boolean refresh(Path target) throws IOException {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(clock.instant()));
+            return true;
+        } catch (NoSuchFileException exc) {
+            return false;
+        }
+    }
+
+    /**
+     * Syncs the rename to disk, where the filesystem supports syncing a directory.
+     * @param directory the directory
+     */
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException exc) {
+            logger.debug("Unable to sync directory {}", directory, exc);
+        }
+    }
+
+    private Path path(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static String blobKey(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+}
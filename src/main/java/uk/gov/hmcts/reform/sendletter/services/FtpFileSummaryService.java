@@ -75,7 +75,7 @@ public class FtpFileSummaryService {
             .getFolders()
             .forEach(folder -> {
                 try {
-                    // new connection per folder
+                    // session per folder, reused from the SFTP session pool
                     ftp.runWith(sftpClient -> {
                         List<FileInfo> filesUploaded = ftp.listLetters(folder, sftpClient);
                         ftpUploadedLetters.put(folder, filesUploaded);
@@ -1,17 +1,38 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 import uk.gov.hmcts.reform.sendletter.exception.ChecksumGenerationException;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.Document;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
+import uk.gov.hmcts.reform.sendletter.model.in.ILetterRequest;
+import uk.gov.hmcts.reform.sendletter.model.in.LetterRequest;
+import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsAndNumberOfCopiesRequest;
+import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsRequest;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.springframework.util.SerializationUtils.serialize;
 
@@ -21,6 +42,74 @@ import static org.springframework.util.SerializationUtils.serialize;
 @Service
 public class LetterChecksumService {
 
+    /**
+     * Checksum of the Java serialised request.
+     */
+    public static final int LEGACY_VERSION = 1;
+
+    /**
+     * Checksum of the canonical form of the request, digested as it is written.
+     */
+    public static final int CANONICAL_VERSION = 2;
+
+    // version 2 checksums are stored with their version, so that they can never match a version 1 checksum
+    private static final String CANONICAL_PREFIX = "v2:";
+
+    private static final int NO_VERSION = 0;
+
+    // java serialisation of a byte array up to its length, which is followed by the bytes themselves
+    private static final byte[] SERIALIZED_BYTE_ARRAY_HEADER = serializedByteArrayHeader();
+
+    // additional data and template values are written with sorted keys, so key order does not change the checksum
+    private static final ObjectWriter CANONICAL_JSON = JsonMapper.builder()
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .build()
+        .writer();
+
+    private final int checksumVersion;
+    private final int previousChecksumVersion;
+
+    /**
+     * Constructor for the LetterChecksumService using the legacy letter checksum.
+     */
+    public LetterChecksumService() {
+        this(LEGACY_VERSION);
+    }
+
+    /**
+     * Constructor for the LetterChecksumService with no previous letter checksum version.
+     *
+     * @param checksumVersion the version of the letter checksum to generate
+     */
+    public LetterChecksumService(int checksumVersion) {
+        this(checksumVersion, NO_VERSION);
+    }
+
+    /**
+     * Constructor for the LetterChecksumService.
+     *
+     * @param checksumVersion the version of the letter checksum to generate
+     * @param previousChecksumVersion the version letters awaiting upload may have been saved with, 0 for none
+     */
+    @Autowired
+    public LetterChecksumService(
+        @Value("${letters.checksum.version:1}") int checksumVersion,
+        @Value("${letters.checksum.previous-version:0}") int previousChecksumVersion
+    ) {
+        if (!isSupported(checksumVersion)) {
+            throw new IllegalArgumentException("Unsupported letter checksum version: " + checksumVersion);
+        }
+        if (previousChecksumVersion != NO_VERSION
+            && (!isSupported(previousChecksumVersion) || previousChecksumVersion == checksumVersion)) {
+            throw new IllegalArgumentException(
+                "Unsupported previous letter checksum version: " + previousChecksumVersion
+            );
+        }
+        this.checksumVersion = checksumVersion;
+        this.previousChecksumVersion = previousChecksumVersion;
+    }
+
     /**
      * Creates a document for a PDF based upon the contents of each page.
      * This is done because the entire PDF will have metadata against it. This means
@@ -31,6 +120,36 @@ public class LetterChecksumService {
      */
     public String calculateContentChecksum(byte[] pdfBytes) {
         try (PDDocument document = Loader.loadPDF(pdfBytes)) {
+            return calculateContentChecksum(document);
+        } catch (IOException e) {
+            throw new ChecksumGenerationException(e.getMessage());
+        }
+    }
+
+    /**
+     * Calculates the page content checksum of a decoded PDF, parsing a spooled document from its file.
+     *
+     * @param pdf the decoded pdf document
+     * @return a checksum of the collective pages for the pdf
+     * @see #calculateContentChecksum(byte[])
+     */
+    public String calculateContentChecksum(DocumentContent pdf) {
+        try (PDDocument document = PdfDocumentContext.loadPdf(pdf)) {
+            return calculateContentChecksum(document);
+        } catch (IOException e) {
+            throw new ChecksumGenerationException(e.getMessage());
+        }
+    }
+
+    /**
+     * Calculates the page content checksum of an already parsed PDF.
+     *
+     * @param document the parsed pdf document
+     * @return a checksum of the collective pages for the pdf
+     * @see #calculateContentChecksum(byte[])
+     */
+    public String calculateContentChecksum(PDDocument document) {
+        try {
             MessageDigest md = MessageDigest.getInstance("MD5");
 
             for (PDPage page : document.getPages()) {
@@ -59,9 +178,11 @@ public class LetterChecksumService {
      * @return the checksum
      */
     public String generateChecksumForPdfPages(Object obj) {
-        return (obj instanceof Doc doc)
-            ? calculateContentChecksum(doc.content)
-            : generateChecksum(obj);
+        return switch (obj) {
+            case Doc doc -> calculateContentChecksum(doc.getContent());
+            case DocumentContent content -> generateChecksum(content);
+            default -> generateChecksum(obj);
+        };
     }
 
     /**
@@ -73,4 +194,158 @@ public class LetterChecksumService {
     public String generateChecksum(Object obj) {
         return DigestUtils.md5DigestAsHex(serialize(obj));
     }
+
+    /**
+     * Generates the checksum of a decoded document, the same as {@link #generateChecksum(Object)} does,
+     * but digesting the document as it is read rather than serialising a copy of it.
+     *
+     * @param content the decoded document
+     * @return the checksum
+     */
+    public String generateChecksum(DocumentContent content) {
+        try (InputStream in = content.openStream()) {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), md));
+
+            out.write(SERIALIZED_BYTE_ARRAY_HEADER);
+            out.writeInt(Math.toIntExact(content.length()));
+            in.transferTo(out);
+
+            return HexFormat.of().formatHex(md.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ChecksumGenerationException(e.getMessage());
+        }
+    }
+
+    /**
+     * Generates the checksum used to find duplicates of a letter request.
+     *
+     * <p>Version 1 digests the Java serialised request, which copies every document,
+     * reading documents spooled to a file into heap.
+     * Version 2 digests the type, additional data and each document with its copies as they are written,
+     * without building an intermediate array or reading a spooled document into heap, and is prefixed with its version.
+     * The two versions produce different checksums for the same request and stored checksums are never rewritten,
+     * see {@link #generateLetterChecksums(ILetterRequest)}.
+     *
+     * @param letter the letter request
+     * @return the checksum
+     */
+    public String generateLetterChecksum(ILetterRequest letter) {
+        return generateLetterChecksum(letter, checksumVersion);
+    }
+
+    /**
+     * Generates the checksums a duplicate of a letter request may have been saved with.
+     *
+     * <p>The first is the checksum of the configured version, which a new letter is saved with.
+     * While letters saved before switching version may still await upload, the previous version is configured too
+     * and the checksum of that version follows, so that a duplicate of those letters is still recognised.
+     *
+     * @param letter the letter request
+     * @return the checksums, the configured version first
+     */
+    public List<String> generateLetterChecksums(ILetterRequest letter) {
+        return IntStream.of(checksumVersion, previousChecksumVersion)
+            .filter(version -> version != NO_VERSION)
+            .mapToObj(version -> generateLetterChecksum(letter, version))
+            .toList();
+    }
+
+    /**
+     * Generates the version 2 checksum of a letter request.
+     *
+     * @param letter the letter request
+     * @return the checksum
+     * @see #generateLetterChecksum(ILetterRequest)
+     */
+    public String generateCanonicalChecksum(ILetterRequest letter) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), md));
+
+            out.writeByte(CANONICAL_VERSION);
+            writeString(out, letter.getClass().getSimpleName());
+            writeString(out, letter.getType());
+            CANONICAL_JSON.writeValue(out, letter.getAdditionalData());
+
+            switch (letter) {
+                case LetterRequest request -> writeTemplates(out, request.documents);
+                case LetterWithPdfsRequest request -> writePdfs(out, request.documents);
+                case LetterWithPdfsAndNumberOfCopiesRequest request -> writeDocs(out, request.documents);
+                default -> throw new ChecksumGenerationException(
+                    "Unsupported letter request " + letter.getClass().getName()
+                );
+            }
+
+            return CANONICAL_PREFIX + HexFormat.of().formatHex(md.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ChecksumGenerationException(e.getMessage());
+        }
+    }
+
+    private String generateLetterChecksum(ILetterRequest letter, int version) {
+        return version == CANONICAL_VERSION
+            ? generateCanonicalChecksum(letter)
+            : generateChecksum(letter);
+    }
+
+    private static byte[] serializedByteArrayHeader() {
+        byte[] empty = serialize(new byte[0]);
+        return Arrays.copyOf(empty, empty.length - Integer.BYTES);
+    }
+
+    private static boolean isSupported(int version) {
+        return version == LEGACY_VERSION || version == CANONICAL_VERSION;
+    }
+
+    private static void writeTemplates(DataOutputStream out, List<Document> documents) throws IOException {
+        out.writeInt(documents == null ? -1 : documents.size());
+        if (documents != null) {
+            for (Document document : documents) {
+                writeString(out, document.template);
+                CANONICAL_JSON.writeValue(out, document.values);
+            }
+        }
+    }
+
+    private static void writePdfs(DataOutputStream out, List<DocumentContent> documents) throws IOException {
+        out.writeInt(documents == null ? -1 : documents.size());
+        if (documents != null) {
+            for (DocumentContent document : documents) {
+                writeContent(out, document);
+            }
+        }
+    }
+
+    private static void writeDocs(DataOutputStream out, List<Doc> documents) throws IOException {
+        out.writeInt(documents == null ? -1 : documents.size());
+        if (documents != null) {
+            for (Doc doc : documents) {
+                writeContent(out, doc.getContent());
+                out.writeInt(doc.copies);
+            }
+        }
+    }
+
+    // values are length prefixed so that neighbouring values can not run into each other
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value == null ? -1 : value.length);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    // written the same as the array of the document would be, reading a spooled document from its file
+    private static void writeContent(DataOutputStream out, DocumentContent content) throws IOException {
+        out.writeInt(content == null ? -1 : Math.toIntExact(content.length()));
+        if (content != null) {
+            try (InputStream in = content.openStream()) {
+                in.transferTo(out);
+            }
+        }
+    }
 }
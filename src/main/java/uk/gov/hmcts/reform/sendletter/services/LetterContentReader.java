@@ -0,0 +1,148 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Reads the file content of letters in chunks, so that holding a letter being uploaded takes
+ * one chunk of memory however large the letter is.
+ * The postgres driver always reads a whole bytea value into memory, even through {@code getBinaryStream},
+ * so each chunk is a separate {@code substring} query. File content is stored uncompressed out of line
+ * (see V036__Create_letter_content_table.sql), which lets postgres fetch only the slice asked for.
+ * Content not copied to letter_content is read from {@code letters.file_content} until a later release clears it.
+ */
+@Service
+public class LetterContentReader {
+
+    private static final String LENGTH_QUERY = """
+        SELECT octet_length(COALESCE(c.file_content, l.file_content))
+        FROM letters l
+        LEFT JOIN letter_content c ON c.letter_id = l.id
+        WHERE l.id = ?
+        """;
+
+    private static final String CHUNK_QUERY = """
+        SELECT substring(COALESCE(c.file_content, l.file_content) FROM ? FOR ?)
+        FROM letters l
+        LEFT JOIN letter_content c ON c.letter_id = l.id
+        WHERE l.id = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    /**
+     * Constructor for the LetterContentReader.
+     * @param jdbcTemplate The JDBC template for running SQL queries
+     * @param chunkSize How much of the content is read at a time
+     */
+    public LetterContentReader(
+        JdbcTemplate jdbcTemplate,
+        @Value("${tasks.upload-letters.content-chunk-size:1MB}") DataSize chunkSize
+    ) {
+        if (chunkSize.toBytes() < 1 || chunkSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Letter content chunk size must be between 1 byte and 2GB");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = (int) chunkSize.toBytes();
+    }
+
+    /**
+     * Gets the size of the file content of a letter without reading it.
+     * @param letterId id of the letter
+     * @return the size of the content in bytes
+     * @throws IllegalStateException if the letter has no content
+     */
+    public long getContentLength(UUID letterId) {
+        Long length = jdbcTemplate.queryForObject(LENGTH_QUERY, Long.class, letterId);
+        if (length == null) {
+            throw new IllegalStateException("Letter " + letterId + " has no file content");
+        }
+        return length;
+    }
+
+    /**
+     * Opens a stream over the file content of a letter, reading it one chunk at a time.
+     * @param letterId id of the letter
+     * @param length the size of the content, as returned by {@link #getContentLength}
+     * @return the stream
+     */
+    public InputStream openContent(UUID letterId, long length) {
+        return new ChunkedContentStream(letterId, length);
+    }
+
+    private final class ChunkedContentStream extends InputStream {
+
+        private final UUID letterId;
+        private final long length;
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int chunkPosition;
+
+        private ChunkedContentStream(UUID letterId, long length) {
+            this.letterId = letterId;
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? chunk[chunkPosition++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (count == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int read = Math.min(count, chunk.length - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, buffer, offset, read);
+            chunkPosition += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkPosition;
+        }
+
+        private boolean fill() throws IOException {
+            if (chunkPosition < chunk.length) {
+                return true;
+            }
+            if (position >= length) {
+                return false;
+            }
+
+            byte[] next;
+            try {
+                next = jdbcTemplate.queryForObject(
+                    CHUNK_QUERY,
+                    byte[].class,
+                    (int) position + 1, // substring positions start at 1
+                    (int) Math.min(chunkSize, length - position),
+                    letterId
+                );
+            } catch (DataAccessException exc) {
+                // surfaces as an upload I/O error, so the letter is retried rather than failed
+                throw new IOException("Unable to read file content of letter " + letterId, exc);
+            }
+            if (next == null || next.length == 0) {
+                throw new IOException("File content of letter " + letterId + " ended after " + position + " bytes");
+            }
+            chunk = next;
+            chunkPosition = 0;
+            position += next.length;
+            return true;
+        }
+    }
+}
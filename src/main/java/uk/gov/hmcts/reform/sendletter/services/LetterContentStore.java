@@ -0,0 +1,44 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Keeps the file content of letters until it is uploaded and no longer needed.
+ * Selected with {@code letter-content.store}, see {@link DatabaseLetterContentStore}
+ * and {@link FilesystemLetterContentStore}.
+ */
+public interface LetterContentStore {
+
+    /**
+     * Stores the file content of a new letter, as part of the transaction saving the letter.
+     * @param letterId id of the letter
+     * @param content the zipped or encrypted file of the letter
+     */
+    void save(UUID letterId, byte[] content);
+
+    /**
+     * Gets the size of the file content of a letter without reading it.
+     * @param letterId id of the letter
+     * @return the size of the content in bytes
+     * @throws IllegalStateException if the letter has no content
+     */
+    long getContentLength(UUID letterId);
+
+    /**
+     * Opens a stream over the file content of a letter.
+     * @param letterId id of the letter
+     * @param length the size of the content, as returned by {@link #getContentLength}
+     * @return the stream
+     * @throws IOException if the content can't be read
+     */
+    InputStream openContent(UUID letterId, long length) throws IOException;
+
+    /**
+     * Deletes content no longer referenced by any letter, left behind when letters were posted
+     * or their content was cleared.
+     * @return the number of files deleted
+     */
+    int deleteUnreferenced();
+}
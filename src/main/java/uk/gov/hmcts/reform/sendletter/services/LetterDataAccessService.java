@@ -1,11 +1,23 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
+import uk.gov.hmcts.reform.sendletter.entity.LetterReportInfo;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,38 +29,223 @@ import java.util.UUID;
 @Service
 public class LetterDataAccessService {
 
+    // flags may be saved as booleans or strings, either of which is true when it reads "true" in any case
+    private static final String FIND_REPORT_INFO_QUERY = """
+        SELECT id, service,
+          coalesce(lower(additional_data ->> 'isIbca') = 'true', false) AS is_ibca,
+          coalesce(lower(additional_data ->> 'isInternational') = 'true', false) AS is_international
+        FROM letters
+        WHERE id = ANY (?::uuid[])
+        """;
+
+    // letters are expected in the report of their service, print date and international flag,
+    // letters of services without a report code are never expected in a report
+    private static final String MARK_NO_REPORT_ABORTED_QUERY = """
+        WITH report_codes AS (
+          SELECT * FROM unnest(?::text[], ?::text[], ?::text[]) AS c(service, report_code, ibca_report_code)
+        ),
+        no_report AS (
+          SELECT l.id
+          FROM letters l
+          LEFT JOIN report_codes c ON c.service = l.service
+          WHERE l.status = 'Uploaded' AND l.created_at < ? AND l.sent_to_print_at IS NOT NULL
+            AND NOT EXISTS (
+              SELECT 1 FROM reports r
+              WHERE r.report_code = CASE
+                  WHEN coalesce(lower(l.additional_data ->> 'isIbca') = 'true', false) THEN c.ibca_report_code
+                  ELSE c.report_code
+                END
+                AND r.report_date = l.sent_to_print_at::date
+                AND r.is_international = coalesce(lower(l.additional_data ->> 'isInternational') = 'true', false)
+            )
+        ),
+        aborted AS (
+          UPDATE letters l
+          SET status = 'NoReportAborted'
+          FROM no_report n
+          WHERE l.id = n.id AND l.status = 'Uploaded'
+          RETURNING l.id, l.service
+        ),
+        events AS (
+          INSERT INTO letter_events (letter_id, created_at, type, notes)
+          SELECT id, now(), 'MARKED_AS_NO_REPORT_ABORTED', 'Letter marked NoReportAborted to stop processing'
+          FROM aborted
+        )
+        SELECT service, count(*) AS aborted FROM aborted GROUP BY service
+        """;
+
+    private static final String MARK_POSTED_QUERY = """
+        WITH report AS (
+          SELECT id, printed_at FROM unnest(?::uuid[], ?::timestamp[]) AS r(id, printed_at)
+        ),
+        posted AS (
+          UPDATE letters l
+          SET status = 'Posted', printed_at = r.printed_at, file_content = NULL
+          FROM report r
+          WHERE l.id = r.id AND l.status = 'Uploaded'
+          RETURNING l.id
+        ),
+        deleted AS (
+          DELETE FROM letter_content c USING posted p WHERE c.letter_id = p.id
+        )
+        SELECT r.id, p.id IS NOT NULL AS posted, l.status
+        FROM report r
+        LEFT JOIN posted p ON p.id = r.id
+        LEFT JOIN letters l ON l.id = r.id
+        """;
+
+    private static final String MARK_UPLOADED_QUERY = """
+        UPDATE letters l
+        SET status = 'Uploaded', sent_to_print_at = u.sent_to_print_at,
+            upload_claimed_by = NULL, upload_lease_expires_at = NULL
+        FROM unnest(?::uuid[], ?::timestamp[]) AS u(id, sent_to_print_at)
+        WHERE l.id = u.id AND l.status = 'Created'
+        """;
+
+    private static final String MARK_SKIPPED_QUERY = """
+        UPDATE letters
+        SET status = 'Skipped', upload_claimed_by = NULL, upload_lease_expires_at = NULL
+        WHERE id = ANY (?::uuid[]) AND status = 'Created'
+        """;
+
+    private static final String MARK_FAILED_QUERY = """
+        WITH failed AS (
+          UPDATE letters l
+          SET status = 'FailedToUpload', upload_claimed_by = NULL, upload_lease_expires_at = NULL
+          FROM unnest(?::uuid[], ?::text[]) AS f(id, notes)
+          WHERE l.id = f.id AND l.status = 'Created'
+          RETURNING l.id, f.notes
+        )
+        INSERT INTO letter_events (letter_id, created_at, type, notes)
+        SELECT id, now(), 'FAILED_TO_UPLOAD', notes
+        FROM failed
+        """;
+
     private final LetterRepository repository;
+    private final JdbcTemplate jdbcTemplate;
 
-    public LetterDataAccessService(LetterRepository repository) {
+    /**
+     * Constructor for the LetterDataAccessService.
+     * @param repository The repository for letter
+     * @param jdbcTemplate The JDBC template for set-based updates
+     */
+    public LetterDataAccessService(LetterRepository repository, JdbcTemplate jdbcTemplate) {
         this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
-     * Finds letter status by id.
+     * Finds the service and report flags of a letter, read from its additional data in the query.
      * @param id letter id
-     * @return letter status
+     * @return the report info of the letter, empty if there is no such letter
      */
-    public Optional<LetterStatus> findLetterStatus(UUID id) {
-        return repository.findLetterStatus(id);
+    public Optional<LetterReportInfo> findReportInfo(UUID id) {
+        return Optional.ofNullable(findReportInfo(List.of(id)).get(id));
     }
 
     /**
-     * Finds letter service by id.
-     * @param id letter id
-     * @return letter service
+     * Finds the service and report flags of letters in one query, read from their additional data in the query.
+     * @param ids letter ids
+     * @return the report info by letter id, without the letters that do not exist
      */
-    public Optional<String> findLetterService(UUID id) {
-        return repository.findLetterService(id);
+    public Map<UUID, LetterReportInfo> findReportInfo(Collection<UUID> ids) {
+        Map<UUID, LetterReportInfo> reportInfo = new HashMap<>();
+        if (ids.isEmpty()) {
+            return reportInfo;
+        }
+
+        Object[] letterIds = ids.toArray();
+        jdbcTemplate.query(
+            FIND_REPORT_INFO_QUERY,
+            ps -> ps.setArray(1, array(ps, "uuid", letterIds)),
+            rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                reportInfo.put(id, new LetterReportInfo(
+                    id,
+                    rs.getString("service"),
+                    rs.getBoolean("is_ibca"),
+                    rs.getBoolean("is_international")
+                ));
+            }
+        );
+        return reportInfo;
     }
 
     /**
-     * Marks letter as posted.
-     * @param id letter id
-     * @param printedAt time when letter was printed
+     * Marks the letters of a print report as posted in one statement, however many letters there are.
+     * Letters still Uploaded are moved to Posted and their file content is deleted, other letters are left alone.
+     * @param statuses the letters of the report and when they were printed
+     * @return the outcome for every letter of the report
      */
     @Transactional
-    public void markLetterAsPosted(UUID id, LocalDateTime printedAt) {
-        repository.markLetterAsPosted(id, printedAt);
+    public LetterPostedResults markLettersAsPosted(List<LetterPrintStatus> statuses) {
+        LetterPostedResults results = new LetterPostedResults();
+        if (statuses.isEmpty()) {
+            return results;
+        }
+
+        Object[] ids = new Object[statuses.size()];
+        Object[] printedAt = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = statuses.get(i).id;
+            printedAt[i] = Timestamp.valueOf(statuses.get(i).printedAt.toLocalDateTime());
+        }
+        jdbcTemplate.query(
+            MARK_POSTED_QUERY,
+            ps -> {
+                ps.setArray(1, array(ps, "uuid", ids));
+                ps.setArray(2, array(ps, "timestamp", printedAt));
+            },
+            rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                String status = rs.getString("status");
+                if (rs.getBoolean("posted")) {
+                    results.posted(id);
+                } else if (status == null) {
+                    results.unknown(id);
+                } else {
+                    results.unexpectedStatus(id, LetterStatus.valueOf(status));
+                }
+            }
+        );
+        return results;
+    }
+
+    /**
+     * Marks Uploaded letters as NoReportAborted when no print report was saved for them, in one statement
+     * however many letters there are. A MARKED_AS_NO_REPORT_ABORTED event is written for every letter.
+     * @param createdBefore only letters created before this date are checked
+     * @param reportCodes the report codes of every service
+     * @return the number of letters marked as NoReportAborted by service
+     */
+    @Transactional
+    public Map<String, Integer> markLettersWithNoReportAsAborted(
+        LocalDateTime createdBefore,
+        List<ReportsServiceConfig.ServiceReportCodes> reportCodes
+    ) {
+        Object[] services = new Object[reportCodes.size()];
+        Object[] codes = new Object[services.length];
+        Object[] ibcaCodes = new Object[services.length];
+        for (int i = 0; i < services.length; i++) {
+            services[i] = reportCodes.get(i).service();
+            codes[i] = reportCodes.get(i).reportCode();
+            ibcaCodes[i] = reportCodes.get(i).ibcaReportCode();
+        }
+
+        Map<String, Integer> aborted = new HashMap<>();
+        jdbcTemplate.query(
+            MARK_NO_REPORT_ABORTED_QUERY,
+            ps -> {
+                ps.setArray(1, array(ps, "text", services));
+                ps.setArray(2, array(ps, "text", codes));
+                ps.setArray(3, array(ps, "text", ibcaCodes));
+                ps.setTimestamp(4, Timestamp.valueOf(createdBefore));
+            },
+            rs -> {
+                aborted.put(rs.getString("service"), rs.getInt("aborted"));
+            }
+        );
+        return aborted;
     }
 
     /**
@@ -60,4 +257,45 @@ public class LetterDataAccessService {
     public int clearFileContent(LocalDateTime createdBefore, LetterStatus status) {
         return repository.clearFileContent(createdBefore, status);
     }
+
+    /**
+     * Saves the outcome of uploading letters in one statement per outcome, however many letters there are.
+     * Claimed letters still Created are moved to Uploaded, Skipped or FailedToUpload and their upload claim
+     * is let go of. A FAILED_TO_UPLOAD event is written for every letter that failed.
+     * @param results the outcome of the uploads
+     */
+    @Transactional
+    public void saveUploadResults(LetterUploadResults results) {
+        if (!results.getUploaded().isEmpty()) {
+            Object[] ids = new Object[results.getUploaded().size()];
+            Object[] sentToPrintAt = new Object[ids.length];
+            int i = 0;
+            for (Map.Entry<UUID, LocalDateTime> upload : results.getUploaded().entrySet()) {
+                ids[i] = upload.getKey();
+                sentToPrintAt[i++] = Timestamp.valueOf(upload.getValue());
+            }
+            jdbcTemplate.update(MARK_UPLOADED_QUERY, ps -> {
+                ps.setArray(1, array(ps, "uuid", ids));
+                ps.setArray(2, array(ps, "timestamp", sentToPrintAt));
+            });
+        }
+
+        if (!results.getSkipped().isEmpty()) {
+            Object[] ids = results.getSkipped().toArray();
+            jdbcTemplate.update(MARK_SKIPPED_QUERY, ps -> ps.setArray(1, array(ps, "uuid", ids)));
+        }
+
+        if (!results.getFailed().isEmpty()) {
+            Object[] ids = results.getFailed().keySet().toArray();
+            Object[] notes = results.getFailed().values().toArray();
+            jdbcTemplate.update(MARK_FAILED_QUERY, ps -> {
+                ps.setArray(1, array(ps, "uuid", ids));
+                ps.setArray(2, array(ps, "text", notes));
+            });
+        }
+    }
+
+    private static Array array(PreparedStatement ps, String type, Object[] values) throws SQLException {
+        return ps.getConnection().createArrayOf(type, values);
+    }
 }
@@ -0,0 +1,58 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outcome of marking the letters of a print report as posted,
+ * as returned by {@link LetterDataAccessService#markLettersAsPosted}.
+ */
+public class LetterPostedResults {
+
+    private final Set<UUID> posted = new LinkedHashSet<>();
+    private final Map<UUID, LetterStatus> unexpectedStatus = new LinkedHashMap<>();
+    private final Set<UUID> unknown = new LinkedHashSet<>();
+
+    /**
+     * Records a letter that was marked as posted.
+     * @param letterId id of the letter
+     */
+    public void posted(UUID letterId) {
+        posted.add(letterId);
+    }
+
+    /**
+     * Records a letter that was not marked as posted as it was not Uploaded.
+     * @param letterId id of the letter
+     * @param status status of the letter
+     */
+    public void unexpectedStatus(UUID letterId, LetterStatus status) {
+        unexpectedStatus.put(letterId, status);
+    }
+
+    /**
+     * Records a letter that is not in the database.
+     * @param letterId id of the letter
+     */
+    public void unknown(UUID letterId) {
+        unknown.add(letterId);
+    }
+
+    public Set<UUID> getPosted() {
+        return Collections.unmodifiableSet(posted);
+    }
+
+    public Map<UUID, LetterStatus> getUnexpectedStatus() {
+        return Collections.unmodifiableMap(unexpectedStatus);
+    }
+
+    public Set<UUID> getUnknown() {
+        return Collections.unmodifiableSet(unknown);
+    }
+}
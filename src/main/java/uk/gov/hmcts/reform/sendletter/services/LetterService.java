@@ -32,12 +32,18 @@ import uk.gov.hmcts.reform.sendletter.model.out.LetterStatus;
 import uk.gov.hmcts.reform.sendletter.model.out.LetterStatusEvent;
 import uk.gov.hmcts.reform.sendletter.model.out.v2.LetterStatusV2;
 import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptionUtil;
+import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptor;
+import uk.gov.hmcts.reform.sendletter.services.encryption.UnableToPgpEncryptZipFileException;
 import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
 import uk.gov.hmcts.reform.sendletter.services.util.FileNameHelper;
 import uk.gov.hmcts.reform.sendletter.services.zip.Zipper;
 import uk.gov.hmcts.reform.sendletter.util.TimeZones;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -48,7 +54,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -65,9 +76,11 @@ public class LetterService {
 
     private final PdfCreator pdfCreator;
     private final LetterRepository letterRepository;
+    private final LetterContentStore letterContentStore;
     private final LetterEventRepository letterEventRepository;
     private final DocumentService documentService;
     private final Zipper zipper;
+    private final PgpEncryptor pgpEncryptor;
     private final ObjectMapper mapper;
     private final boolean isEncryptionEnabled;
     private final PGPPublicKey pgpPublicKey;
@@ -76,16 +89,24 @@ public class LetterService {
     private final DuplicateLetterService duplicateLetterService;
     private final ExceptionLetterService exceptionLetterService;
     private final LetterChecksumService letterChecksumService;
+    private final RecentLetterChecksums recentLetterChecksums;
     private static final Map<String, Integer> DEFAULT_COPY = Map.of(getCopiesKey(1), 1);
+    // a save that takes longer is left to the unique index on checksum and status of created letters
+    private static final long IN_FLIGHT_SAVE_WAIT_SECONDS = 5;
+
+    // letters being saved by this instance, by checksum, so that a retry waits for the first attempt
+    private final ConcurrentMap<String, CompletableFuture<UUID>> inFlightSaves = new ConcurrentHashMap<>();
 
     /**
      * Constructor for the LetterService.
      *
      * @param pdfCreator             The pdf creator
      * @param letterRepository       The repository for letter
+     * @param letterContentStore     The store of letter file content
      * @param letterEventRepository  The repository for letter event
      * @param documentService        The document service
      * @param zipper                 The zipper
+     * @param pgpEncryptor           The PGP encryptor
      * @param mapper                 The object mapper
      * @param isEncryptionEnabled    The encryption enabled flag
      * @param encryptionPublicKey    The encryption public key
@@ -94,14 +115,17 @@ public class LetterService {
      * @param duplicateLetterService The duplicate letter service
      * @param exceptionLetterService The exception letter service
      * @param letterChecksumService  The letter checksum service
+     * @param recentLetterChecksums  The checksums of letters recently saved by this instance
      */
     @SuppressWarnings("java:S107")
     public LetterService(
         PdfCreator pdfCreator,
         LetterRepository letterRepository,
+        LetterContentStore letterContentStore,
         LetterEventRepository letterEventRepository,
         DocumentService documentService,
         Zipper zipper,
+        PgpEncryptor pgpEncryptor,
         ObjectMapper mapper,
         @Value("${encryption.enabled}") Boolean isEncryptionEnabled,
         @Value("${encryption.publicKey}") String encryptionPublicKey,
@@ -109,13 +133,16 @@ public class LetterService {
         ExecusionService asyncService,
         DuplicateLetterService duplicateLetterService,
         ExceptionLetterService exceptionLetterService,
-        LetterChecksumService letterChecksumService
+        LetterChecksumService letterChecksumService,
+        RecentLetterChecksums recentLetterChecksums
     ) {
         this.pdfCreator = pdfCreator;
         this.letterRepository = letterRepository;
+        this.letterContentStore = letterContentStore;
         this.letterEventRepository = letterEventRepository;
         this.documentService = documentService;
         this.zipper = zipper;
+        this.pgpEncryptor = pgpEncryptor;
         this.mapper = mapper;
         this.isEncryptionEnabled = isEncryptionEnabled;
         this.pgpPublicKey = loadPgpPublicKey(encryptionPublicKey);
@@ -124,19 +151,24 @@ public class LetterService {
         this.duplicateLetterService = duplicateLetterService;
         this.exceptionLetterService = exceptionLetterService;
         this.letterChecksumService = letterChecksumService;
+        this.recentLetterChecksums = recentLetterChecksums;
     }
 
     /**
      * Save a letter.
      *
+     * <p>Not transactional, so that a request waiting for the same letter to be saved holds no database connection.
+     * In sync mode the letter is saved in a transaction of its own, which has committed by the time waiting requests
+     * are given its id.
+     *
      * @param letter      The letter to save
      * @param serviceName The name of the service
      * @param isAsync     The async flag
      * @return The id of the saved letter
      */
-    @Transactional
     public UUID save(ILetterRequest letter, String serviceName, String isAsync) {
-        String checksum = letterChecksumService.generateChecksum(letter);
+        List<String> checksums = letterChecksumService.generateLetterChecksums(letter);
+        String checksum = checksums.getFirst();
         Asserts.notEmpty(serviceName, "serviceName");
 
         log.info("Saving letter, service {}, messageId {}", serviceName, checksum);
@@ -147,10 +179,42 @@ public class LetterService {
             throw new ServiceNotConfiguredException(message);
         }
 
-        return letterRepository
-            .findByChecksumAndStatusOrderByCreatedAtDesc(checksum, Created)
-            .map(duplicate -> {
-                UUID id = duplicate.getId();
+        CompletableFuture<UUID> inFlightSave = new CompletableFuture<>();
+        CompletableFuture<UUID> firstSave = inFlightSaves.putIfAbsent(checksum, inFlightSave);
+        if (firstSave != null) {
+            Optional<UUID> coalesced = awaitInFlightSave(firstSave, serviceName, checksum);
+            if (coalesced.isPresent()) {
+                return coalesced.get();
+            }
+            // the first attempt failed or is taking too long, so this one goes ahead on its own
+            return findOrSaveLetter(letter, checksums, serviceName, isAsync);
+        }
+
+        try {
+            UUID id = findOrSaveLetter(letter, checksums, serviceName, isAsync);
+            inFlightSave.complete(id);
+            return id;
+        } catch (RuntimeException exc) {
+            inFlightSave.completeExceptionally(exc);
+            throw exc;
+        } finally {
+            inFlightSaves.remove(checksum, inFlightSave);
+        }
+    }
+
+    /**
+     * Return the letter waiting for upload with any of the checksums, or save a new one with the first.
+     *
+     * @param letter      The letter to save
+     * @param checksums   The letter checksums, the one to save first
+     * @param serviceName The name of the service
+     * @param isAsync     The async flag
+     * @return The id of the letter
+     */
+    private UUID findOrSaveLetter(ILetterRequest letter, List<String> checksums, String serviceName, String isAsync) {
+        String checksum = checksums.getFirst();
+        return findCreatedDuplicate(checksums)
+            .map(id -> {
                 log.info(
                     "Same message found already created. Returning letter id {} instead. Service {}, messageId {}",
                     id,
@@ -159,7 +223,80 @@ public class LetterService {
                 );
                 return id;
             })
-            .orElseGet(() -> saveNewLetter(letter, checksum, serviceName, isAsync));
+            .orElseGet(() -> {
+                UUID id = saveNewLetter(letter, checksum, serviceName, isAsync);
+                recentLetterChecksums.put(checksum, id);
+                return id;
+            });
+    }
+
+    /**
+     * Wait for the letter with the same checksum being saved by another request.
+     *
+     * @param firstSave   The save in progress
+     * @param serviceName The name of the service
+     * @param checksum    The letter checksum
+     * @return The id of the letter, empty if the first save failed or did not finish in time
+     */
+    private Optional<UUID> awaitInFlightSave(CompletableFuture<UUID> firstSave, String serviceName, String checksum) {
+        log.info("Same message is being saved. Waiting for it, service {}, messageId {}", serviceName, checksum);
+        try {
+            UUID id = firstSave.get(IN_FLIGHT_SAVE_WAIT_SECONDS, TimeUnit.SECONDS);
+            log.info(
+                "Same message saved meanwhile. Returning letter id {} instead. Service {}, messageId {}",
+                id,
+                serviceName,
+                checksum
+            );
+            return Optional.of(id);
+        } catch (ExecutionException exc) {
+            log.info("Same message failed to save. Saving it again, service {}, messageId {}",
+                serviceName, checksum);
+        } catch (TimeoutException exc) {
+            log.warn("Same message still being saved. Saving it again, service {}, messageId {}",
+                serviceName, checksum);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new LetterSaveException();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find a letter with any of the checksums which is still waiting for upload.
+     *
+     * @param checksums The letter checksums
+     * @return The id of the letter
+     */
+    private Optional<UUID> findCreatedDuplicate(List<String> checksums) {
+        for (String checksum : checksums) {
+            Optional<UUID> duplicate = findCreatedDuplicate(checksum);
+            if (duplicate.isPresent()) {
+                return duplicate;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find a letter with the checksum which is still waiting for upload.
+     * Letters recently saved by this instance are confirmed by id, others are looked up by checksum.
+     *
+     * @param checksum The letter checksum
+     * @return The id of the letter
+     */
+    private Optional<UUID> findCreatedDuplicate(String checksum) {
+        Optional<UUID> recent = recentLetterChecksums.find(checksum);
+        if (recent.isPresent()) {
+            if (letterRepository.existsByIdAndStatus(recent.get(), Created)) {
+                return recent;
+            }
+            recentLetterChecksums.remove(checksum);
+        }
+
+        Optional<UUID> duplicate = letterRepository.findLatestIdByChecksumAndStatus(checksum, Created);
+        duplicate.ifPresent(id -> recentLetterChecksums.put(checksum, id));
+        return duplicate;
     }
 
     /**
@@ -179,14 +316,6 @@ public class LetterService {
                 mapper.valueToTree(letter.getAdditionalData().get("recipients"))))
                 : Optional.empty();
 
-        if (recipientsChecksum.isPresent()) {
-            Optional<UUID> duplicateDocUUID = documentService.checkDocumentDuplicates(
-                getDocumentsFromLetter(letter), recipientsChecksum.get());
-            if (duplicateDocUUID.isPresent()) {
-                return duplicateDocUUID.get();
-            }
-        }
-
         UUID letterId = UUID.randomUUID();
         String loggingContext = String.format(
             "letter  %s, service %s, messageId %s, additionalData %s",
@@ -195,15 +324,28 @@ public class LetterService {
             messageId, mapper.valueToTree(letter.getAdditionalData())
         );
 
-        byte[] zipContent = zipper.zip(
-            new PdfDoc(
+        List<String> documentChecksums;
+        PdfDoc pdfDoc;
+        // each document is parsed once, for its checksum, duplex padding and the merge
+        try (PdfDocumentContext pdfs = loadPdfs(letter, loggingContext)) {
+            documentChecksums = getDocumentChecksums(letter, pdfs);
+
+            if (recipientsChecksum.isPresent()) {
+                Optional<UUID> duplicateDocUUID = documentService.checkDocumentChecksumDuplicates(
+                    documentChecksums, recipientsChecksum.get());
+                if (duplicateDocUUID.isPresent()) {
+                    return duplicateDocUUID.get();
+                }
+            }
+
+            pdfDoc = new PdfDoc(
                 FileNameHelper.generatePdfName(letter.getType(), serviceName, letterId, letter.getAdditionalData()),
-                getPdfContent(letter, loggingContext)
-            )
-        );
+                pdfCreator.create(pdfs, loggingContext)
+            );
+        }
 
         Function<LocalDateTime, byte[]> fileContent = localDateTime -> getFileContent(letterId, letter,
-            serviceName, localDateTime, zipContent);
+            serviceName, localDateTime, pdfDoc);
 
         if (letter instanceof LetterRequest) {
             log.info(
@@ -223,7 +365,7 @@ public class LetterService {
                 messageId
             );
             asyncService.run(() -> saveLetter(letter, messageId, serviceName, letterId,
-                fileContent, recipientsChecksum), logger,
+                fileContent, documentChecksums, recipientsChecksum), logger,
                 () -> saveDuplicate(letter, letterId, messageId, serviceName, isAsync),
                 message -> saveException(letter, letterId, serviceName, message, isAsync));
         } else {
@@ -236,7 +378,7 @@ public class LetterService {
                     messageId
                 );
                 asyncService.execute(() -> saveLetter(letter, messageId, serviceName, letterId,
-                    fileContent, recipientsChecksum));
+                    fileContent, documentChecksums, recipientsChecksum));
             } catch (DataIntegrityViolationException dataIntegrityViolationException) {
                 Runnable logger = () -> log.error(
                     "Duplicate record, letter id {}, service {}, messageId {}",
@@ -248,7 +390,7 @@ public class LetterService {
                 asyncService.run(() -> saveDuplicate(letter, letterId, messageId, serviceName, isAsync), logger,
                     () -> {
                     }, message -> saveException(letter, letterId, serviceName,
-                        zipContent.length + ":" + message, isAsync));
+                        pdfDoc.content.length + ":" + message, isAsync));
                 throw dataIntegrityViolationException;
             }
         }
@@ -265,11 +407,14 @@ public class LetterService {
      * @param serviceName        The name of the service
      * @param id                 The id of the letter
      * @param zipContent         The zip content
+     * @param documentChecksums  The checksums of the letter documents
      * @param recipientsChecksum The recipients checksum
      */
     @Transactional
+    @SuppressWarnings("java:S107")
     public void saveLetter(ILetterRequest letter, String messageId, String serviceName, UUID id,
-                           Function<LocalDateTime, byte[]> zipContent, Optional<String> recipientsChecksum) {
+                           Function<LocalDateTime, byte[]> zipContent, List<String> documentChecksums,
+                           Optional<String> recipientsChecksum) {
         LocalDateTime createdAtTime = now();
         Letter dbLetter = new Letter(
             id,
@@ -277,7 +422,6 @@ public class LetterService {
             serviceName,
             mapper.valueToTree(letter.getAdditionalData()),
             letter.getType(),
-            zipContent.apply(createdAtTime),
             isEncryptionEnabled,
             getEncryptionKeyFingerprint(),
             createdAtTime,
@@ -285,8 +429,9 @@ public class LetterService {
         );
 
         letterRepository.save(dbLetter);
+        letterContentStore.save(id, zipContent.apply(createdAtTime));
 
-        documentService.saveDocuments(id, getDocumentsFromLetter(letter), recipientsChecksum.orElse(null));
+        documentService.saveDocumentChecksums(id, documentChecksums, recipientsChecksum.orElse(null));
 
         log.info("Created new letter record with id {} for service {}, messageId {}", id, serviceName, messageId);
     }
@@ -354,38 +499,44 @@ public class LetterService {
 
     /**
      * Get the file content.
+     * The PDF is zipped and, when enabled, encrypted in a single pass into one buffer,
+     * so the intermediate zip is never held in memory on its own.
      *
      * @param id            The id of the letter
      * @param letter        The letter
      * @param serviceName   The name of the service
      * @param createdAtTime The created at time
-     * @param zipContent    The zip content
+     * @param pdfDoc        The PDF document
      * @return The file content
      */
     private byte[] getFileContent(UUID id, ILetterRequest letter, String serviceName,
-                                  LocalDateTime createdAtTime, byte[] zipContent) {
+                                  LocalDateTime createdAtTime, PdfDoc pdfDoc) {
+        var fileContent = new ByteArrayOutputStream(pdfDoc.content.length);
         if (isEncryptionEnabled) {
-            zipContent = encryptZipContents(letter, serviceName, id, zipContent, createdAtTime);
+            encryptZipContents(letter, serviceName, id, pdfDoc, createdAtTime, fileContent);
+        } else {
+            zipper.zip(pdfDoc, fileContent);
         }
-        return zipContent;
+        return fileContent.toByteArray();
     }
 
     /**
-     * Encrypt the zip contents.
+     * Zip the PDF and encrypt the zip contents on the fly.
      *
      * @param letter      The letter
      * @param serviceName The name of the service
      * @param id          The id of the letter
-     * @param zipContent  The zip content
+     * @param pdfDoc      The PDF document
      * @param createdAt   The created at time
-     * @return The encrypted zip contents
+     * @param out         The stream the encrypted zip is written to
      */
-    private byte[] encryptZipContents(
+    private void encryptZipContents(
         ILetterRequest letter,
         String serviceName,
         UUID id,
-        byte[] zipContent,
-        LocalDateTime createdAt
+        PdfDoc pdfDoc,
+        LocalDateTime createdAt,
+        OutputStream out
     ) {
         Asserts.notNull(pgpPublicKey, "pgpPublicKey");
         String zipFileName = FileNameHelper.generateName(
@@ -397,7 +548,12 @@ public class LetterService {
             letter.getAdditionalData()
         );
 
-        return PgpEncryptionUtil.encryptFile(zipContent, zipFileName, pgpPublicKey);
+        try (OutputStream encrypted = pgpEncryptor.openEncryptionStream(out, zipFileName, pgpPublicKey)) {
+            zipper.zip(pdfDoc, encrypted);
+        } catch (IOException exc) {
+            log.error("Error encrypting file {}", zipFileName, exc);
+            throw new UnableToPgpEncryptZipFileException(exc);
+        }
     }
 
     /**
@@ -450,25 +606,44 @@ public class LetterService {
     }
 
     /**
-     * Get the PDF content.
+     * Parse the PDF documents of a letter.
      *
      * @param letter         The letter
      * @param loggingContext The logging context
-     * @return The PDF content
+     * @return The parsed documents
      */
-    private byte[] getPdfContent(ILetterRequest letter, String loggingContext) {
+    private PdfDocumentContext loadPdfs(ILetterRequest letter, String loggingContext) {
         switch (letter) {
             case LetterWithPdfsRequest letterWithPdfsRequest -> {
-                return pdfCreator.createFromBase64Pdfs(letterWithPdfsRequest.documents, loggingContext);
+                return pdfCreator.loadPdfs(letterWithPdfsRequest.documents, loggingContext);
             }
             case LetterWithPdfsAndNumberOfCopiesRequest letterWithPdfsAndNumberOfCopiesRequest -> {
                 return pdfCreator
-                    .createFromBase64PdfWithCopies(letterWithPdfsAndNumberOfCopiesRequest.documents, loggingContext);
+                    .loadPdfsWithCopies(letterWithPdfsAndNumberOfCopiesRequest.documents, loggingContext);
             }
             default -> throw new UnsupportedLetterRequestTypeException();
         }
     }
 
+    /**
+     * Get the checksums of the letter documents used for duplicate detection.
+     * Documents with copies are identified by their page content, taken from the already parsed PDFs.
+     *
+     * @param letter The letter
+     * @param pdfs   The parsed documents of the letter
+     * @return The document checksums, in request order
+     */
+    private List<String> getDocumentChecksums(ILetterRequest letter, PdfDocumentContext pdfs) {
+        if (letter instanceof LetterWithPdfsAndNumberOfCopiesRequest) {
+            return IntStream.range(0, pdfs.size())
+                .mapToObj(index -> letterChecksumService.calculateContentChecksum(pdfs.getDocument(index)))
+                .toList();
+        }
+        return getDocumentsFromLetter(letter).stream()
+            .map(letterChecksumService::generateChecksumForPdfPages)
+            .toList();
+    }
+
     /**
      * Get the copies.
      *
@@ -0,0 +1,123 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claims Created letters for upload so that every instance can upload its own batch at the same time.
+ * A claim is a lease stored on the letter. Rows locked by another claim are skipped rather than waited for,
+ * and a letter whose lease has expired, e.g. because its instance died mid-upload, is claimed again.
+ * See V034__Add_upload_lease_to_letters.sql for the lease columns.
+ */
+@Service
+public class LetterUploadClaimService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LetterUploadClaimService.class);
+
+    private static final String CLAIM_QUERY = """
+        WITH candidates AS (
+          SELECT id, upload_claimed_by AS previous_owner
+          FROM letters
+          WHERE status = 'Created'
+            AND created_at <= ?
+            AND (upload_lease_expires_at IS NULL OR upload_lease_expires_at < ?)
+          ORDER BY created_at
+          LIMIT ?
+          FOR UPDATE SKIP LOCKED
+        )
+        UPDATE letters l
+        SET upload_claimed_by = ?, upload_lease_expires_at = ?
+        FROM candidates c
+        WHERE l.id = c.id
+        RETURNING l.id, c.previous_owner
+        """;
+
+    private static final String RELEASE_QUERY = """
+        UPDATE letters
+        SET upload_claimed_by = NULL, upload_lease_expires_at = NULL
+        WHERE id = ? AND upload_claimed_by = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final Duration lease;
+    private final Clock clock;
+
+    /**
+     * Constructor for the LetterUploadClaimService.
+     * @param jdbcTemplate The JDBC template for running SQL queries
+     * @param lease How long a claim is held, it has to outlast uploading a whole batch
+     * @param clock The clock
+     */
+    public LetterUploadClaimService(
+        JdbcTemplate jdbcTemplate,
+        @Value("${tasks.upload-letters.lease:PT10M}") Duration lease,
+        Clock clock
+    ) {
+        this(jdbcTemplate, UUID.randomUUID().toString(), lease, clock);
+    }
+
+    LetterUploadClaimService(JdbcTemplate jdbcTemplate, String owner, Duration lease, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.lease = lease;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims the oldest Created letters that are not claimed by anyone else.
+     * @param createdBefore only letters created before this time are claimed
+     * @param limit the maximum number of letters to claim
+     * @return ids of the claimed letters
+     */
+    public List<UUID> claim(LocalDateTime createdBefore, int limit) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Claim> claims = jdbcTemplate.query(
+            CLAIM_QUERY,
+            (rs, rowNum) -> new Claim(rs.getObject("id", UUID.class), rs.getString("previous_owner")),
+            createdBefore,
+            now,
+            limit,
+            owner,
+            now.plus(lease)
+        );
+
+        claims.stream()
+            .filter(claim -> claim.previousOwner() != null)
+            .forEach(claim -> logger.warn(
+                "Recovered letter {} from expired upload lease of {}", claim.letterId(), claim.previousOwner()
+            ));
+
+        return claims.stream().map(Claim::letterId).toList();
+    }
+
+    /**
+     * Releases letters claimed by this instance but not uploaded, so others don't wait for the lease to expire.
+     * @param letterIds ids of the letters to release
+     */
+    public void release(Collection<UUID> letterIds) {
+        if (!letterIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                RELEASE_QUERY,
+                letterIds.stream().map(id -> new Object[] {id, owner}).toList()
+            );
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private record Claim(UUID letterId, String previousOwner) {
+    }
+}
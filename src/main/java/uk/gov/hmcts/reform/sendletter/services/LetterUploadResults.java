@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Status changes of the letters uploaded over one SFTP session, collected as each upload finishes
+ * and saved together by {@link LetterDataAccessService#saveUploadResults}, a few letters at a time.
+ */
+public class LetterUploadResults {
+
+    private final Map<UUID, LocalDateTime> uploaded = new LinkedHashMap<>();
+    private final Set<UUID> skipped = new LinkedHashSet<>();
+    private final Map<UUID, String> failed = new LinkedHashMap<>();
+
+    /**
+     * Records a letter that was uploaded.
+     * @param letterId id of the letter
+     * @param sentToPrintAt when the upload finished
+     */
+    public void uploaded(UUID letterId, LocalDateTime sentToPrintAt) {
+        uploaded.put(letterId, sentToPrintAt);
+    }
+
+    /**
+     * Records a letter that was not uploaded as there is no folder for its service.
+     * @param letterId id of the letter
+     */
+    public void skipped(UUID letterId) {
+        skipped.add(letterId);
+    }
+
+    /**
+     * Records a letter that failed to upload and won't be retried.
+     * @param letterId id of the letter
+     * @param reason why the upload failed, noted on the letter event
+     */
+    public void failed(UUID letterId, String reason) {
+        failed.put(letterId, reason);
+    }
+
+    /**
+     * Counts the letters recorded.
+     * @return the number of letters uploaded, skipped or failed
+     */
+    public int size() {
+        return uploaded.size() + skipped.size() + failed.size();
+    }
+
+    public boolean isEmpty() {
+        return uploaded.isEmpty() && skipped.isEmpty() && failed.isEmpty();
+    }
+
+    public Map<UUID, LocalDateTime> getUploaded() {
+        return Collections.unmodifiableMap(uploaded);
+    }
+
+    public Set<UUID> getSkipped() {
+        return Collections.unmodifiableSet(skipped);
+    }
+
+    public Map<UUID, String> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+}
@@ -5,11 +5,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
-import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.entity.LetterReportInfo;
 import uk.gov.hmcts.reform.sendletter.entity.Report;
 import uk.gov.hmcts.reform.sendletter.entity.ReportRepository;
 import uk.gov.hmcts.reform.sendletter.exception.FtpDownloadException;
-import uk.gov.hmcts.reform.sendletter.exception.LetterNotFoundException;
 import uk.gov.hmcts.reform.sendletter.logging.AppInsights;
 import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
@@ -27,8 +26,9 @@ import java.time.format.SignStyle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -56,8 +56,20 @@ public class MarkLettersPostedService {
     private record ReportInfo(String reportCode, LocalDate reportDate, boolean isInternational) {
     }
 
+    /**
+     * Progress of marking the letters of one report as posted, as its chunks are parsed.
+     */
+    private static final class ReportProgress {
+        private ReportInfo reportInfo;
+        private List<LetterPrintStatus> heldBack = new ArrayList<>();
+        private long postedCount;
+
+        private ReportProgress(ReportInfo reportInfo) {
+            this.reportInfo = reportInfo;
+        }
+    }
+
     private final LetterDataAccessService dataAccessService;
-    private final LetterService letterService;
     private final FtpClient ftpClient;
     private final IFtpAvailabilityChecker ftpAvailabilityChecker;
     private final ReportParser parser;
@@ -68,6 +80,8 @@ public class MarkLettersPostedService {
     private static final String TASK_NAME = "MarkLettersPosted";
     private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{4}|\\d{2})-\\d{2}-(\\d{4}|\\d{2})");
     private static final Pattern REPORT_CODE_PATTERN = Pattern.compile("(?<=MOJ_)[^_.]+");
+    // letters marked as posted in one statement, bounding the letters of a report held in memory
+    private static final int REPORT_CHUNK_SIZE = 1000;
 
     private final ReportRepository reportRepository;
 
@@ -96,70 +110,83 @@ public class MarkLettersPostedService {
         final AtomicReference<PostedReportTaskResponse> currentResponse = new AtomicReference<>();
         final List<PostedReportTaskResponse> responseList = new ArrayList<>();
         try {
-            ftpClient
-                .downloadReports()
-                .stream()
-                .map(parser::parse)
-                .forEach(parsedReport -> {
-
-                    insights.trackPrintReportReceived(parsedReport);
-                    logger.info("Updating letters from report {}. Letter count: {}",
-                        parsedReport.path, parsedReport.statuses.size());
-
-                    ReportInfo reportInfo = extractReportInfoFromParsedReport(parsedReport);
-
-                    if (reportInfo == null) {
-                        // this is an edge case where the report filename didn't contain a know reportCode
-                        // and there were no letters referenced in the parsed report that could be used
-                        // to determine a report code from their assigned service.
-                        //
-                        // When this happens, processing is allowed to move on to the next parsed report,
-                        // but an error response will be added to indicate that a report couldn't be married
-                        // up to a specific service.
-                        currentResponse.set(new PostedReportTaskResponse(
-                            "UNKNOWN",
-                            parsedReport.reportDate,
-                            false)
-                        );
-                        currentResponse.get().markAsFailed(
-                            String.format("Service not found for report with name '%s'", parsedReport.path));
-                    } else {
+            ftpClient.readReports((report, sftp) -> {
 
-                        // initialise a response now so that we can ensure a response in the case of an
-                        // exceptional failure during the markAsPosted iteration below.
-                        currentResponse.set(new PostedReportTaskResponse(
-                            reportInfo.reportCode,
-                            reportInfo.reportDate,
-                            reportInfo.isInternational)
-                        );
+                logger.info("Updating letters from report {}", report.path);
 
-                        long count = parsedReport.statuses.stream()
-                            .filter(status -> markAsPosted(status, parsedReport.path))
-                            .count();
-
-                        currentResponse.get().setMarkedPostedCount(count);
-
-                        if (parsedReport.allRowsParsed) {
-                            logger.info("Report {} successfully parsed, deleting", parsedReport.path);
-                            ftpClient.deleteReport(parsedReport.path);
-                            // now that we've processed the file, we can save a report.
-                            reportRepository.save(Report.builder()
-                                .reportName(parsedReport.path)
-                                .reportCode(reportInfo.reportCode)
-                                .reportDate(reportInfo.reportDate)
-                                .printedLettersCount(count)
-                                .isInternational(reportInfo.isInternational)
-                                .build()
-                            );
-                        } else {
-                            logger.warn("Report {} contained invalid rows, file not removed.", parsedReport.path);
-                            currentResponse.get().markAsFailed("Report "
-                                + parsedReport.path + " contained invalid rows");
+                // the report info is normally known from the report name. Otherwise, it is looked up from
+                // the letters of the report and the letters read before it is known are held back until then.
+                ReportProgress progress = new ReportProgress(
+                    extractReportInfo(report.path, report.reportDate, Collections.emptyList())
+                );
+                if (progress.reportInfo != null) {
+                    // initialise a response now so that we can ensure a response in the case of an
+                    // exceptional failure while marking letters as posted below.
+                    currentResponse.set(responseFor(progress.reportInfo));
+                }
+
+                ParsedReport parsedReport = parser.parse(report, REPORT_CHUNK_SIZE, statuses -> {
+                    if (progress.reportInfo == null) {
+                        progress.heldBack.addAll(statuses);
+                        progress.reportInfo = extractReportInfo(report.path, report.reportDate, statuses);
+                        if (progress.reportInfo == null) {
+                            return;
                         }
+                        currentResponse.set(responseFor(progress.reportInfo));
+                        progress.postedCount += markAsPosted(progress.heldBack, report.path);
+                        progress.heldBack = Collections.emptyList();
+                    } else {
+                        progress.postedCount += markAsPosted(statuses, report.path);
                     }
-                    responseList.add(currentResponse.getAndSet(null));
                 });
 
+                insights.trackPrintReportReceived(parsedReport);
+                logger.info("Parsed report {}. Letter count: {}", parsedReport.path, parsedReport.letterCount);
+
+                ReportInfo reportInfo = progress.reportInfo;
+
+                if (reportInfo == null) {
+                    // this is an edge case where the report filename didn't contain a know reportCode
+                    // and there were no letters referenced in the parsed report that could be used
+                    // to determine a report code from their assigned service.
+                    //
+                    // When this happens, processing is allowed to move on to the next parsed report,
+                    // but an error response will be added to indicate that a report couldn't be married
+                    // up to a specific service.
+                    currentResponse.set(new PostedReportTaskResponse(
+                        "UNKNOWN",
+                        parsedReport.reportDate,
+                        false)
+                    );
+                    currentResponse.get().markAsFailed(
+                        String.format("Service not found for report with name '%s'", parsedReport.path));
+                } else {
+
+                    long count = progress.postedCount;
+
+                    currentResponse.get().setMarkedPostedCount(count);
+
+                    if (parsedReport.allRowsParsed) {
+                        logger.info("Report {} successfully parsed, deleting", parsedReport.path);
+                        ftpClient.deleteReport(parsedReport.path, sftp);
+                        // now that we've processed the file, we can save a report.
+                        reportRepository.save(Report.builder()
+                            .reportName(parsedReport.path)
+                            .reportCode(reportInfo.reportCode)
+                            .reportDate(reportInfo.reportDate)
+                            .printedLettersCount(count)
+                            .isInternational(reportInfo.isInternational)
+                            .build()
+                        );
+                    } else {
+                        logger.warn("Report {} contained invalid rows, file not removed.", parsedReport.path);
+                        currentResponse.get().markAsFailed("Report "
+                            + parsedReport.path + " contained invalid rows");
+                    }
+                }
+                responseList.add(currentResponse.getAndSet(null));
+            });
+
             logger.info("Completed '{}' task", TASK_NAME);
         } catch (Exception e) {
             logger.error("An error occurred when downloading reports from SFTP server", e);
@@ -191,40 +218,44 @@ public class MarkLettersPostedService {
         return responseList;
     }
 
+    private static PostedReportTaskResponse responseFor(ReportInfo reportInfo) {
+        return new PostedReportTaskResponse(reportInfo.reportCode, reportInfo.reportDate, reportInfo.isInternational);
+    }
+
     /**
-     * Marks the letter as posted in the database.
+     * Marks letters of the report as posted in the database.
      *
-     * @param letterPrintStatus The letter print status
-     * @param reportFileName    The report file name
+     * @param statuses   The letter print statuses read from the report
+     * @param reportPath The report path
+     * @return The number of letters marked as posted
      */
-    private boolean markAsPosted(LetterPrintStatus letterPrintStatus, String reportFileName) {
-        final AtomicBoolean markedAsPosted = new AtomicBoolean(false);
-        dataAccessService.findLetterStatus(letterPrintStatus.id).ifPresentOrElse(status -> {
-            if (status.equals(LetterStatus.Uploaded)) {
-                dataAccessService.markLetterAsPosted(
-                    letterPrintStatus.id,
-                    letterPrintStatus.printedAt.toLocalDateTime()
-                );
-                markedAsPosted.set(true);
-                logger.info("Marked letter {} as posted", letterPrintStatus.id);
-            } else {
-                logger.warn("Failed to mark letter {} as posted - unexpected status: {}. Report file name: {}",
-                    letterPrintStatus.id, status, reportFileName);
-            }
-        }, () -> logger.error("Failed to mark letter {} as posted - unknown letter. Report file name: {}",
-            letterPrintStatus.id, reportFileName));
-        return markedAsPosted.get();
+    private long markAsPosted(List<LetterPrintStatus> statuses, String reportPath) {
+        LetterPostedResults results = dataAccessService.markLettersAsPosted(statuses);
+
+        results.getUnexpectedStatus().forEach((id, status) ->
+            logger.warn("Failed to mark letter {} as posted - unexpected status: {}. Report file name: {}",
+                id, status, reportPath));
+        results.getUnknown().forEach(id ->
+            logger.error("Failed to mark letter {} as posted - unknown letter. Report file name: {}",
+                id, reportPath));
+        logger.info("Marked {} letters as posted from report {}. Unexpected status: {}, unknown: {}",
+            results.getPosted().size(),
+            reportPath,
+            results.getUnexpectedStatus().size(),
+            results.getUnknown().size()
+        );
+        return results.getPosted().size();
     }
 
-    private ReportInfo extractReportInfoFromParsedReport(ParsedReport parsedReport) {
+    private ReportInfo extractReportInfo(String reportPath, LocalDate fileDate, List<LetterPrintStatus> statuses) {
 
         // the ideal is that we can simply extract the report info from the
         // report filename, though we do need to ensure that extracted report
         // name is known/expected, and we need all three elements before
         // proceeding.
-        Optional<String> reportCode = calculateReportCodeFromReportPath(parsedReport.path);
-        Optional<Boolean> isInternational = calculateIsInternationalFromReportPath(parsedReport.path);
-        LocalDate reportDate = calculateDateFromReport(parsedReport);
+        Optional<String> reportCode = calculateReportCodeFromReportPath(reportPath);
+        Optional<Boolean> isInternational = calculateIsInternationalFromReportPath(reportPath);
+        LocalDate reportDate = calculateDateFromReport(reportPath, fileDate);
 
         // if we've got the lot, we can call it here
         if (reportCode.isPresent() && isInternational.isPresent()) {
@@ -232,30 +263,21 @@ public class MarkLettersPostedService {
         }
 
         // if we couldn't extract the required data from the filename, then we
-        // need to start looking into the associated letter records
-        for (LetterPrintStatus lps : parsedReport.statuses) {
+        // need to start looking into the associated letter records, all read in one query
+        Map<UUID, LetterReportInfo> letters =
+            dataAccessService.findReportInfo(statuses.stream().map(lps -> lps.id).toList());
+        for (LetterPrintStatus lps : statuses) {
             // initially, we just need to find a letter that exists
-            try {
-                Optional<String> service = dataAccessService.findLetterService(lps.id);
-                if (service.isPresent()) {
-                    // then use that letter, and potentially it's status to look up the right code
-                    uk.gov.hmcts.reform.sendletter.model.out.LetterStatus status =
-                        letterService.getStatus(lps.id, Boolean.TRUE.toString(), Boolean.FALSE.toString());
-                    // if we've already extracted the report code and/or international
-                    // flag from the filename, then we'll use those as a priority.
-                    String code = reportCode.orElseGet(() -> reportsServiceConfig.getReportCode(service.get(), status));
-                    if (code != null) {
-                        boolean international = isInternational.orElseGet(
-                            () -> Optional.ofNullable(status.additionalData)
-                                .map(m -> m.get("isInternational"))
-                                .map(Object::toString) // probably unnecessary
-                                .map(Boolean::valueOf)
-                                .orElse(false));
-                        return new ReportInfo(code, reportDate, international);
-                    }
-                }
-            } catch (LetterNotFoundException e) {
-                logger.warn("Letter not found for id '{}' during report code lookup", lps.id);
+            LetterReportInfo letter = letters.get(lps.id);
+            if (letter == null) {
+                continue;
+            }
+            // if we've already extracted the report code and/or international
+            // flag from the filename, then we'll use those as a priority.
+            String code = reportCode.orElseGet(
+                () -> reportsServiceConfig.getReportCode(letter.service(), letter.isIbca()));
+            if (code != null) {
+                return new ReportInfo(code, reportDate, isInternational.orElse(letter.isInternational()));
             }
         }
 
@@ -301,14 +323,14 @@ public class MarkLettersPostedService {
     }
 
     /**
-     * Calculate the report date from the parsed report, preferring the date of the file to the date in the
-     * {@link ParsedReport}.
+     * Calculate the report date, preferring the date in the report path to the date of the file.
      *
-     * @param parsedReport the parsed report
+     * @param reportPath the report path
+     * @param fileDate   the date the report file was last modified
      * @return A {@link LocalDate}
      */
-    private LocalDate calculateDateFromReport(ParsedReport parsedReport) {
-        Matcher matcher = DATE_PATTERN.matcher(parsedReport.path);
+    private LocalDate calculateDateFromReport(String reportPath, LocalDate fileDate) {
+        Matcher matcher = DATE_PATTERN.matcher(reportPath);
         if (matcher.find()) {
             String dateString = matcher.group();
             try {
@@ -316,9 +338,9 @@ public class MarkLettersPostedService {
                     ? DateTimeFormatter.ISO_LOCAL_DATE
                     : REPORT_DATE_FORMATTER);
             } catch (DateTimeParseException e) {
-                logger.warn("Could not parse date from report path '{}'", parsedReport.path);
+                logger.warn("Could not parse date from report path '{}'", reportPath);
             }
         }
-        return parsedReport.reportDate;
+        return fileDate;
     }
 }
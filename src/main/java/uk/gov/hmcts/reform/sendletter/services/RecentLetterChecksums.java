@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checksums of letters recently saved by this instance, with the id of the letter saved for each.
+ *
+ * <p>Clients retrying a request are the main source of duplicates, and the retry usually reaches the instance
+ * that saved the original. Looking the checksum up here first saves a query for most duplicates.
+ * An entry is only a hint: the letter may have been uploaded by another instance since,
+ * so callers confirm the letter is still waiting for upload before trusting it.
+ *
+ * <p>The index holds at most {@code maxSize} checksums, dropping the least recently used first,
+ * and forgets each one {@code ttl} after it was saved.
+ */
+@Component
+public class RecentLetterChecksums {
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final LinkedHashMap<String, Entry> byChecksum;
+    private final Map<UUID, String> checksumById = new HashMap<>();
+
+    /**
+     * Constructor for the RecentLetterChecksums.
+     * @param maxSize The maximum number of checksums held
+     * @param ttl How long a checksum is held after it was saved
+     * @param clock The clock
+     */
+    @Autowired
+    public RecentLetterChecksums(
+        @Value("${letters.checksum-index.max-size:10000}") int maxSize,
+        @Value("${letters.checksum-index.ttl:PT1H}") Duration ttl,
+        Clock clock
+    ) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.byChecksum = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > RecentLetterChecksums.this.maxSize) {
+                    checksumById.remove(eldest.getValue().letterId);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Id of the letter recently saved with the checksum.
+     * @param checksum The letter checksum
+     * @return the letter id, empty when the checksum is not known or has expired
+     */
+    public synchronized Optional<UUID> find(String checksum) {
+        Entry entry = byChecksum.get(checksum);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt.isBefore(clock.instant())) {
+            remove(checksum);
+            return Optional.empty();
+        }
+        return Optional.of(entry.letterId);
+    }
+
+    /**
+     * Records the letter saved with the checksum.
+     * @param checksum The letter checksum
+     * @param letterId The letter id
+     */
+    public synchronized void put(String checksum, UUID letterId) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Entry previous = byChecksum.put(checksum, new Entry(letterId, clock.instant().plus(ttl)));
+        if (previous != null) {
+            checksumById.remove(previous.letterId);
+        }
+        checksumById.put(letterId, checksum);
+    }
+
+    /**
+     * Forgets the checksum, once its letter is no longer waiting for upload.
+     * @param checksum The letter checksum
+     */
+    public synchronized void remove(String checksum) {
+        Entry entry = byChecksum.remove(checksum);
+        if (entry != null) {
+            checksumById.remove(entry.letterId);
+        }
+    }
+
+    /**
+     * Forgets the checksum of the letter, once it is no longer waiting for upload.
+     * @param letterId The letter id
+     */
+    public synchronized void removeLetter(UUID letterId) {
+        String checksum = checksumById.remove(letterId);
+        if (checksum != null) {
+            byChecksum.remove(checksum);
+        }
+    }
+
+    /**
+     * Number of checksums held, including expired ones not looked up since.
+     * @return the number of checksums
+     */
+    public synchronized int size() {
+        return byChecksum.size();
+    }
+
+    private record Entry(UUID letterId, Instant expiresAt) {
+    }
+}
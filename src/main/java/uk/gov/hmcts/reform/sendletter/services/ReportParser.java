@@ -9,20 +9,19 @@ import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sendletter.exception.ReportParsingException;
 import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
-import uk.gov.hmcts.reform.sendletter.model.Report;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
 import uk.gov.hmcts.reform.sendletter.services.util.FileNameHelper;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.StreamSupport.stream;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Utility class to parse reports.
@@ -32,26 +31,44 @@ public class ReportParser {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportParser.class);
 
+    private static final DateTimeFormatter PRINTED_AT_FORMATTER =
+        DateTimeFormatter.ofPattern("dd-MM-yyyy'T'HH:mm'Z'").withZone(ZoneOffset.UTC);
+    private static final int UUID_LENGTH = 36;
+
     /**
-     * Parses the given report and returns the parsed report.
+     * Parses the given report as its rows are read, handing the letter print statuses over in chunks
+     * so that no more than one chunk of the report is held in memory. Closes the report content.
      *
      * @param report The report to parse
+     * @param chunkSize The maximum number of letter print statuses in a chunk
+     * @param chunkConsumer Called with every chunk of letter print statuses, in the order of the report
      * @return The parsed report
      */
-    public ParsedReport parse(Report report) {
+    public ParsedReport parse(StreamedReport report, int chunkSize, Consumer<List<LetterPrintStatus>> chunkConsumer) {
         try (CSVParser parser = parserFor(report.content)) {
 
-            List<LetterPrintStatus> statuses =
-                stream(parser.spliterator(), false)
-                    .map(this::toPrintStatus)
-                    .collect(toList());
+            long letterCount = 0;
+            boolean allRowsParsed = true;
+            List<LetterPrintStatus> chunk = new ArrayList<>(chunkSize);
 
-            return new ParsedReport(
-                report.path,
-                statuses.stream().filter(Objects::nonNull).collect(toList()),
-                statuses.stream().allMatch(Objects::nonNull),
-                report.reportDate
-            );
+            for (CSVRecord csvRecord : parser) {
+                LetterPrintStatus status = toPrintStatus(csvRecord);
+                if (status == null) {
+                    allRowsParsed = false;
+                    continue;
+                }
+                chunk.add(status);
+                letterCount++;
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+
+            return new ParsedReport(report.path, letterCount, allRowsParsed, report.reportDate);
 
         } catch (IOException exc) {
             throw new ReportParsingException(exc);
@@ -64,11 +81,11 @@ public class ReportParser {
      * @return The CSV parser
      * @throws IOException If an error occurs while creating the parser
      */
-    private CSVParser parserFor(byte[] csv) throws IOException {
+    private CSVParser parserFor(InputStream csv) throws IOException {
         return CSVFormat
             .DEFAULT
             .builder().setHeader().build()
-            .parse(new InputStreamReader(new ByteArrayInputStream(csv)));
+            .parse(new InputStreamReader(csv));
     }
 
     /**
@@ -79,13 +96,102 @@ public class ReportParser {
     private LetterPrintStatus toPrintStatus(CSVRecord csvRecord) {
         try {
             return new LetterPrintStatus(
-                FileNameHelper.extractIdFromPdfName(csvRecord.get("InputFileName")),
-                ZonedDateTime.parse(csvRecord.get("StartDate") + "T" + csvRecord.get("StartTime") + "Z",
-                    DateTimeFormatter.ofPattern("dd-MM-yyyy'T'HH:mm'Z'").withZone(ZoneOffset.UTC))
+                extractId(csvRecord.get("InputFileName")),
+                parsePrintedAt(csvRecord.get("StartDate"), csvRecord.get("StartTime"))
             );
         } catch (Exception exc) {
             logger.error("Error parsing row: {}", csvRecord, exc);
             return null;
         }
     }
+
+    /**
+     * Extracts the letter ID from the PDF file name of a row.
+     * Reads the UUID straight from the file name when it has the usual shape and otherwise
+     * leaves it to {@link FileNameHelper#extractIdFromPdfName}, which gives the same result.
+     * @param fileName The PDF file name
+     * @return The letter ID
+     */
+    private static UUID extractId(String fileName) {
+        int end = fileName.lastIndexOf('.');
+        if (end < 0 || end < Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'))) {
+            end = fileName.length();
+        }
+        int start = end - UUID_LENGTH;
+        if (start > 0 && fileName.charAt(start - 1) == '_' && fileName.lastIndexOf('_', start - 2) >= 0
+            && fileName.charAt(start + 8) == '-' && fileName.charAt(start + 13) == '-'
+            && fileName.charAt(start + 18) == '-' && fileName.charAt(start + 23) == '-') {
+            long timeLow = hex(fileName, start, start + 8);
+            long timeMid = hex(fileName, start + 9, start + 13);
+            long timeHigh = hex(fileName, start + 14, start + 18);
+            long clockSeq = hex(fileName, start + 19, start + 23);
+            long node = hex(fileName, start + 24, end);
+            if ((timeLow | timeMid | timeHigh | clockSeq | node) >= 0) {
+                return new UUID(timeLow << 32 | timeMid << 16 | timeHigh, clockSeq << 48 | node);
+            }
+        }
+        return FileNameHelper.extractIdFromPdfName(fileName);
+    }
+
+    /**
+     * Parses the print date and time of a row, formatted as dd-MM-yyyy and HH:mm in UTC.
+     * Reads the digits straight from the fields when they have the usual shape and otherwise
+     * leaves it to {@link #PRINTED_AT_FORMATTER}, e.g. to resolve days past the end of the month.
+     * @param date The date of the row
+     * @param time The time of the row
+     * @return The date and time the letter was printed at
+     */
+    private static ZonedDateTime parsePrintedAt(String date, String time) {
+        if (date.length() == 10 && date.charAt(2) == '-' && date.charAt(5) == '-'
+            && time.length() == 5 && time.charAt(2) == ':') {
+            int day = (int) decimal(date, 0, 2);
+            int month = (int) decimal(date, 3, 5);
+            int year = (int) decimal(date, 6, 10);
+            int hour = (int) decimal(time, 0, 2);
+            int minute = (int) decimal(time, 3, 5);
+            if ((day | month | year | hour | minute) >= 0 && day <= 28 && year > 0 && hour < 24) {
+                return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+            }
+        }
+        return ZonedDateTime.parse(date + "T" + time + "Z", PRINTED_AT_FORMATTER);
+    }
+
+    /**
+     * Reads the decimal number in the given range of the text.
+     * @return The number or -1 if the range has other characters than digits
+     */
+    private static long decimal(String text, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Reads the hexadecimal number in the given range of the text.
+     * @return The number or -1 if the range has other characters than hexadecimal digits
+     */
+    private static long hex(String text, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
 }
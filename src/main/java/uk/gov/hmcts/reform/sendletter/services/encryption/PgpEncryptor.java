@@ -0,0 +1,205 @@
+package uk.gov.hmcts.reform.sendletter.services.encryption;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPCompressedDataGenerator;
+import org.bouncycastle.openpgp.PGPEncryptedDataGenerator;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPLiteralData;
+import org.bouncycastle.openpgp.PGPLiteralDataGenerator;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.operator.PGPDataEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDataEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyKeyEncryptionMethodGenerator;
+import org.bouncycastle.openpgp.operator.jcajce.JcePGPDataEncryptorBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.bouncycastle.bcpg.CompressionAlgorithmTags.ZIP;
+import static org.bouncycastle.bcpg.SymmetricKeyAlgorithmTags.AES_256;
+
+/**
+ * PGP encrypts letter content in memory.
+ *
+ * <p>The Bouncy Castle provider is registered once per JVM and a single {@link SecureRandom}
+ * is shared between all callers, which is safe as {@code SecureRandom} is thread-safe.
+ * Content is written into the literal data packet directly from memory, without a temporary file.
+ *
+ * <p>Symmetric encryption of the content is done by one of two backends, selected with {@code encryption.backend}:
+ * {@code bc} uses Bouncy Castle's pure Java AES, while {@code jce} goes through the JCA and picks up the JDK's
+ * AES implementation, which uses the CPU's AES instructions where available. Both produce the same OpenPGP
+ * packets (AES 256 with an integrity packet), so the print provider can decrypt either.
+ */
+@Component
+public class PgpEncryptor {
+
+    private static final Logger log = LoggerFactory.getLogger(PgpEncryptor.class);
+
+    // size of the partial packets written by the streaming encryption
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * Implementation used for the symmetric encryption of the content.
+     */
+    public enum Backend {
+        BC,
+        JCE
+    }
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Backend backend;
+
+    /**
+     * Creates an encryptor using the Bouncy Castle backend.
+     */
+    public PgpEncryptor() {
+        this(Backend.BC);
+    }
+
+    /**
+     * Creates an encryptor using the configured backend.
+     *
+     * @param backend name of the backend, {@code bc} or {@code jce}
+     */
+    @Autowired
+    public PgpEncryptor(@Value("${encryption.backend:bc}") String backend) {
+        this(Backend.valueOf(backend.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Creates an encryptor using the given backend.
+     *
+     * @param backend the backend
+     */
+    public PgpEncryptor(Backend backend) {
+        this.backend = backend;
+        log.info("PGP encryption backend: {}", backend);
+    }
+
+    /**
+     * Encrypts the given byte array using PGP encryption using AES 256 algorithm.
+     *
+     * @param content      content to encrypt
+     * @param fileName     file name stored in the literal data packet
+     * @param pgpPublicKey key used to encrypt file
+     *
+     * @return PGP encrypted byte array
+     */
+    public byte[] encrypt(byte[] content, String fileName, PGPPublicKey pgpPublicKey) {
+        var byteArrayOutputStream = new ByteArrayOutputStream(content.length + 1024);
+
+        try (OutputStream out = openEncryptionStream(byteArrayOutputStream, fileName, pgpPublicKey)) {
+            out.write(content);
+        } catch (IOException exc) {
+            log.error("Error encrypting file {}", fileName, exc);
+            throw new UnableToPgpEncryptZipFileException(exc);
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Opens a stream which PGP encrypts everything written to it into the given sink.
+     * Data is written as a binary literal packet, compressed with ZIP and encrypted with AES 256 in one pass,
+     * using partial packets so that neither the plain nor the compressed content is ever buffered in full.
+     * Closing the returned stream finishes all packets but leaves the sink open.
+     *
+     * @param sink         stream the encrypted content is written to
+     * @param fileName     file name stored in the literal data packet
+     * @param pgpPublicKey key used to encrypt file
+     *
+     * @return stream accepting the content to encrypt
+     */
+    public OutputStream openEncryptionStream(OutputStream sink, String fileName, PGPPublicKey pgpPublicKey) {
+        try {
+            OutputStream encrypted = prepareDataEncryptor(pgpPublicKey).open(sink, new byte[BUFFER_SIZE]);
+            OutputStream compressed = new PGPCompressedDataGenerator(ZIP).open(encrypted);
+            OutputStream literal = new PGPLiteralDataGenerator().open(
+                compressed,
+                PGPLiteralData.BINARY,
+                fileName,
+                new Date(),
+                new byte[BUFFER_SIZE]
+            );
+
+            return new EncryptionOutputStream(literal, compressed, encrypted);
+        } catch (IOException | PGPException exc) {
+            log.error("Error encrypting file {}", fileName, exc);
+            throw new UnableToPgpEncryptZipFileException(exc);
+        }
+    }
+
+    /**
+     * Prepares the data encryptor.
+     * @param pgpPublicKey the public key
+     * @return the encrypted data generator
+     */
+    private PGPEncryptedDataGenerator prepareDataEncryptor(PGPPublicKey pgpPublicKey) {
+        var encryptedDataGenerator = new PGPEncryptedDataGenerator(createDataEncryptor());
+        encryptedDataGenerator.addMethod(
+            new BcPublicKeyKeyEncryptionMethodGenerator(pgpPublicKey).setSecureRandom(secureRandom)
+        );
+        return encryptedDataGenerator;
+    }
+
+    /**
+     * Creates the symmetric data encryptor for the configured backend.
+     * The JCE builder is left to pick the provider, so the JDK's own AES is used ahead of Bouncy Castle.
+     * @return the data encryptor builder
+     */
+    private PGPDataEncryptorBuilder createDataEncryptor() {
+        return switch (backend) {
+            case BC -> new BcPGPDataEncryptorBuilder(AES_256)
+                .setWithIntegrityPacket(true)
+                .setSecureRandom(secureRandom);
+            case JCE -> new JcePGPDataEncryptorBuilder(AES_256)
+                .setWithIntegrityPacket(true)
+                .setSecureRandom(secureRandom);
+        };
+    }
+
+    /**
+     * Literal data stream which finishes the compression and encryption layers beneath it on close.
+     */
+    private static final class EncryptionOutputStream extends FilterOutputStream {
+
+        private final OutputStream compressed;
+        private final OutputStream encrypted;
+
+        private EncryptionOutputStream(OutputStream literal, OutputStream compressed, OutputStream encrypted) {
+            super(literal);
+            this.compressed = compressed;
+            this.encrypted = encrypted;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // each layer has to be finished before the one it writes to
+            out.close();
+            compressed.close();
+            encrypted.close();
+        }
+    }
+}
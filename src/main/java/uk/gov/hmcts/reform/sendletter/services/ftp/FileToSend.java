@@ -3,16 +3,27 @@ package uk.gov.hmcts.reform.sendletter.services.ftp;
 import net.schmizz.sshj.xfer.InMemorySourceFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 /**
  * This class represents the file to send.
+ * The content is read from a stream opened anew for every upload attempt, so it need not be held in memory.
  */
 public class FileToSend extends InMemorySourceFile {
 
+    /**
+     * Opens a stream over the content of the file.
+     */
+    @FunctionalInterface
+    public interface Content {
+        InputStream open() throws IOException;
+    }
+
     public final String filename;
-    public final byte[] content;
     public final boolean isSmokeTest;
+    private final long length;
+    private final Content content;
 
     /**
      * Constructor.
@@ -22,7 +33,20 @@ public class FileToSend extends InMemorySourceFile {
      * @param isSmokeTest the is smoke test
      */
     public FileToSend(String filename, byte[] content, boolean isSmokeTest) {
+        this(filename, content.length, () -> new ByteArrayInputStream(content), isSmokeTest);
+    }
+
+    /**
+     * Constructor for content streamed from elsewhere.
+     *
+     * @param filename the filename
+     * @param length the length of the content in bytes
+     * @param content opens the content
+     * @param isSmokeTest the is smoke test
+     */
+    public FileToSend(String filename, long length, Content content, boolean isSmokeTest) {
         this.filename = filename;
+        this.length = length;
         this.content = content;
         this.isSmokeTest = isSmokeTest;
     }
@@ -34,11 +58,11 @@ public class FileToSend extends InMemorySourceFile {
 
     @Override
     public long getLength() {
-        return this.content.length;
+        return this.length;
     }
 
     @Override
-    public InputStream getInputStream() {
-        return new ByteArrayInputStream(this.content);
+    public InputStream getInputStream() throws IOException {
+        return this.content.open();
     }
 }
@@ -1,27 +1,34 @@
 package uk.gov.hmcts.reform.sendletter.services.ftp;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.sftp.RemoteFile;
 import net.schmizz.sshj.sftp.RemoteResourceInfo;
 import net.schmizz.sshj.sftp.SFTPClient;
-import net.schmizz.sshj.sftp.SFTPFileTransfer;
 import net.schmizz.sshj.userauth.UserAuthException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sendletter.config.FtpConfigProperties;
 import uk.gov.hmcts.reform.sendletter.exception.FtpException;
 import uk.gov.hmcts.reform.sendletter.logging.Dependency;
-import uk.gov.hmcts.reform.sendletter.model.InMemoryDownloadedFile;
-import uk.gov.hmcts.reform.sendletter.model.Report;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -46,9 +53,10 @@ public class FtpClient {
     private final FtpConfigProperties configProperties;
     private final Supplier<SSHClient> sshClientSupplier;
     private final RetryTemplate retryTemplate;
+    private final SftpSessionPool sessionPool;
 
     /**
-     * Constructor for the FtpClient.
+     * Constructor for the FtpClient connecting for every operation.
      * @param sshClientSupplier The supplier for SSH client
      * @param configProperties The FTP configuration properties
      * @param retryTemplate The retry template
@@ -61,6 +69,39 @@ public class FtpClient {
         this.sshClientSupplier = sshClientSupplier;
         this.configProperties = configProperties;
         this.retryTemplate = retryTemplate;
+        this.sessionPool = null;
+    }
+
+    /**
+     * Constructor for the FtpClient reusing sessions from a pool, unless the pool is configured with no sessions.
+     * @param sshClientSupplier The supplier for SSH client
+     * @param configProperties The FTP configuration properties
+     * @param retryTemplate The retry template
+     * @param availabilityChecker The FTP availability checker, pooled sessions are closed when downtime starts
+     * @param clock The clock
+     * @param meterRegistry The registry for session pool metrics
+     */
+    @Autowired
+    public FtpClient(
+        Supplier<SSHClient> sshClientSupplier,
+        FtpConfigProperties configProperties,
+        RetryTemplate retryTemplate,
+        IFtpAvailabilityChecker availabilityChecker,
+        Clock clock,
+        MeterRegistry meterRegistry
+    ) {
+        this.sshClientSupplier = sshClientSupplier;
+        this.configProperties = configProperties;
+        this.retryTemplate = retryTemplate;
+        this.sessionPool = configProperties.getPool().getMaxSessions() > 0
+            ? new SftpSessionPool(
+                this::getSshClient,
+                configProperties.getPool(),
+                availabilityChecker,
+                clock,
+                meterRegistry
+            )
+            : null;
     }
 
     /**
@@ -112,63 +153,54 @@ public class FtpClient {
     }
 
     /**
-     * Downloads reports from the FTP server.
-     * @return The list of reports
+     * Reads reports from the FTP server one at a time over one session. Each report is read from the server
+     * while the reader consumes it, so only the read-ahead buffer of the report is held in memory.
+     * The content is closed once the reader returns, if the reader has not closed it already.
+     * @param reader The reader of each report, given the session to delete the report with once processed
      */
     @Dependency(name = FTP_CLIENT, command = FTP_REPORT_DOWNLOADED, type = FTP)
-    public List<Report> downloadReports() {
-        logger.info("Downloading reports from SFTP server");
+    public void readReports(BiConsumer<StreamedReport, SFTPClient> reader) {
+        logger.info("Reading reports from SFTP server");
 
-        return runWith(sftp -> {
+        runWith(sftp -> {
+            List<RemoteResourceInfo> files;
             try {
-                SFTPFileTransfer transfer = sftp.getFileTransfer();
-
-                List<Report> reports = sftp.ls(configProperties.getReportsFolder())
+                files = sftp.ls(configProperties.getReportsFolder())
                     .stream()
                     .filter(this::isReportFile)
-                    .map(file -> {
-                        InMemoryDownloadedFile inMemoryFile = new InMemoryDownloadedFile();
-                        try {
-                            transfer.download(file.getPath(), inMemoryFile);
-                            Report report = new Report(
-                                file.getPath(),
-                                inMemoryFile.getBytes(),
-                                file.getAttributes().getMtime()
-                            );
-                            logger.info("Downloaded report file '{}'", report.path);
-                            return report;
-                        } catch (IOException exc) {
-                            throw new FtpException("Unable to download file " + file.getName(), exc);
-                        }
-                    })
-                    .collect(toList());
-
-                logger.info("Finished downloading reports from SFTP server. Number of reports: {}", reports.size());
-
-                return reports;
+                    .toList();
             } catch (IOException exc) {
                 throw new FtpException("Error while downloading reports", exc);
             }
+
+            for (RemoteResourceInfo file : files) {
+                try (InputStream content = new RemoteFileContent(sftp.open(file.getPath()))) {
+                    logger.info("Reading report file '{}'", file.getPath());
+                    reader.accept(new StreamedReport(file.getPath(), content, file.getAttributes().getMtime()), sftp);
+                } catch (IOException exc) {
+                    throw new FtpException("Unable to download file " + file.getName(), exc);
+                }
+            }
+
+            logger.info("Finished reading reports from SFTP server. Number of reports: {}", files.size());
+            return null;
         });
     }
 
     /**
      * Deletes a report from the FTP server.
      * @param reportPath The path of the report to delete
+     * @param sftpClient The SFTP client
      */
     @Dependency(name = FTP_CLIENT, command = FTP_REPORT_DELETED, type = FTP)
-    public void deleteReport(String reportPath) {
+    public void deleteReport(String reportPath, SFTPClient sftpClient) {
         logger.info("Deleting report '{}'", reportPath);
-
-        runWith(sftp -> {
-            try {
-                sftp.rm(reportPath);
-                logger.info("Deleted report '{}'", reportPath);
-                return null;
-            } catch (Exception exc) {
-                throw new FtpException("Error while deleting report: " + reportPath, exc);
-            }
-        });
+        try {
+            sftpClient.rm(reportPath);
+            logger.info("Deleted report '{}'", reportPath);
+        } catch (Exception exc) {
+            throw new FtpException("Error while deleting report: " + reportPath, exc);
+        }
     }
 
     /**
@@ -216,6 +248,10 @@ public class FtpClient {
      * @return The result of the action
      */
     public <T> T runWith(Function<SFTPClient, T> action) {
+        if (sessionPool != null) {
+            return runWithPooledSession(action);
+        }
+
         SSHClient ssh = null;
 
         try {
@@ -239,6 +275,53 @@ public class FtpClient {
         }
     }
 
+    /**
+     * Runs an action with a session borrowed from the pool. The session is closed rather than reused if the action
+     * failed, as the failure may have left it broken.
+     * @param action The action to run
+     * @param <T> The type of the result
+     * @return The result of the action
+     */
+    private <T> T runWithPooledSession(Function<SFTPClient, T> action) {
+        SftpSessionPool.Session session;
+        try {
+            session = sessionPool.borrow();
+        } catch (UserAuthException exception) {
+            throw new FtpException("Unable to authenticate.", exception);
+        } catch (IOException exc) {
+            throw new FtpException("FTP operation failed.", exc);
+        }
+
+        boolean healthy = false;
+        try {
+            T result = action.apply(session.getSftpClient());
+            healthy = true;
+            return result;
+        } finally {
+            sessionPool.giveBack(session, healthy);
+        }
+    }
+
+    /**
+     * Closes idle pooled sessions and tops the pool up to its minimum, or drops it when the downtime window starts.
+     */
+    @Scheduled(fixedDelayString = "${ftp.pool.maintenance-interval-ms:30000}")
+    public void maintainSessionPool() {
+        if (sessionPool != null) {
+            sessionPool.maintain();
+        }
+    }
+
+    /**
+     * Closes pooled sessions on shutdown.
+     */
+    @PreDestroy
+    public void closeSessionPool() {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+    }
+
     /**
      * Gets an SSH client.
      * @return The SSH client
@@ -262,6 +345,36 @@ public class FtpClient {
         return ssh;
     }
 
+    /**
+     * Content of a remote file, read ahead of the reader. Closing it closes the remote file,
+     * so that the file can be deleted once read.
+     */
+    private static final class RemoteFileContent extends FilterInputStream {
+
+        private static final int MAX_UNCONFIRMED_READS = 16;
+
+        private final RemoteFile file;
+        private boolean closed;
+
+        private RemoteFileContent(RemoteFile file) {
+            super(file.new ReadAheadRemoteFileInputStream(MAX_UNCONFIRMED_READS));
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                file.close();
+            }
+        }
+    }
+
     /**
      * Checks if a file is a report file.
      * @param resourceInfo The resource info
@@ -0,0 +1,341 @@
+package uk.gov.hmcts.reform.sendletter.services.ftp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.hmcts.reform.sendletter.config.FtpConfigProperties;
+import uk.gov.hmcts.reform.sendletter.exception.FtpException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.gov.hmcts.reform.sendletter.util.TimeZones.EUROPE_LONDON;
+
+/**
+ * Keeps authenticated SFTP sessions open so that callers don't pay for a handshake on every operation.
+ * Sessions are handed out most recently used first, so sessions left idle are the ones evicted.
+ * No more than max-sessions are open at any time, whether in use or idle.
+ * All sessions are dropped when the SFTP downtime window starts, as the provider closes them anyway.
+ */
+public class SftpSessionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SftpSessionPool.class);
+
+    /**
+     * Opens a connected and authenticated SSH client.
+     */
+    @FunctionalInterface
+    public interface Connector {
+        SSHClient connect() throws IOException;
+    }
+
+    /**
+     * An SFTP session borrowed from the pool. Has to be given back with {@link #giveBack}.
+     */
+    public static final class Session {
+        private final SSHClient ssh;
+        private final SFTPClient sftp;
+        private final int generation;
+        private volatile Instant lastUsed;
+
+        private Session(SSHClient ssh, SFTPClient sftp, int generation, Instant lastUsed) {
+            this.ssh = ssh;
+            this.sftp = sftp;
+            this.generation = generation;
+            this.lastUsed = lastUsed;
+        }
+
+        public SFTPClient getSftpClient() {
+            return sftp;
+        }
+    }
+
+    private final Connector connector;
+    private final IFtpAvailabilityChecker availabilityChecker;
+    private final Clock clock;
+    private final int maxSessions;
+    private final int minIdle;
+    private final Duration maxIdleTime;
+    private final Duration borrowTimeout;
+    private final Duration validateAfter;
+
+    // one per borrowed session, while open counts idle sessions and sessions being opened too
+    private final Semaphore permits;
+    private final Deque<Session> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+    // bumped when sessions are invalidated, sessions of older generations are closed when given back
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile boolean ftpAvailable = true;
+    private volatile boolean closed;
+
+    private final Timer borrowWait;
+    private final Timer handshakes;
+    private final Counter handshakeFailures;
+    private final Counter evictions;
+
+    /**
+     * Constructor for the SftpSessionPool.
+     * @param connector Opens new sessions
+     * @param settings The pool settings
+     * @param availabilityChecker The FTP availability checker, sessions are invalidated when downtime starts
+     * @param clock The clock
+     * @param meterRegistry The registry for pool metrics
+     */
+    public SftpSessionPool(
+        Connector connector,
+        FtpConfigProperties.Pool settings,
+        IFtpAvailabilityChecker availabilityChecker,
+        Clock clock,
+        MeterRegistry meterRegistry
+    ) {
+        if (settings.getMaxSessions() < 1
+            || settings.getMinIdle() < 0
+            || settings.getMinIdle() > settings.getMaxSessions()) {
+            throw new IllegalArgumentException(
+                "SFTP pool needs 0 <= min-idle <= max-sessions and at least one session"
+            );
+        }
+        this.connector = connector;
+        this.availabilityChecker = availabilityChecker;
+        this.clock = clock;
+        this.maxSessions = settings.getMaxSessions();
+        this.minIdle = settings.getMinIdle();
+        this.maxIdleTime = settings.getMaxIdleTime();
+        this.borrowTimeout = settings.getBorrowTimeout();
+        this.validateAfter = settings.getValidateAfter();
+        this.permits = new Semaphore(settings.getMaxSessions(), true);
+
+        this.borrowWait = Timer.builder("sftp.pool.borrow.wait")
+            .description("Time waited for an SFTP session")
+            .register(meterRegistry);
+        this.handshakes = Timer.builder("sftp.pool.handshakes")
+            .description("SSH connections opened and authenticated")
+            .register(meterRegistry);
+        this.handshakeFailures = Counter.builder("sftp.pool.handshake.failures")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("sftp.pool.evictions")
+            .description("Sessions closed because they were idle, broken or invalidated")
+            .register(meterRegistry);
+        Gauge.builder("sftp.pool.sessions.open", open, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("sftp.pool.sessions.idle", idle, Deque::size).register(meterRegistry);
+    }
+
+    /**
+     * Borrows a session, reusing an idle one if it is still healthy or else opening a new one.
+     * Waits up to the borrow timeout when all sessions are in use.
+     * @return the session
+     * @throws IOException if a new session could not be opened
+     * @throws FtpException if no session was given back in time
+     */
+    public Session borrow() throws IOException {
+        checkDowntime();
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new FtpException("No SFTP session available within " + borrowTimeout, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FtpException("Interrupted while waiting for SFTP session", e);
+        } finally {
+            borrowWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            while (true) {
+                Session session;
+                while ((session = idle.pollFirst()) != null) {
+                    if (isUsable(session)) {
+                        return session;
+                    }
+                    discard(session);
+                }
+                if (reserve()) {
+                    return open();
+                }
+                // with a permit held, a session counted as open is on its way into or out of the idle sessions
+                Thread.onSpinWait();
+            }
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a session back to the pool.
+     * @param session the borrowed session
+     * @param healthy false if the session failed while in use, it is closed instead of reused
+     */
+    public void giveBack(Session session, boolean healthy) {
+        try {
+            if (healthy && !closed && ftpAvailable && session.generation == generation.get()) {
+                session.lastUsed = clock.instant();
+                idle.offerFirst(session);
+            } else {
+                discard(session);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes sessions idle for longer than the max idle time, keeping at least min-idle of them,
+     * and opens sessions until min-idle are waiting. Drops all sessions when the downtime window has started.
+     */
+    public void maintain() {
+        checkDowntime();
+        if (closed || !ftpAvailable) {
+            return;
+        }
+
+        Instant idleSince = clock.instant().minus(maxIdleTime);
+        List<Session> expired = new ArrayList<>();
+        // least recently used sessions are at the end
+        for (Session session = idle.peekLast(); session != null && idle.size() > minIdle; session = idle.peekLast()) {
+            if (!session.lastUsed.isBefore(idleSince) || !idle.remove(session)) {
+                break;
+            }
+            expired.add(session);
+        }
+        expired.forEach(this::discard);
+
+        while (idle.size() < minIdle && reserve()) {
+            try {
+                idle.offerLast(open());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Unable to open idle SFTP session", e);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Closes all idle sessions and makes sure sessions in use are closed when given back.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        Session session;
+        while ((session = idle.pollFirst()) != null) {
+            discard(session);
+        }
+    }
+
+    public int getOpenSessions() {
+        return open.get();
+    }
+
+    public int getIdleSessions() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        invalidateAll();
+    }
+
+    private void checkDowntime() {
+        boolean available = availabilityChecker.isFtpAvailable(
+            LocalTime.ofInstant(clock.instant(), ZoneId.of(EUROPE_LONDON))
+        );
+        if (ftpAvailable && !available) {
+            logger.info("SFTP downtime started, closing {} sessions", open.get());
+            invalidateAll();
+        }
+        ftpAvailable = available;
+    }
+
+    private boolean isUsable(Session session) {
+        if (session.generation != generation.get() || !session.ssh.isConnected() || !session.ssh.isAuthenticated()) {
+            return false;
+        }
+        if (session.lastUsed.isAfter(clock.instant().minus(validateAfter))) {
+            return true;
+        }
+        try {
+            // cheapest round trip, fails if the server dropped the session while it was idle
+            session.sftp.canonicalize(".");
+            return true;
+        } catch (IOException e) {
+            logger.info("Idle SFTP session failed health check", e);
+            return false;
+        }
+    }
+
+    /**
+     * Counts a session about to be opened, unless max-sessions are open already.
+     * Idle sessions are counted too, so that sessions opened in advance never add up to more than max-sessions.
+     */
+    private boolean reserve() {
+        int current;
+        do {
+            current = open.get();
+            if (current >= maxSessions) {
+                return false;
+            }
+        } while (!open.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Opens a session in a slot taken with {@link #reserve}, which is given up if opening fails.
+     */
+    private Session open() throws IOException {
+        long start = System.nanoTime();
+        SSHClient ssh;
+        try {
+            ssh = connector.connect();
+        } catch (IOException | RuntimeException e) {
+            handshakeFailures.increment();
+            open.decrementAndGet();
+            throw e;
+        }
+        try {
+            SFTPClient sftp = ssh.newSFTPClient();
+            handshakes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new Session(ssh, sftp, generation.get(), clock.instant());
+        } catch (IOException | RuntimeException e) {
+            handshakeFailures.increment();
+            open.decrementAndGet();
+            disconnect(ssh);
+            throw e;
+        }
+    }
+
+    private void discard(Session session) {
+        evictions.increment();
+        open.decrementAndGet();
+        try {
+            session.sftp.close();
+        } catch (IOException e) {
+            logger.debug("Error closing SFTP session", e);
+        }
+        disconnect(session.ssh);
+    }
+
+    private static void disconnect(SSHClient ssh) {
+        try {
+            ssh.disconnect();
+        } catch (IOException e) {
+            logger.warn("Error closing ssh connection.", e);
+        }
+    }
+}
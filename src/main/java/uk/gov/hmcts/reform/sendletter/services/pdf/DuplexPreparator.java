@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.sendletter.services.pdf;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.slf4j.Logger;
@@ -24,11 +25,7 @@ public class DuplexPreparator {
     public byte[] prepare(byte[] pdf, String loggingContext) {
         logger.debug("File size is {} KB", pdf.length / 1024);
         try (var pdDoc = Loader.loadPDF(pdf)) {
-            int numberOfPages = pdDoc.getNumberOfPages();
-            logger.debug("File has {} pages.", numberOfPages);
-            if (numberOfPages % 2 == 1) {
-                PDRectangle lastPageMediaBox = pdDoc.getPage(numberOfPages - 1).getMediaBox();
-                pdDoc.addPage(new PDPage(lastPageMediaBox));
+            if (prepare(pdDoc)) {
                 var out = new ByteArrayOutputStream();
                 pdDoc.save(out);
 
@@ -42,4 +39,21 @@ public class DuplexPreparator {
             throw new DuplexException(errorMessage, exc);
         }
     }
+
+    /**
+     * Adds an extra blank page to an already parsed document if the total number of pages is odd.
+     *
+     * @param pdDoc the parsed document, modified in place
+     * @return true if a page was added
+     */
+    public boolean prepare(PDDocument pdDoc) {
+        int numberOfPages = pdDoc.getNumberOfPages();
+        logger.debug("File has {} pages.", numberOfPages);
+        if (numberOfPages % 2 == 1) {
+            PDRectangle lastPageMediaBox = pdDoc.getPage(numberOfPages - 1).getMediaBox();
+            pdDoc.addPage(new PDPage(lastPageMediaBox));
+            return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,200 @@
+package uk.gov.hmcts.reform.sendletter.services.pdf;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.StreamCacheCreateFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.apache.pdfbox.io.MemoryUsageSetting.setupMixed;
+import static org.apache.pdfbox.io.MemoryUsageSetting.setupTempFileOnly;
+
+/**
+ * Decides how much heap a PDF merge may use.
+ *
+ * <p>Each merge keeps at most {@code pdf.merge.max-main-memory-bytes} of its stream cache in memory and spills
+ * the rest to a scratch file. On top of that, all merges running at the same time share a budget of
+ * {@code pdf.merge.max-total-main-memory-bytes}. A merge which can not get its share within
+ * {@code pdf.merge.memory-wait-ms} runs entirely on scratch files, which is slower but can not exhaust the heap.
+ *
+ * <p>The budget only covers the stream cache of the merged document. The parsed source documents and the
+ * merged document written out to an array are held in heap on top of it.
+ */
+@Component
+public class MergeMemoryPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(MergeMemoryPolicy.class);
+
+    // the semaphore counts kilobytes so that budgets above 2 GB still fit in an int
+    private static final int PERMIT_BYTES = 1024;
+
+    private final long maxMainMemoryBytes;
+    private final long memoryWaitMs;
+    private final Path scratchDir;
+    private final int totalPermits;
+    private final Semaphore memory;
+
+    private final Counter spills;
+    private final Counter spilledBytes;
+    private final Counter throttled;
+
+    /**
+     * Constructor for the MergeMemoryPolicy.
+     * @param maxMainMemoryBytes The heap a single merge may use before spilling to a scratch file
+     * @param maxTotalMainMemoryBytes The heap all concurrent merges may use together
+     * @param memoryWaitMs How long a merge waits for its share of heap before running on scratch files only
+     * @param scratchDir The directory for scratch files, the JVM temp directory when empty
+     * @param meterRegistry The meter registry
+     */
+    @Autowired
+    public MergeMemoryPolicy(
+        @Value("${pdf.merge.max-main-memory-bytes:52428800}") long maxMainMemoryBytes,
+        @Value("${pdf.merge.max-total-main-memory-bytes:268435456}") long maxTotalMainMemoryBytes,
+        @Value("${pdf.merge.memory-wait-ms:10000}") long memoryWaitMs,
+        @Value("${pdf.merge.scratch-dir:}") String scratchDir,
+        MeterRegistry meterRegistry
+    ) {
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.memoryWaitMs = memoryWaitMs;
+        this.scratchDir = StringUtils.hasText(scratchDir)
+            ? Path.of(scratchDir)
+            : Path.of(System.getProperty("java.io.tmpdir"));
+        this.totalPermits = (int) Math.max(1, maxTotalMainMemoryBytes / PERMIT_BYTES);
+        this.memory = new Semaphore(totalPermits);
+
+        this.spills = meterRegistry.counter("pdf.merge.spills");
+        this.spilledBytes = Counter.builder("pdf.merge.spilled")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.throttled = meterRegistry.counter("pdf.merge.memory.throttled");
+        Gauge.builder("pdf.merge.memory.available", memory, sem -> (double) sem.availablePermits() * PERMIT_BYTES)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Policy with the default budgets.
+     * @param meterRegistry The meter registry
+     * @return the policy
+     */
+    public static MergeMemoryPolicy withDefaults(MeterRegistry meterRegistry) {
+        return new MergeMemoryPolicy(52_428_800L, 268_435_456L, 10_000L, "", meterRegistry);
+    }
+
+    /**
+     * Reserves heap for a merge. The merge keeps no more than the reserved heap in memory,
+     * so that merges running at the same time never use more than the total budget.
+     * @param estimatedBytes The expected size of the merged content
+     * @return the reservation, to be closed once the merged document is closed
+     */
+    public Lease acquire(long estimatedBytes) {
+        int permits = (int) Math.min(
+            totalPermits,
+            Math.max(1, Math.min(estimatedBytes, maxMainMemoryBytes) / PERMIT_BYTES)
+        );
+
+        boolean acquired;
+        try {
+            acquired = memory.tryAcquire(permits, memoryWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        Path mergeScratchDir = createScratchDir();
+        if (acquired) {
+            long reservedBytes = (long) permits * PERMIT_BYTES;
+            return new Lease(setupMixed(reservedBytes).setTempDir(mergeScratchDir.toFile()), mergeScratchDir,
+                permits);
+        }
+
+        log.warn("No heap available for merge of {} bytes within {} ms, using scratch files only",
+            estimatedBytes, memoryWaitMs);
+        throttled.increment();
+        return new Lease(setupTempFileOnly().setTempDir(mergeScratchDir.toFile()), mergeScratchDir, 0);
+    }
+
+    private Path createScratchDir() {
+        try {
+            Files.createDirectories(scratchDir);
+            return Files.createTempDirectory(scratchDir, "pdf-merge");
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Heap reserved for one merge, along with its scratch directory.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final MemoryUsageSetting memoryUsageSetting;
+        private final Path mergeScratchDir;
+        private final int permits;
+
+        private Lease(MemoryUsageSetting memoryUsageSetting, Path mergeScratchDir, int permits) {
+            this.memoryUsageSetting = memoryUsageSetting;
+            this.mergeScratchDir = mergeScratchDir;
+            this.permits = permits;
+        }
+
+        /**
+         * Heap the merge may use before spilling to a scratch file.
+         * @return the number of bytes, 0 when the merge runs on scratch files only
+         */
+        public long mainMemoryBytes() {
+            return memoryUsageSetting.useMainMemory() ? memoryUsageSetting.getMaxMainMemoryBytes() : 0;
+        }
+
+        /**
+         * Stream cache to create the merged document with.
+         * @return the stream cache function
+         */
+        public StreamCacheCreateFunction streamCache() {
+            return memoryUsageSetting.streamCache;
+        }
+
+        /**
+         * Records how much of the merge went to scratch files.
+         * Has to be called before the merged document is closed, as that removes its scratch file.
+         */
+        public void recordSpill() {
+            try (Stream<Path> files = Files.list(mergeScratchDir)) {
+                long bytes = files.mapToLong(file -> file.toFile().length()).sum();
+                if (bytes > 0) {
+                    spills.increment();
+                    spilledBytes.increment(bytes);
+                }
+            } catch (IOException exc) {
+                log.warn("Failed to measure merge scratch files in {}", mergeScratchDir, exc);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (permits > 0) {
+                memory.release(permits);
+            }
+            try {
+                FileSystemUtils.deleteRecursively(mergeScratchDir);
+            } catch (IOException exc) {
+                log.warn("Failed to delete merge scratch directory {}", mergeScratchDir, exc);
+            }
+        }
+    }
+}
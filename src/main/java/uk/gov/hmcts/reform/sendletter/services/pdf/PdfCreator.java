@@ -3,12 +3,16 @@ package uk.gov.hmcts.reform.sendletter.services.pdf;
 import org.apache.hc.core5.util.Asserts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static java.util.stream.Collectors.toList;
 
@@ -19,13 +23,29 @@ import static java.util.stream.Collectors.toList;
 public class PdfCreator {
     private static final Logger logger = LoggerFactory.getLogger(PdfCreator.class);
     private final DuplexPreparator duplexPreparator;
+    private final Executor preparationExecutor;
+    private final int maxParallelPerRequest;
+    private final MergeMemoryPolicy mergeMemoryPolicy;
 
     /**
      * Constructor for the PdfCreator.
      * @param duplexPreparator The duplex preparator
+     * @param preparationExecutor The executor shared by all requests for parsing documents in parallel
+     * @param maxParallelPerRequest The maximum number of documents of one request parsed at the same time,
+     *                              1 parses them one by one on the request thread
+     * @param mergeMemoryPolicy The memory policy for merging documents
      */
-    public PdfCreator(DuplexPreparator duplexPreparator) {
+    @Autowired
+    public PdfCreator(
+        DuplexPreparator duplexPreparator,
+        @Qualifier("PdfPreparationExecutor") Executor preparationExecutor,
+        @Value("${pdf.preparation.max-parallel-per-request:1}") int maxParallelPerRequest,
+        MergeMemoryPolicy mergeMemoryPolicy
+    ) {
         this.duplexPreparator = duplexPreparator;
+        this.preparationExecutor = preparationExecutor;
+        this.maxParallelPerRequest = maxParallelPerRequest;
+        this.mergeMemoryPolicy = mergeMemoryPolicy;
     }
 
     /**
@@ -34,15 +54,10 @@ public class PdfCreator {
      * @param loggingContext The logging context
      * @return The PDF
      */
-    public byte[] createFromBase64Pdfs(List<byte[]> base64decodedDocs, String loggingContext) {
-        Asserts.notNull(base64decodedDocs, "base64decodedDocs");
-
-        List<byte[]> docs = base64decodedDocs
-            .stream()
-            .map(pdf -> duplexPreparator.prepare(pdf, loggingContext))
-            .collect(toList());
-
-        return PdfMerger.mergeDocuments(docs, loggingContext);
+    public byte[] createFromBase64Pdfs(List<DocumentContent> base64decodedDocs, String loggingContext) {
+        try (PdfDocumentContext pdfs = loadPdfs(base64decodedDocs, loggingContext)) {
+            return create(pdfs, loggingContext);
+        }
     }
 
     /**
@@ -52,16 +67,63 @@ public class PdfCreator {
      * @return The PDF
      */
     public byte[] createFromBase64PdfWithCopies(List<Doc> docs, String loggingContext) {
+        try (PdfDocumentContext pdfs = loadPdfsWithCopies(docs, loggingContext)) {
+            return create(pdfs, loggingContext);
+        }
+    }
+
+    /**
+     * Parse a list of base64 decoded PDFs, one copy of each.
+     * @param base64decodedDocs The base64 decoded PDFs
+     * @param loggingContext The logging context
+     * @return The parsed documents, to be closed by the caller
+     */
+    public PdfDocumentContext loadPdfs(List<DocumentContent> base64decodedDocs, String loggingContext) {
+        Asserts.notNull(base64decodedDocs, "base64decodedDocs");
+
+        return PdfDocumentContext.load(
+            base64decodedDocs,
+            Collections.nCopies(base64decodedDocs.size(), 1),
+            loggingContext,
+            preparationExecutor,
+            maxParallelPerRequest
+        );
+    }
+
+    /**
+     * Parse a list of base64 decoded PDFs with copies.
+     * @param docs The documents
+     * @param loggingContext The logging context
+     * @return The parsed documents, to be closed by the caller
+     */
+    public PdfDocumentContext loadPdfsWithCopies(List<Doc> docs, String loggingContext) {
         Asserts.notNull(docs, "base64decodedDocs");
 
-        List<byte[]> pdfs = docs
-            .stream()
-            .peek(doc -> logger.info("Number of copies request {}", doc.copies))
-            .map(doc -> new Doc(duplexPreparator.prepare(doc.content, loggingContext), doc.copies))
-            .map(d -> Collections.nCopies(d.copies, d.content))
-            .flatMap(Collection::stream)
-            .collect(toList());
+        docs.forEach(doc -> logger.info("Number of copies request {}", doc.copies));
+
+        return PdfDocumentContext.load(
+            docs.stream().map(Doc::getContent).collect(toList()),
+            docs.stream().map(doc -> doc.copies).collect(toList()),
+            loggingContext,
+            preparationExecutor,
+            maxParallelPerRequest
+        );
+    }
+
+    /**
+     * Create a PDF from parsed documents.
+     * Each document is padded for duplex printing and the result merged, without parsing any of them again.
+     * @param pdfs The parsed documents
+     * @param loggingContext The logging context
+     * @return The PDF
+     */
+    public byte[] create(PdfDocumentContext pdfs, String loggingContext) {
+        for (PdfDocumentContext.ParsedDocument document : pdfs.getParsedDocuments()) {
+            if (duplexPreparator.prepare(document.document)) {
+                document.modified = true;
+            }
+        }
 
-        return PdfMerger.mergeDocuments(pdfs, loggingContext);
+        return PdfMerger.mergeDocuments(pdfs, loggingContext, mergeMemoryPolicy);
     }
 }
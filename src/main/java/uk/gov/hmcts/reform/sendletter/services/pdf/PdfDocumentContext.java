@@ -0,0 +1,190 @@
+package uk.gov.hmcts.reform.sendletter.services.pdf;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.hmcts.reform.sendletter.exception.DuplexException;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Documents of a single letter request, each parsed once.
+ *
+ * <p>Page content checksums, duplex padding and merging all work off the same {@link PDDocument},
+ * so a document is not parsed again for every step. The context holds parsed documents in memory
+ * and has to be closed once the letter has been merged. Documents spooled to a file are parsed from the file,
+ * which PDFBox reads from as it needs rather than loading the whole document.
+ */
+public final class PdfDocumentContext implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfDocumentContext.class);
+
+    private final List<ParsedDocument> documents;
+
+    private PdfDocumentContext(List<ParsedDocument> documents) {
+        this.documents = documents;
+    }
+
+    /**
+     * Parses the given documents.
+     *
+     * <p>Up to {@code fanOut} documents are parsed at the same time: the calling thread parses its share
+     * and the rest is handed to the executor. Each document keeps its position, whichever thread parsed it.
+     *
+     * @param pdfs           decoded PDF documents
+     * @param copies         number of copies to print of each document, in the same order
+     * @param loggingContext the logging context
+     * @param executor       executor for the documents not parsed by the calling thread
+     * @param fanOut         maximum number of documents parsed at the same time
+     * @return context holding the parsed documents
+     * @throws DuplexException if any of the documents is not a valid PDF
+     */
+    static PdfDocumentContext load(
+        List<DocumentContent> pdfs,
+        List<Integer> copies,
+        String loggingContext,
+        Executor executor,
+        int fanOut
+    ) {
+        ParsedDocument[] parsed = new ParsedDocument[pdfs.size()];
+        int tasks = Math.max(1, Math.min(fanOut, pdfs.size()));
+
+        List<CompletableFuture<Void>> forked = new ArrayList<>(tasks - 1);
+        for (int task = 1; task < tasks; task++) {
+            int first = task;
+            forked.add(CompletableFuture.runAsync(() -> parse(pdfs, copies, parsed, first, tasks), executor));
+        }
+
+        RuntimeException failure = null;
+        try {
+            parse(pdfs, copies, parsed, 0, tasks);
+        } catch (RuntimeException exc) {
+            failure = exc;
+        }
+        // wait for every task, even after a failure, so that no parsed document is left unclosed
+        for (CompletableFuture<Void> task : forked) {
+            try {
+                task.join();
+            } catch (CompletionException exc) {
+                if (failure == null) {
+                    failure = exc.getCause() instanceof RuntimeException cause ? cause : exc;
+                }
+            }
+        }
+
+        if (failure != null) {
+            closeAll(Arrays.stream(parsed).filter(Objects::nonNull).toList());
+            if (failure instanceof UncheckedIOException) {
+                String errorMessage = "Failed to parse the documents for " + loggingContext;
+                logger.error(errorMessage);
+                throw new DuplexException(errorMessage, failure.getCause());
+            }
+            throw failure;
+        }
+        return new PdfDocumentContext(Arrays.asList(parsed));
+    }
+
+    /**
+     * Parses every {@code step}-th document starting at {@code first}.
+     */
+    private static void parse(
+        List<DocumentContent> pdfs,
+        List<Integer> copies,
+        ParsedDocument[] parsed,
+        int first,
+        int step
+    ) {
+        for (int i = first; i < parsed.length; i += step) {
+            DocumentContent pdf = pdfs.get(i);
+            logger.debug("File size is {} KB", pdf.length() / 1024);
+            try {
+                parsed[i] = new ParsedDocument(pdf, loadPdf(pdf), copies.get(i));
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }
+    }
+
+    /**
+     * Parses a single document, from its file when it is spooled to one.
+     *
+     * @param pdf the decoded PDF document
+     * @return the parsed document, to be closed by the caller
+     * @throws IOException if the document is not a valid PDF or can not be read
+     */
+    public static PDDocument loadPdf(DocumentContent pdf) throws IOException {
+        return pdf.getFile() == null
+            ? Loader.loadPDF(pdf.toByteArray())
+            : Loader.loadPDF(pdf.getFile().toFile());
+    }
+
+    /**
+     * Number of distinct documents in the letter.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Parsed document at the given position.
+     *
+     * @param index position of the document in the request
+     * @return the parsed document
+     */
+    public PDDocument getDocument(int index) {
+        return documents.get(index).document;
+    }
+
+    /**
+     * Parsed documents with their content and copies, in request order.
+     *
+     * @return the documents
+     */
+    List<ParsedDocument> getParsedDocuments() {
+        return documents;
+    }
+
+    @Override
+    public void close() {
+        closeAll(documents);
+    }
+
+    private static void closeAll(List<ParsedDocument> documents) {
+        for (ParsedDocument document : documents) {
+            try {
+                document.document.close();
+            } catch (IOException exc) {
+                logger.warn("Failed to close parsed document", exc);
+            }
+        }
+    }
+
+    /**
+     * A parsed document together with the content it was parsed from.
+     */
+    static final class ParsedDocument {
+
+        final DocumentContent content;
+        final PDDocument document;
+        final int copies;
+        boolean modified;
+
+        private ParsedDocument(DocumentContent content, PDDocument document, int copies) {
+            this.content = content;
+            this.document = document;
+            this.copies = copies;
+        }
+    }
+}
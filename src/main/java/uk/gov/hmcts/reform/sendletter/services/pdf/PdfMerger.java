@@ -1,12 +1,18 @@
 package uk.gov.hmcts.reform.sendletter.services.pdf;
 
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
+import org.apache.pdfbox.pdmodel.PDPage;
 import uk.gov.hmcts.reform.sendletter.exception.PdfMergeException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -52,4 +58,106 @@ public final class PdfMerger {
             throw new PdfMergeException("Exception occurred while merging PDF files." + loggingContext, e);
         }
     }
+
+    /**
+     * Merges the parsed documents of a letter, each repeated for its number of copies.
+     * Documents are appended from their parsed form, so none of them is parsed again.
+     * Each document is imported once, further copies only add pages pointing at the imported content,
+     * so merge time and memory depend on the number of distinct documents rather than copies.
+     * A single, unmodified document is returned as it was received.
+     * The merged document is cached in memory up to the limits of the memory policy, and on scratch files beyond.
+     *
+     * @param documents      The parsed documents
+     * @param loggingContext The logging context
+     * @param memoryPolicy   The memory policy for the merged document
+     * @return The merged PDF document
+     */
+    public static byte[] mergeDocuments(
+        PdfDocumentContext documents,
+        String loggingContext,
+        MergeMemoryPolicy memoryPolicy
+    ) {
+        List<PdfDocumentContext.ParsedDocument> parsed = documents.getParsedDocuments();
+
+        try {
+            if (parsed.size() == 1 && parsed.get(0).copies == 1) {
+                PdfDocumentContext.ParsedDocument only = parsed.get(0);
+                return only.modified ? save(only.document) : only.content.toByteArray();
+            }
+
+            long estimatedBytes = parsed.stream().mapToLong(document -> document.content.length()).sum();
+            try (
+                MergeMemoryPolicy.Lease lease = memoryPolicy.acquire(estimatedBytes);
+                PDDocument destination = new PDDocument(lease.streamCache())
+            ) {
+                PDFMergerUtility pdfMergerUtility = new PDFMergerUtility();
+                for (PdfDocumentContext.ParsedDocument document : parsed) {
+                    appendCopies(pdfMergerUtility, destination, document);
+                }
+                byte[] merged = save(destination);
+                lease.recordSpill();
+                return merged;
+            }
+        } catch (IOException e) {
+            throw new PdfMergeException("Exception occurred while merging PDF files." + loggingContext, e);
+        }
+    }
+
+    /**
+     * Appends a document to the destination as many times as it has copies.
+     * The document is imported once. Copies are shallow clones of the imported page dictionaries,
+     * sharing their content streams and resources. Documents with annotations, forms or a structure tree
+     * are appended in full for every copy, as those objects refer back to a single page.
+     */
+    private static void appendCopies(
+        PDFMergerUtility pdfMergerUtility,
+        PDDocument destination,
+        PdfDocumentContext.ParsedDocument document
+    ) throws IOException {
+        if (document.copies < 1) {
+            return;
+        }
+        if (!canSharePages(document.document)) {
+            for (int copy = 0; copy < document.copies; copy++) {
+                pdfMergerUtility.appendDocument(destination, document.document);
+            }
+            return;
+        }
+
+        int firstPage = destination.getNumberOfPages();
+        pdfMergerUtility.appendDocument(destination, document.document);
+        int lastPage = destination.getNumberOfPages();
+
+        List<COSDictionary> imported = new ArrayList<>(lastPage - firstPage);
+        for (int page = firstPage; page < lastPage; page++) {
+            imported.add(destination.getPage(page).getCOSObject());
+        }
+        for (int copy = 1; copy < document.copies; copy++) {
+            for (COSDictionary page : imported) {
+                COSDictionary pageCopy = new COSDictionary(page);
+                pageCopy.removeItem(COSName.PARENT);
+                destination.addPage(new PDPage(pageCopy));
+            }
+        }
+    }
+
+    private static boolean canSharePages(PDDocument document) {
+        PDDocumentCatalog catalog = document.getDocumentCatalog();
+        if (catalog.getCOSObject().containsKey(COSName.ACRO_FORM)
+            || catalog.getCOSObject().containsKey(COSName.STRUCT_TREE_ROOT)) {
+            return false;
+        }
+        for (PDPage page : document.getPages()) {
+            if (page.getCOSObject().containsKey(COSName.ANNOTS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] save(PDDocument document) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        document.save(out);
+        return out.toByteArray();
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.applicationinsights.core.dependencies.apachecommons.io.FilenameUtils;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterUploadInfo;
 import uk.gov.hmcts.reform.sendletter.exception.UnableToExtractIdFromFileNameException;
 
 import java.time.LocalDateTime;
@@ -86,6 +87,23 @@ public final class FileNameHelper {
         );
     }
 
+    /**
+     * Generates a file name for a given letter to upload.
+     *
+     * @param letter The letter
+     * @return The file name
+     */
+    public static String generateName(LetterUploadInfo letter) {
+        return generateName(
+            letter.type(),
+            letter.service(),
+            letter.createdAt(),
+            letter.id(),
+            letter.isEncrypted(),
+            objectMapper.convertValue(letter.additionalData(), new TypeReference<>(){})
+        );
+    }
+
     /**
      * Generates a file name for a given letter.
      *
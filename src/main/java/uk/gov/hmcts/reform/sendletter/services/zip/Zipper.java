@@ -1,11 +1,13 @@
 package uk.gov.hmcts.reform.sendletter.services.zip;
 
 import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
 import uk.gov.hmcts.reform.sendletter.exception.DocumentZipException;
 import uk.gov.hmcts.reform.sendletter.model.PdfDoc;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -16,27 +18,24 @@ import java.util.zip.ZipOutputStream;
 public class Zipper {
 
     /**
-     * Zips a PDF document.
+     * Writes a single zip entry for the PDF document to the given stream.
+     * The stream is left open so that it can be part of a longer pipeline.
      *
      * @param filename The filename
      * @param input    The PDF document
-     * @return The zipped PDF document
+     * @param out      The stream to write the zip to
      * @throws IOException If an error occurs while zipping the PDF document
      */
-    private byte[] zipBytes(String filename, byte[] input) throws IOException {
+    private void zipBytes(String filename, byte[] input, OutputStream out) throws IOException {
 
         ZipEntry entry = new ZipEntry(filename);
         entry.setSize(input.length);
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+        try (ZipOutputStream zos = new ZipOutputStream(StreamUtils.nonClosing(out))) {
             zos.putNextEntry(entry);
             zos.write(input);
             zos.closeEntry();
         }
-
-        return baos.toByteArray();
     }
 
     /**
@@ -46,8 +45,21 @@ public class Zipper {
      * @return The zipped PDF document
      */
     public byte[] zip(PdfDoc pdfDoc) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(pdfDoc.content.length);
+        zip(pdfDoc, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Zips a PDF document straight into the given stream, without buffering the zip in memory.
+     * The stream is not closed.
+     *
+     * @param pdfDoc The PDF document
+     * @param out    The stream to write the zip to
+     */
+    public void zip(PdfDoc pdfDoc, OutputStream out) {
         try {
-            return zipBytes(pdfDoc.filename, pdfDoc.content);
+            zipBytes(pdfDoc.filename, pdfDoc.content, out);
         } catch (IOException exception) {
             throw new DocumentZipException(exception);
         }
@@ -8,6 +8,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
 import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
 
 import java.time.Clock;
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 import static uk.gov.hmcts.reform.sendletter.util.TimeZones.EUROPE_LONDON;
 
 /**
- * Clears the 'fileContent' of old letters that have not been posted.
+ * Clears the 'fileContent' of old letters that have not been posted, deleting it from the content store too.
  * To be used on AAT only.
  */
 @Component
@@ -28,21 +29,25 @@ public class ClearOldLetterContentTask {
     private static final Logger logger = LoggerFactory.getLogger(ClearOldLetterContentTask.class);
 
     private final LetterDataAccessService letterService;
+    private final LetterContentStore contentStore;
     private final Duration ttl;
     private final Clock clock;
 
     /**
      * Constructor for the ClearOldLetterContentTask.
      * @param letterService The service for letter data access
+     * @param contentStore The store of letter file content
      * @param ttl The time to live
      * @param clock The clock
      */
     public ClearOldLetterContentTask(
         LetterDataAccessService letterService,
+        LetterContentStore contentStore,
         @Value("${old-letter-content-cleanup.ttl}") Duration ttl,
         Clock clock
     ) {
         this.letterService = letterService;
+        this.contentStore = contentStore;
         this.ttl = ttl;
         this.clock = clock;
     }
@@ -57,6 +62,7 @@ public class ClearOldLetterContentTask {
 
         logger.info("Starting {} task. Cutoff: {}", TASK_NAME, cutoff);
         int count = letterService.clearFileContent(cutoff, LetterStatus.Uploaded);
-        logger.info("Completed {} task. Cleared content of {} letters.", TASK_NAME, count);
+        int deleted = contentStore.deleteUnreferenced();
+        logger.info("Completed {} task. Cleared content of {} letters, deleted {} files.", TASK_NAME, count, deleted);
     }
 }
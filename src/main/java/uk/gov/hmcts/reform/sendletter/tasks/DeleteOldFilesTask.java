@@ -73,7 +73,7 @@ public class DeleteOldFilesTask {
             .getFolders()
             .forEach(folder -> {
                 try {
-                    // new connection per folder
+                    // session per folder, reused from the SFTP session pool
                     ftp.runWith(sftpClient -> {
                         List<FileInfo> filesToDelete =
                             ftp.listLetters(folder, sftpClient)
@@ -0,0 +1,44 @@
+package uk.gov.hmcts.reform.sendletter.tasks;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
+
+import static uk.gov.hmcts.reform.sendletter.util.TimeZones.EUROPE_LONDON;
+
+/**
+ * Deletes letter file content kept outside the database once no letter references it,
+ * i.e. after letters were posted or their content was cleared.
+ */
+@Component
+@ConditionalOnProperty(name = "letter-content.store", havingValue = "filesystem")
+public class DeleteUnreferencedLetterContentTask {
+
+    private static final String TASK_NAME = "DeleteUnreferencedLetterContent";
+    private static final Logger logger = LoggerFactory.getLogger(DeleteUnreferencedLetterContentTask.class);
+
+    private final LetterContentStore contentStore;
+
+    /**
+     * Constructor for the DeleteUnreferencedLetterContentTask.
+     * @param contentStore The store of letter file content
+     */
+    public DeleteUnreferencedLetterContentTask(LetterContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    /**
+     * Run the task to delete unreferenced letter file content.
+     */
+    @SchedulerLock(name = TASK_NAME)
+    @Scheduled(cron = "${letter-content.filesystem.cleanup-cron}", zone = EUROPE_LONDON)
+    public void run() {
+        logger.info("Starting {} task", TASK_NAME);
+        int count = contentStore.deleteUnreferenced();
+        logger.info("Completed {} task. Deleted {} files.", TASK_NAME, count);
+    }
+}
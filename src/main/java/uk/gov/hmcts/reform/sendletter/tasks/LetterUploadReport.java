@@ -0,0 +1,109 @@
+package uk.gov.hmcts.reform.sendletter.tasks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outcome of one run of the upload task, collected from all of its SFTP sessions.
+ */
+public final class LetterUploadReport {
+
+    /**
+     * What happened to a letter picked for upload.
+     */
+    public enum Outcome {
+        UPLOADED,
+        SKIPPED,
+        FAILED
+    }
+
+    private final int claimed;
+    private final int sessions;
+    private final long startedAt = System.nanoTime();
+    private final Map<UUID, Outcome> outcomes = new ConcurrentHashMap<>();
+    private volatile Duration duration;
+
+    /**
+     * Constructor for the LetterUploadReport.
+     * @param claimed The number of letters claimed for upload
+     * @param sessions The number of SFTP sessions uploading letters
+     */
+    public LetterUploadReport(int claimed, int sessions) {
+        this.claimed = claimed;
+        this.sessions = sessions;
+    }
+
+    void record(UUID letterId, Outcome outcome) {
+        outcomes.put(letterId, outcome);
+    }
+
+    LetterUploadReport finish() {
+        duration = Duration.ofNanos(System.nanoTime() - startedAt);
+        return this;
+    }
+
+    /**
+     * Outcome of each letter picked for upload. Letters left over after a session failed are not included.
+     * @return the outcomes by letter id
+     */
+    public Map<UUID, Outcome> getOutcomes() {
+        return Map.copyOf(outcomes);
+    }
+
+    public int getClaimed() {
+        return claimed;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public int getUploaded() {
+        return count(Outcome.UPLOADED);
+    }
+
+    public int getSkipped() {
+        return count(Outcome.SKIPPED);
+    }
+
+    public int getFailed() {
+        return count(Outcome.FAILED);
+    }
+
+    /**
+     * Time from the start of the run until all sessions finished.
+     * @return the duration, or the time elapsed so far while the run is in progress
+     */
+    public Duration getDuration() {
+        return duration != null ? duration : Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Upload throughput of the run.
+     * @return the number of letters uploaded per minute
+     */
+    public double getLettersPerMinute() {
+        long millis = Math.max(1, getDuration().toMillis());
+        return getUploaded() * 60_000d / millis;
+    }
+
+    private int count(Outcome outcome) {
+        return (int) outcomes.values().stream().filter(outcome::equals).count();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Uploaded %d, skipped %d, failed %d of %d letters over %d sessions in %d ms (%.1f letters/minute)",
+            getUploaded(),
+            getSkipped(),
+            getFailed(),
+            claimed,
+            sessions,
+            getDuration().toMillis(),
+            getLettersPerMinute()
+        );
+    }
+}
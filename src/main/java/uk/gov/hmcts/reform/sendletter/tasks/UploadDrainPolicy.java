@@ -0,0 +1,174 @@
+package uk.gov.hmcts.reform.sendletter.tasks;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decides how long the upload task keeps draining the Created backlog, and how long it waits after stopping.
+ * A run keeps uploading batches while full batches are claimed, the upload rate holds up and the drain time
+ * is not used up. Runs are skipped for a growing back-off after the backlog was empty, a batch had failures
+ * or the upload rate dropped, and the back-off resets once a batch uploads cleanly.
+ */
+@Component
+public class UploadDrainPolicy {
+
+    private final Duration maxDrainDuration;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final double minRateRatio;
+    private final Clock clock;
+
+    private int backoffs;
+    private volatile Instant nextRunAt = Instant.MIN;
+    private volatile Duration backoff = Duration.ZERO;
+    private volatile double drainRate;
+    private volatile int backlog;
+
+    /**
+     * Constructor for the UploadDrainPolicy.
+     * @param maxDrainDuration The longest a run keeps uploading batches
+     * @param minBackoff The first back-off, grows twofold with every back-off in a row
+     * @param maxBackoff The longest back-off
+     * @param minRateRatio The fraction of the best upload rate in the run below which the run stops
+     * @param clock The clock
+     * @param meterRegistry The registry for the drain rate, backlog and back-off metrics
+     */
+    @Autowired
+    public UploadDrainPolicy(
+        @Value("${tasks.upload-letters.max-drain-duration:PT5M}") Duration maxDrainDuration,
+        @Value("${tasks.upload-letters.min-backoff:PT30S}") Duration minBackoff,
+        @Value("${tasks.upload-letters.max-backoff:PT2M}") Duration maxBackoff,
+        @Value("${tasks.upload-letters.min-rate-ratio:0.5}") double minRateRatio,
+        Clock clock,
+        MeterRegistry meterRegistry
+    ) {
+        this.maxDrainDuration = maxDrainDuration;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.minRateRatio = minRateRatio;
+        this.clock = clock;
+
+        Gauge.builder("letters.upload.drain.rate", this, policy -> policy.drainRate)
+            .description("Letters uploaded per minute by the last batch")
+            .register(meterRegistry);
+        Gauge.builder("letters.upload.backlog", this, policy -> policy.backlog)
+            .description("Created letters waiting for upload when last counted")
+            .register(meterRegistry);
+        Gauge.builder("letters.upload.backoff", this, policy -> policy.backoff.toMillis() / 1000d)
+            .description("Seconds runs are skipped for after the last back-off")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Policy of uploading one batch per run and never backing off.
+     * @return the policy
+     */
+    public static UploadDrainPolicy singleBatch() {
+        return new UploadDrainPolicy(
+            Duration.ZERO,
+            Duration.ZERO,
+            Duration.ZERO,
+            0,
+            Clock.systemDefaultZone(),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    /**
+     * Checks the back-off.
+     * @return true if a run may start now
+     */
+    public boolean mayRun() {
+        return !clock.instant().isBefore(nextRunAt);
+    }
+
+    /**
+     * Starts draining.
+     * @return the drain of this run
+     */
+    public Drain startDrain() {
+        return new Drain(clock.instant().plus(maxDrainDuration));
+    }
+
+    /**
+     * Backs off after the backlog was found empty or uploading failed.
+     */
+    public synchronized void backOff() {
+        Duration next = minBackoff.multipliedBy(1L << Math.min(backoffs, 20));
+        backoff = next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+        backoffs++;
+        nextRunAt = clock.instant().plus(backoff);
+    }
+
+    /**
+     * Records the number of Created letters.
+     * @param count the number of Created letters
+     */
+    public void recordBacklog(int count) {
+        this.backlog = count;
+    }
+
+    public Duration getBackoff() {
+        return backoff;
+    }
+
+    public double getDrainRate() {
+        return drainRate;
+    }
+
+    private synchronized void resetBackoff() {
+        backoffs = 0;
+        backoff = Duration.ZERO;
+        nextRunAt = Instant.MIN;
+    }
+
+    /**
+     * Draining state of one run.
+     */
+    public final class Drain {
+
+        private final Instant deadline;
+        private double bestRate;
+        private int batches;
+
+        private Drain(Instant deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Records a batch and decides whether to upload another one, backing off if the batch went badly.
+         * @param report the outcome of the batch
+         * @param batchSize the number of letters a batch claims
+         * @return true to upload another batch
+         */
+        public boolean shouldContinue(LetterUploadReport report, int batchSize) {
+            batches++;
+            double rate = report.getLettersPerMinute();
+            drainRate = rate;
+
+            if (report.getFailed() > 0 || rate < bestRate * minRateRatio) {
+                backOff();
+                return false;
+            }
+            resetBackoff();
+            bestRate = Math.max(bestRate, rate);
+
+            // a batch that is not full means the rest of the backlog is too recent or claimed elsewhere
+            return report.getClaimed() >= batchSize
+                && clock.instant().plus(report.getDuration()).isBefore(deadline);
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+    }
+}
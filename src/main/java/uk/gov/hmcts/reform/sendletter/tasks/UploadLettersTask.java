@@ -1,17 +1,22 @@
 package uk.gov.hmcts.reform.sendletter.tasks;
 
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import net.schmizz.sshj.sftp.SFTPClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import uk.gov.hmcts.reform.sendletter.entity.Letter;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
-import uk.gov.hmcts.reform.sendletter.services.LetterEventService;
+import uk.gov.hmcts.reform.sendletter.entity.LetterUploadInfo;
+import uk.gov.hmcts.reform.sendletter.exception.FtpException;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadClaimService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadResults;
+import uk.gov.hmcts.reform.sendletter.services.RecentLetterChecksums;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FileToSend;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpClient;
 import uk.gov.hmcts.reform.sendletter.services.ftp.IFtpAvailabilityChecker;
@@ -19,16 +24,28 @@ import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 import uk.gov.hmcts.reform.sendletter.services.util.FileNameHelper;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.time.LocalDateTime.now;
 import static uk.gov.hmcts.reform.sendletter.util.TimeZones.EUROPE_LONDON;
 
 /**
  * Task to upload letters to SFTP.
+ * Runs on every instance, each uploading the batches of letters it has claimed for as long as
+ * the {@link UploadDrainPolicy} lets it drain the backlog.
  */
 @Component
 @ConditionalOnProperty(value = "scheduling.enabled", matchIfMissing = true)
@@ -36,145 +53,369 @@ public class UploadLettersTask {
 
     private static final Logger logger = LoggerFactory.getLogger(UploadLettersTask.class);
     public static final int BATCH_SIZE = 10;
+    public static final int RESULTS_FLUSH_SIZE = 5;
     public static final String SMOKE_TEST_LETTER_TYPE = "smoke_test";
     private static final String TASK_NAME = "UploadLetters";
     public static final String INTERNATIONAL_FOLDER = "/International";
 
     private final LetterRepository repo;
+    private final LetterUploadClaimService claimService;
+    private final LetterContentStore contentStore;
     private final FtpClient ftp;
     private final IFtpAvailabilityChecker availabilityChecker;
-    private final LetterEventService letterEventService;
+    private final LetterDataAccessService dataAccessService;
     private final ServiceFolderMapping serviceFolderMapping;
+    private final RecentLetterChecksums recentLetterChecksums;
+    private final UploadDrainPolicy drainPolicy;
     private final int dbPollDelay;
+    private final int batchSize;
+    private final int sessions;
+    private final int resultsFlushSize;
+
+    /**
+     * Constructor for the UploadLettersTask uploading one batch of letters per run over a single SFTP session.
+     * @param repo The letter repository
+     * @param claimService The service claiming letters for upload
+     * @param contentStore The store of letter file content
+     * @param ftp The FTP client
+     * @param availabilityChecker The FTP availability checker
+     * @param dataAccessService The service saving upload results
+     * @param serviceFolderMapping The service folder mapping
+     * @param recentLetterChecksums The checksums of letters recently saved by this instance
+     * @param dbPollDelay The database poll delay
+     */
+    public UploadLettersTask(
+        LetterRepository repo,
+        LetterUploadClaimService claimService,
+        LetterContentStore contentStore,
+        FtpClient ftp,
+        IFtpAvailabilityChecker availabilityChecker,
+        LetterDataAccessService dataAccessService,
+        ServiceFolderMapping serviceFolderMapping,
+        RecentLetterChecksums recentLetterChecksums,
+        int dbPollDelay
+    ) {
+        this(
+            repo,
+            claimService,
+            contentStore,
+            ftp,
+            availabilityChecker,
+            dataAccessService,
+            serviceFolderMapping,
+            recentLetterChecksums,
+            UploadDrainPolicy.singleBatch(),
+            dbPollDelay,
+            BATCH_SIZE,
+            1,
+            RESULTS_FLUSH_SIZE
+        );
+    }
 
     /**
      * Constructor for the UploadLettersTask.
      * @param repo The letter repository
+     * @param claimService The service claiming letters for upload
+     * @param contentStore The store of letter file content
      * @param ftp The FTP client
      * @param availabilityChecker The FTP availability checker
-     * @param letterEventService The service for letter event
+     * @param dataAccessService The service saving upload results
      * @param serviceFolderMapping The service folder mapping
+     * @param recentLetterChecksums The checksums of letters recently saved by this instance
+     * @param drainPolicy Decides how long to keep uploading batches and how long to back off
      * @param dbPollDelay The database poll delay
+     * @param batchSize The maximum number of letters claimed per batch
+     * @param sessions The maximum number of SFTP sessions uploading letters at the same time
+     * @param resultsFlushSize The number of letters a session handles before saving their status
      */
+    @Autowired
     public UploadLettersTask(
         LetterRepository repo,
+        LetterUploadClaimService claimService,
+        LetterContentStore contentStore,
         FtpClient ftp,
         IFtpAvailabilityChecker availabilityChecker,
-        LetterEventService letterEventService,
+        LetterDataAccessService dataAccessService,
         ServiceFolderMapping serviceFolderMapping,
-        @Value("${tasks.upload-letters.db-poll-delay}") int dbPollDelay
+        RecentLetterChecksums recentLetterChecksums,
+        UploadDrainPolicy drainPolicy,
+        @Value("${tasks.upload-letters.db-poll-delay}") int dbPollDelay,
+        @Value("${tasks.upload-letters.batch-size:10}") int batchSize,
+        @Value("${tasks.upload-letters.sessions:1}") int sessions,
+        @Value("${tasks.upload-letters.results-flush-size:5}") int resultsFlushSize
     ) {
+        if (batchSize < 1 || sessions < 1 || resultsFlushSize < 1) {
+            throw new IllegalArgumentException("Upload batch size, sessions and results flush size must be positive");
+        }
         this.repo = repo;
+        this.claimService = claimService;
+        this.contentStore = contentStore;
         this.ftp = ftp;
         this.availabilityChecker = availabilityChecker;
-        this.letterEventService = letterEventService;
+        this.dataAccessService = dataAccessService;
         this.serviceFolderMapping = serviceFolderMapping;
+        this.recentLetterChecksums = recentLetterChecksums;
+        this.drainPolicy = drainPolicy;
         this.dbPollDelay = dbPollDelay;
+        this.batchSize = batchSize;
+        this.sessions = sessions;
+        this.resultsFlushSize = resultsFlushSize;
     }
 
     /**
      * Run the task to upload letters to SFTP.
      */
-    @SchedulerLock(name = TASK_NAME)
     @Scheduled(fixedDelayString = "${tasks.upload-letters.interval-ms}")
     public void run() {
         logger.debug("Started '{}' task with db-poll-delay of {} ", TASK_NAME, dbPollDelay);
-        if (!availabilityChecker.isFtpAvailable(now(ZoneId.of(EUROPE_LONDON)).toLocalTime())) {
+        if (!drainPolicy.mayRun()) {
+            logger.debug("Not processing '{}' task, backing off for {}", TASK_NAME, drainPolicy.getBackoff());
+        } else if (!isFtpAvailableAfter(Duration.ZERO)) {
             logger.info("Not processing '{}' task due to FTP downtime window", TASK_NAME);
         } else {
-            if (repo.countByStatus(LetterStatus.Created) > 0) {
-                int uploadCount = processLetters();
-                logger.debug("Completed '{}' task. Uploaded {} letters", TASK_NAME, uploadCount);
+            if (hasBacklog()) {
+                drain();
             } else {
+                drainPolicy.backOff();
                 logger.debug("Completed '{}' task. No letters to upload.", TASK_NAME);
             }
         }
     }
 
     /**
-     * Process letters to upload.
-     * @return The number of letters uploaded
+     * Uploads batches until the drain policy stops, the backlog is empty, or the next batch
+     * would run into the FTP downtime window.
+     */
+    private void drain() {
+        UploadDrainPolicy.Drain drain = drainPolicy.startDrain();
+        LetterUploadReport report;
+        do {
+            try {
+                report = uploadLetters();
+            } catch (RuntimeException e) {
+                drainPolicy.backOff();
+                throw e;
+            }
+        } while (drain.shouldContinue(report, batchSize)
+            && isFtpAvailableAfter(report.getDuration())
+            && hasBacklog());
+
+        if (drain.getBatches() > 1) {
+            logger.info(
+                "Drained {} batches in '{}' task, last at {} letters/minute",
+                drain.getBatches(),
+                TASK_NAME,
+                String.format("%.1f", drainPolicy.getDrainRate())
+            );
+        }
+    }
+
+    /**
+     * Counts the Created letters.
+     * @return true if there are letters to upload
      */
-    private int processLetters() {
-        return ftp.runWith(client -> {
-            int uploadCount = 0;
-            for (int i = 0; i < BATCH_SIZE; i++) {
-                Optional<Letter> letterOpt
-                        = repo.findFirstLetterCreated(LocalDateTime.now().minusMinutes(dbPollDelay));
+    private boolean hasBacklog() {
+        int backlog = repo.countByStatus(LetterStatus.Created);
+        drainPolicy.recordBacklog(backlog);
+        return backlog > 0;
+    }
+
+    /**
+     * Checks the FTP downtime window.
+     * @param duration How far ahead to check
+     * @return true if the FTP server is still available after the given time
+     */
+    private boolean isFtpAvailableAfter(Duration duration) {
+        return availabilityChecker.isFtpAvailable(now(ZoneId.of(EUROPE_LONDON)).toLocalTime().plus(duration));
+    }
+
+    /**
+     * Claims and uploads a batch of the oldest Created letters. The batch is shared by up to the configured number
+     * of SFTP sessions, each taking the next letter as soon as it has uploaded the previous one.
+     * A session stops at the first letter it fails to upload, the other sessions carry on.
+     * Letters left over are released for the next run on any instance.
+     * @return The outcome of the run
+     * @throws FtpException If a session failed to connect or broke, after all sessions finished
+     */
+    public LetterUploadReport uploadLetters() {
+        Queue<UUID> letterIds = new ConcurrentLinkedQueue<>(
+            claimService.claim(LocalDateTime.now().minusMinutes(dbPollDelay), batchSize)
+        );
+        LetterUploadReport report = new LetterUploadReport(
+            letterIds.size(),
+            Math.max(1, Math.min(sessions, letterIds.size()))
+        );
+
+        try {
+            if (report.getSessions() == 1) {
+                ftp.runWith(client -> uploadLetters(letterIds, client, report));
+            } else {
+                runSessions(letterIds, report);
+            }
+        } finally {
+            claimService.release(List.copyOf(letterIds));
+            logger.info("Completed '{}' task. {}", TASK_NAME, report.finish());
+        }
+        return report;
+    }
+
+    /**
+     * Runs the sessions on virtual threads and waits for all of them.
+     * @param letterIds The letters left to upload
+     * @param report The report to record outcomes in
+     */
+    private void runSessions(Queue<UUID> letterIds, LetterUploadReport report) {
+        List<CompletableFuture<Integer>> runs = new ArrayList<>(report.getSessions());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < report.getSessions(); i++) {
+                runs.add(CompletableFuture.supplyAsync(
+                    () -> ftp.runWith(client -> uploadLetters(letterIds, client, report)),
+                    executor
+                ));
+            }
+        }
+
+        RuntimeException failure = null;
+        for (CompletableFuture<Integer> run : runs) {
+            try {
+                run.join();
+            } catch (CompletionException exc) {
+                RuntimeException cause = exc.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : exc;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Uploads letters over one SFTP session until none are left or one fails.
+     * The status of the letters is saved every {@code resultsFlushSize} letters and when the session is done,
+     * so that a crash or an expired lease only puts the letters handled since the last save up for upload again.
+     * @param letterIds The letters left to upload
+     * @param client The SFTP client of the session
+     * @param report The report to record outcomes in
+     * @return The number of letters uploaded by the session
+     */
+    private int uploadLetters(Queue<UUID> letterIds, SFTPClient client, LetterUploadReport report) {
+        LetterUploadResults results = new LetterUploadResults();
+        int uploaded = 0;
+        boolean sessionFailed = true;
+        try {
+            UUID letterId;
+            while ((letterId = letterIds.poll()) != null) {
+                Optional<LetterUploadInfo> letterOpt = repo.findLetterToUpload(letterId);
 
                 if (letterOpt.isPresent()) {
-                    Letter letter = letterOpt.get();
+                    LetterUploadInfo letter = letterOpt.get();
                     logger.info("letterOpt, id: {}, service: {}, type: {}, additionalData: {}, createdAt: {}",
-                        letter.getId(),
-                        letter.getService(),
-                        letter.getType(),
-                        letter.getAdditionalData(),
-                        letter.getCreatedAt()
+                        letter.id(),
+                        letter.service(),
+                        letter.type(),
+                        letter.additionalData(),
+                        letter.createdAt()
                     );
                     try {
-                        boolean uploaded = processLetter(letter, client);
-                        if (uploaded) {
-                            uploadCount++;
+                        if (processLetter(letter, client, results)) {
+                            report.record(letterId, LetterUploadReport.Outcome.UPLOADED);
+                        } else {
+                            report.record(letterId, LetterUploadReport.Outcome.SKIPPED);
                         }
                     } catch (Exception ex) {
-                        if (!(ex.getCause() instanceof IOException)) {
-                            logger.info("Error uploading letter {}", letter.getId(), ex);
-                            letterEventService.failLetterUpload(letter, ex);
+                        report.record(letterId, LetterUploadReport.Outcome.FAILED);
+                        if (ex.getCause() instanceof IOException) {
+                            // letter stays Created, retried on the next run
+                            claimService.release(List.of(letterId));
+                        } else {
+                            logger.error("Error uploading letter {}", letter.id(), ex);
+                            results.failed(letter.id(), ex.getMessage());
                         }
                         break;
                     }
-                } else {
-                    break;
+                    if (results.size() >= resultsFlushSize) {
+                        dataAccessService.saveUploadResults(results);
+                        uploaded += results.getUploaded().size();
+                        results = new LetterUploadResults();
+                    }
                 }
             }
+            sessionFailed = false;
+        } finally {
+            if (sessionFailed) {
+                // letters uploaded before the session failed are saved too
+                saveUploadResultsOfFailedSession(results);
+            }
+        }
+        dataAccessService.saveUploadResults(results);
+
+        return uploaded + results.getUploaded().size();
+    }
 
-            return uploadCount;
-        });
+    /**
+     * Saves the status of letters handled by a session that failed.
+     * A failure to save is only logged, so that it does not hide the failure of the session.
+     * @param results The results of the session
+     */
+    private void saveUploadResultsOfFailedSession(LetterUploadResults results) {
+        try {
+            dataAccessService.saveUploadResults(results);
+        } catch (RuntimeException exc) {
+            logger.error("Unable to save the status of letters handled by a failed SFTP session", exc);
+        }
     }
 
     /**
      * Process a letter to upload.
      * @param letter The letter to upload
      * @param sftpClient The SFTP client
+     * @param results The results to record the new status of the letter in
      * @return True if the letter was uploaded, otherwise false
      */
-    private boolean processLetter(Letter letter, SFTPClient sftpClient) {
+    private boolean processLetter(LetterUploadInfo letter, SFTPClient sftpClient, LetterUploadResults results) {
 
-        Optional<String> serviceFolder = serviceFolderMapping.getFolderFor(letter.getService());
+        Optional<String> serviceFolder = serviceFolderMapping.getFolderFor(letter.service());
 
         if (serviceFolder.isPresent()) {
             String grabbedServiceFolder = serviceFolder.get();
-            if (letter.getAdditionalData() != null
-                && letter.getAdditionalData().has("isInternational")
-                && letter.getAdditionalData().get("isInternational").asBoolean()) {
+            if (letter.additionalData() != null
+                && letter.additionalData().has("isInternational")
+                && letter.additionalData().get("isInternational").asBoolean()) {
                 grabbedServiceFolder = serviceFolder.get() + INTERNATIONAL_FOLDER;
             }
             uploadLetter(letter, grabbedServiceFolder, sftpClient);
-            letter.setStatus(LetterStatus.Uploaded);
-            letter.setSentToPrintAt(now());
-            repo.saveAndFlush(letter);
+            results.uploaded(letter.id(), now());
+            recentLetterChecksums.removeLetter(letter.id());
             return true;
 
         } else {
-            logger.error("Folder for service {} not found. Skipping letter {}", letter.getService(), letter.getId());
+            logger.error("Folder for service {} not found. Skipping letter {}", letter.service(), letter.id());
 
-            letter.setStatus(LetterStatus.Skipped);
-            repo.saveAndFlush(letter);
+            results.skipped(letter.id());
+            recentLetterChecksums.removeLetter(letter.id());
 
             return false;
         }
     }
 
     /**
-     * Upload a letter to SFTP.
+     * Upload a letter to SFTP, streaming its content from the content store.
      * @param letter The letter to upload
      * @param folder The folder to upload to
      * @param sftpClient The SFTP client
      */
-    private void uploadLetter(Letter letter, String folder, SFTPClient sftpClient) {
+    private void uploadLetter(LetterUploadInfo letter, String folder, SFTPClient sftpClient) {
+        long length = contentStore.getContentLength(letter.id());
         FileToSend file = new FileToSend(
             FileNameHelper.generateName(letter),
-            letter.getFileContent(),
+            length,
+            () -> contentStore.openContent(letter.id(), length),
             isSmokeTest(letter)
         );
 
@@ -183,11 +424,11 @@ public class UploadLettersTask {
         logger.info(
             String.format(
                 "Uploaded letter id: %s, checksum: %s, file name: %s, folder: %s, additional data: %s",
-                letter.getId(),
-                letter.getChecksum(),
+                letter.id(),
+                letter.checksum(),
                 file.filename,
                 folder,
-                letter.getAdditionalData()
+                letter.additionalData()
 
             )
         );
@@ -198,7 +439,7 @@ public class UploadLettersTask {
      * @param letter The letter to check
      * @return True if the letter is a smoke test, otherwise false
      */
-    private boolean isSmokeTest(Letter letter) {
-        return Objects.equals(letter.getType(), SMOKE_TEST_LETTER_TYPE);
+    private boolean isSmokeTest(LetterUploadInfo letter) {
+        return Objects.equals(letter.type(), SMOKE_TEST_LETTER_TYPE);
     }
 }
@@ -0,0 +1,5 @@
+-- Lets each upload worker claim a batch of Created letters for a limited time.
+-- A letter whose lease has expired can be claimed again by any worker.
+ALTER TABLE letters
+  ADD COLUMN upload_claimed_by VARCHAR(256),
+  ADD COLUMN upload_lease_expires_at TIMESTAMP;
@@ -0,0 +1,4 @@
+-- Letter files are zipped or encrypted already, so compressing them gains nothing.
+-- Stored uncompressed out of line, a slice of the content can be read without detoasting all of it.
+-- Only applies to values written from now on, existing rows are left as they are.
+ALTER TABLE letters ALTER COLUMN file_content SET STORAGE EXTERNAL;
@@ -0,0 +1,8 @@
+-- File content of letters, kept off the letters table so that reading a letter doesn't read its file.
+-- Files are zipped or encrypted already, so they are stored uncompressed out of line (as in V035).
+CREATE TABLE letter_content (
+  letter_id    UUID PRIMARY KEY REFERENCES letters (id) ON DELETE CASCADE,
+  file_content BYTEA NOT NULL
+);
+
+ALTER TABLE letter_content ALTER COLUMN file_content SET STORAGE EXTERNAL;
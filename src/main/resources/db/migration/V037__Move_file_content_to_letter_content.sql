@@ -0,0 +1,26 @@
+-- Copies file content from letters to letter_content in batches, committing after each one,
+-- so rows are only locked briefly while the service keeps running (see the .sql.conf next to this file).
+-- letters.file_content is left in place and read as a fallback until a later release clears it.
+-- Instances of earlier releases only read letters.file_content and this release no longer writes to it,
+-- so they have to be stopped before it is deployed: a rolling deploy is not supported.
+-- The table is walked in id order, so that each batch is found through the primary key.
+DO $$
+DECLARE
+  last_id UUID := '00000000-0000-0000-0000-000000000000';
+  batch_last_id UUID;
+BEGIN
+  LOOP
+    SELECT max(id) INTO batch_last_id
+    FROM (SELECT id FROM letters WHERE id > last_id ORDER BY id LIMIT 500) batch;
+    EXIT WHEN batch_last_id IS NULL;
+
+    INSERT INTO letter_content (letter_id, file_content)
+    SELECT id, file_content
+    FROM letters
+    WHERE id > last_id AND id <= batch_last_id AND file_content IS NOT NULL
+    ON CONFLICT (letter_id) DO NOTHING;
+
+    last_id := batch_last_id;
+    COMMIT;
+  END LOOP;
+END $$;
@@ -0,0 +1,8 @@
+-- Files kept by the filesystem content store are referenced by the SHA-256 of their content instead.
+ALTER TABLE letter_content
+  ADD COLUMN blob_key VARCHAR(64),
+  ALTER COLUMN file_content DROP NOT NULL,
+  ADD CONSTRAINT letter_content_file_content_or_blob_key CHECK ((file_content IS NULL) <> (blob_key IS NULL));
+
+-- for finding blobs no longer referenced by any letter
+CREATE INDEX letter_content_blob_key_idx ON letter_content (blob_key) WHERE blob_key IS NOT NULL;
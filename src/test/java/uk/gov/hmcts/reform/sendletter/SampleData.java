@@ -5,17 +5,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import uk.gov.hmcts.reform.sendletter.entity.Print;
-import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
-import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
 import uk.gov.hmcts.reform.sendletter.model.in.Document;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterRequest;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsAndNumberOfCopiesRequest;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsRequest;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
@@ -27,7 +25,6 @@ import java.util.function.Supplier;
 import static java.time.LocalDateTime.now;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toList;
 import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadJson;
 import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
 
@@ -60,7 +57,7 @@ public final class SampleData {
     public static LetterWithPdfsRequest letterWithPdfsRequest() {
         return new LetterWithPdfsRequest(
             singletonList(
-                Base64.getEncoder().encode("hello world".getBytes())
+                DocumentContent.of(Base64.getEncoder().encode("hello world".getBytes()))
             ),
             "someType",
             Maps.newHashMap()
@@ -115,7 +112,6 @@ public final class SampleData {
                 service,
                 objectMapper.readTree("{}"),
                 type,
-                new byte[1],
                 false,
                 fingerprint,
                 createdAt,
@@ -143,7 +139,6 @@ public final class SampleData {
                 service,
                 objectMapper.readTree(objectMapper.writeValueAsString(additionalData)),
                 type,
-                new byte[1],
                 false,
                 fingerprint,
                 createdAt,
@@ -177,26 +172,10 @@ public final class SampleData {
         );
     }
 
-    public static ParsedReport parsedReport(String filename, List<UUID> letterIds, boolean allParsed) {
-        return new ParsedReport(
-            filename,
-            letterIds
-                .stream()
-                .map(id -> new LetterPrintStatus(id, ZonedDateTime.now()))
-                .collect(toList()),
-            allParsed,
-            ZonedDateTime.now().toLocalDate()
-        );
-    }
-
-    public static ParsedReport parsedReport(String filename, boolean allParsed) {
-        return parsedReport(filename, asList(UUID.randomUUID(), UUID.randomUUID()), allParsed);
-    }
-
     public static LetterWithPdfsRequest letterWithPdfsRequestWithAdditionalData() throws Exception {
         return new LetterWithPdfsRequest(
                 singletonList(
-                        Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE))), "someType",
+                        DocumentContent.of(Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE)))), "someType",
                 Map.of("reference", "ABD-123-WAZ",
                         "count", 10,
                         "additionInfo", "present")
@@ -206,7 +185,7 @@ public final class SampleData {
     public static LetterWithPdfsRequest letterWithPdfsRequestWithAdditionalDataIncludingRecipients() throws Exception {
         return new LetterWithPdfsRequest(
             singletonList(
-                Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE))), "someType",
+                DocumentContent.of(Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE)))), "someType",
             Map.of("reference", "ABD-123-WAZ",
                 "count", 10,
                 "recipients", Arrays.asList("one", "two"))
@@ -216,7 +195,7 @@ public final class SampleData {
     public static LetterWithPdfsRequest letterWithPdfsRequestWithNoAdditionalData() throws Exception {
         return new LetterWithPdfsRequest(
                 singletonList(
-                        Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE))
+                        DocumentContent.of(Base64.getDecoder().decode(loadResource(ENCODED_PDF_FILE)))
                 ),
                 "someType",
                 null
@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.sendletter.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedAsyncExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @ParameterizedTest
+    @EnumSource(BoundedAsyncExecutor.Mode.class)
+    void should_reject_tasks_once_queue_is_full(BoundedAsyncExecutor.Mode mode) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+
+        try (BoundedAsyncExecutor executor = new BoundedAsyncExecutor("test", "test", mode, 1, 2, meterRegistry)) {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    awaitQuietly(release);
+                    done.countDown();
+                });
+            }
+
+            waitUntil(() -> gauge("test.active") == 1);
+            assertThat(gauge("test.queue.size")).isEqualTo(2);
+
+            assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+            assertThat(meterRegistry.counter("test.rejected").count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(meterRegistry.get("test.queued").timer().count()).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoundedAsyncExecutor.Mode.class)
+    void should_accept_tasks_again_once_queue_drains(BoundedAsyncExecutor.Mode mode) throws Exception {
+        try (BoundedAsyncExecutor executor = new BoundedAsyncExecutor("test", "test", mode, 1, 0, meterRegistry)) {
+            for (int i = 0; i < 5; i++) {
+                CountDownLatch done = new CountDownLatch(1);
+                executor.execute(done::countDown);
+                assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+                waitUntil(() -> gauge("test.active") == 0);
+            }
+        }
+
+        assertThat(meterRegistry.counter("test.rejected").count()).isZero();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,12 +6,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import uk.gov.hmcts.reform.sendletter.model.out.LetterStatus;
 
-import java.time.ZonedDateTime;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -78,42 +75,44 @@ class ReportsServiceConfigTest {
 
     @Test
     void shouldReturnCorrectReportCodeForSpecificService() {
-        final ZonedDateTime now = ZonedDateTime.now();
-        final LetterStatus letterStatusNoAttr = new LetterStatus(UUID.randomUUID(), "", "", now, now, now, null, 1);
-        assertThat(reportsServiceConfig.getReportCode("cmc_claim_store", letterStatusNoAttr))
+        assertThat(reportsServiceConfig.getReportCode("cmc_claim_store", false))
             .isNotNull().isEqualTo("CMC");
     }
 
     @Test
-    void shouldReturnCorrectReportCodeWithNullLetterStatus() {
-        assertThat(reportsServiceConfig.getReportCode("probate_backend", null))
+    void shouldIgnoreIbFlagForOtherServicesThanSscs() {
+        assertThat(reportsServiceConfig.getReportCode("probate_backend", true))
             .isNotNull().isEqualTo("Probate");
     }
 
     @Test
-    void shouldReturnSscsReformCodeForNonIBService() {
-        final ZonedDateTime now = ZonedDateTime.now();
-        final UUID id = UUID.randomUUID();
-        final Map<String, Object> ibAttr = Map.of("isIbca", true);
-        final Map<String, Object> notIbAttr = Map.of("isIbca", false);
-        final LetterStatus letterStatusNoAttr = new LetterStatus(id, "", "", now, now, now, null, 1);
-        final LetterStatus letterStatusIb = new LetterStatus(id, "", "", now, now, now, ibAttr, 1);
-        final LetterStatus letterStatusNoIb = new LetterStatus(id, "", "", now, now, now, notIbAttr, 1);
-
-        // missing isIcba attribute == REFORM
-        assertThat(reportsServiceConfig.getReportCode("sscs", letterStatusNoAttr))
-            .isNotNull().isEqualTo(ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_REFORM_SUFFIX);
+    void shouldReturnNoReportCodeForUnknownService() {
+        assertThat(reportsServiceConfig.getReportCode("unknown_service", false)).isNull();
+        assertThat(reportsServiceConfig.getReportCode(null, false)).isNull();
+    }
 
-        // isIcba attribute present and set to true == IB
-        assertThat(reportsServiceConfig.getReportCode("sscs", letterStatusIb))
+    @Test
+    void shouldReturnSscsReformCodeForNonIBService() {
+        // isIcba flag set == IB
+        assertThat(reportsServiceConfig.getReportCode("sscs", true))
             .isNotNull().isEqualTo(ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_IB_SUFFIX);
 
-        // isIcba attribute present and set to false == REFORM
-        assertThat(reportsServiceConfig.getReportCode("sscs", letterStatusNoIb))
+        // isIcba flag missing or set to false == REFORM
+        assertThat(reportsServiceConfig.getReportCode("sscs", false))
             .isNotNull().isEqualTo(ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_REFORM_SUFFIX);
+    }
 
-        // no letter status provided == REFORM
-        assertThat(reportsServiceConfig.getReportCode("sscs", null))
-            .isNotNull().isEqualTo(ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_REFORM_SUFFIX);
+    @Test
+    void shouldReturnReportCodesOfEveryService() {
+        assertThat(reportsServiceConfig.getServiceReportCodes())
+            .hasSize(6)
+            .contains(
+                new ReportsServiceConfig.ServiceReportCodes("cmc_claim_store", "CMC", "CMC"),
+                new ReportsServiceConfig.ServiceReportCodes(
+                    "sscs",
+                    ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_REFORM_SUFFIX,
+                    ReportsServiceConfig.SSCS_CODE + ReportsServiceConfig.SSCS_IB_SUFFIX
+                )
+            );
     }
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -22,6 +23,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadJson;
 
@@ -84,6 +86,18 @@ class SendLetterWithPdfsControllerTest {
             .andExpect(status().isForbidden());
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"false","true"})
+    void should_return_503_if_async_queue_is_full(String async) throws Exception {
+        given(authService.authenticate(anyString())).willReturn("some_service_name");
+        given(letterService.save(any(), any(), eq(async)))
+            .willThrow(new TaskRejectedException("queue full"));
+
+        sendLetter(validJson, async)
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().exists("Retry-After"));
+    }
+
     private ResultActions sendLetter(String json, String async) throws Exception {
         return mockMvc.perform(
             post(getPostUrl(async))
@@ -13,14 +13,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.sendletter.entity.BasicLetterInfo;
-import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -126,26 +123,21 @@ class AppInsightsTest {
 
     @Test
     void should_track_events_of_letter_being_printed_from_ftp_report() {
-        List<LetterPrintStatus> statuses = Collections.singletonList(new LetterPrintStatus(
-            UUID.randomUUID(),
-            ZonedDateTime.now()
-        ));
-
         ParsedReport fullyParsedReport = new ParsedReport(
             "/path/to/report",
-            statuses,
+            1,
             true,
             ZonedDateTime.now().toLocalDate());
 
         ParsedReport partiallyParsedReport = new ParsedReport(
             "/path/to/report",
-            statuses,
+            1,
             false,
             ZonedDateTime.now().toLocalDate());
 
         ParsedReport emptyReport = new ParsedReport(
             "/path/to/report",
-            Collections.emptyList(),
+            0,
             true,
             ZonedDateTime.now().toLocalDate());
 
@@ -0,0 +1,150 @@
+package uk.gov.hmcts.reform.sendletter.model.in;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
+
+class StreamingBase64DeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path spoolDir;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void should_decode_documents_of_letter_with_pdfs_request() throws Exception {
+        byte[] pdf = loadResource("test1.pdf");
+        String json = "{\"documents\":[\"" + encode(pdf) + "\",\"" + encode(pdf) + "\"],\"type\":\"a\"}";
+
+        LetterWithPdfsRequest request = objectMapper.readValue(asStream(json), LetterWithPdfsRequest.class);
+
+        assertThat(request.documents).hasSize(2);
+        assertThat(request.documents.get(0).toByteArray()).isEqualTo(pdf);
+        assertThat(request.documents.get(1).toByteArray()).isEqualTo(pdf);
+    }
+
+    @Test
+    void should_decode_content_of_doc_with_copies() throws Exception {
+        byte[] pdf = loadResource("test2.pdf");
+        String json = "{\"documents\":[{\"content\":\"" + encode(pdf) + "\",\"copies\":3}],\"type\":\"a\"}";
+
+        LetterWithPdfsAndNumberOfCopiesRequest request =
+            objectMapper.readValue(asStream(json), LetterWithPdfsAndNumberOfCopiesRequest.class);
+
+        assertThat(request.documents).hasSize(1);
+        assertThat(request.documents.get(0).getContent().toByteArray()).isEqualTo(pdf);
+        assertThat(request.documents.get(0).copies).isEqualTo(3);
+    }
+
+    @Test
+    void should_keep_null_documents_as_null() throws Exception {
+        String json = "{\"documents\":[null],\"type\":\"a\"}";
+
+        LetterWithPdfsRequest request = objectMapper.readValue(asStream(json), LetterWithPdfsRequest.class);
+
+        assertThat(request.documents).containsExactly((DocumentContent) null);
+    }
+
+    @Test
+    void should_reject_content_which_is_not_base64() {
+        String json = "{\"documents\":[\"not base64 at all!\"],\"type\":\"a\"}";
+
+        assertThatThrownBy(() -> objectMapper.readValue(asStream(json), LetterWithPdfsRequest.class))
+            .isInstanceOf(JsonMappingException.class);
+    }
+
+    @Test
+    void should_spool_document_above_threshold_to_file_deleted_once_request_completes() throws Exception {
+        byte[] pdf = loadResource("test1.pdf");
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+
+        DocumentContent content = spoolingMapper(pdf.length - 1)
+            .readValue(asStream("\"" + encode(pdf) + "\""), DocumentContent.class);
+
+        assertThat(content.getFile()).hasParent(spoolDir);
+        assertThat(content.length()).isEqualTo(pdf.length);
+        assertThat(content.toByteArray()).isEqualTo(pdf);
+        try (PDDocument document = PdfDocumentContext.loadPdf(content)) {
+            assertThat(document.getNumberOfPages()).isPositive();
+        }
+
+        request.requestCompleted();
+
+        assertThat(content.getFile()).doesNotExist();
+    }
+
+    @Test
+    void should_keep_document_up_to_threshold_in_heap() throws Exception {
+        byte[] pdf = loadResource("test1.pdf");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        DocumentContent content = spoolingMapper(pdf.length)
+            .readValue(asStream("\"" + encode(pdf) + "\""), DocumentContent.class);
+
+        assertThat(content.getFile()).isNull();
+        assertThat(content.toByteArray()).isEqualTo(pdf);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void should_keep_document_in_heap_outside_request() throws Exception {
+        byte[] pdf = loadResource("test1.pdf");
+
+        DocumentContent content = spoolingMapper(1)
+            .readValue(asStream("\"" + encode(pdf) + "\""), DocumentContent.class);
+
+        assertThat(content.getFile()).isNull();
+        assertThat(content.toByteArray()).isEqualTo(pdf);
+    }
+
+    @Test
+    void should_delete_spooled_file_of_content_which_is_not_base64() throws Exception {
+        // valid up to the end, so that some of it has been decoded to the file by then
+        String json = "\"" + encode(loadResource("test1.pdf")) + "not base64 at all!\"";
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        ObjectMapper mapper = spoolingMapper(4);
+
+        assertThatThrownBy(() -> mapper.readValue(asStream(json), DocumentContent.class))
+            .isInstanceOf(JsonMappingException.class);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    private ObjectMapper spoolingMapper(long spoolThreshold) {
+        return new ObjectMapper().registerModule(new SimpleModule().addDeserializer(
+            DocumentContent.class,
+            new StreamingBase64Deserializer(DataSize.ofBytes(spoolThreshold), spoolDir.toString())
+        ));
+    }
+
+    private static String encode(byte[] content) {
+        return Base64.getEncoder().encodeToString(content);
+    }
+
+    private static ByteArrayInputStream asStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
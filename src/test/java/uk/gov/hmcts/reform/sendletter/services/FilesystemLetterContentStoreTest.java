@@ -0,0 +1,239 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContent;
+import uk.gov.hmcts.reform.sendletter.entity.LetterContentRepository;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FilesystemLetterContentStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private LetterContentRepository letterContentRepository;
+
+    @Mock
+    private LetterContentReader databaseReader;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private FilesystemLetterContentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new FilesystemLetterContentStore(
+            root,
+            Duration.ofHours(1),
+            letterContentRepository,
+            databaseReader,
+            jdbcTemplate,
+            Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void should_save_content_in_file_named_after_its_checksum() throws Exception {
+        // given
+        UUID letterId = UUID.randomUUID();
+        byte[] content = "letter content".getBytes();
+        String key = sha256(content);
+
+        // when
+        store.save(letterId, content);
+
+        // then
+        assertThat(root.resolve(key.substring(0, 2)).resolve(key)).hasBinaryContent(content);
+        assertThat(files()).hasSize(1);
+
+        ArgumentCaptor<LetterContent> saved = ArgumentCaptor.forClass(LetterContent.class);
+        verify(letterContentRepository).save(saved.capture());
+        assertThat(saved.getValue().getLetterId()).isEqualTo(letterId);
+        assertThat(saved.getValue().getBlobKey()).isEqualTo(key);
+        assertThat(saved.getValue().getFileContent()).isNull();
+    }
+
+    @Test
+    void should_keep_one_file_for_letters_with_identical_content() throws Exception {
+        // given
+        byte[] content = "letter content".getBytes();
+
+        // when
+        store.save(UUID.randomUUID(), content);
+        store.save(UUID.randomUUID(), content);
+
+        // then
+        assertThat(files()).hasSize(1);
+        verify(letterContentRepository, times(2)).save(any(LetterContent.class));
+    }
+
+    @Test
+    void should_read_content_from_file() throws Exception {
+        // given
+        UUID letterId = UUID.randomUUID();
+        byte[] content = "letter content".getBytes();
+        store.save(letterId, content);
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(letterId)))
+            .willReturn(List.of(sha256(content)));
+
+        // when
+        long length = store.getContentLength(letterId);
+        byte[] read;
+        try (InputStream stream = store.openContent(letterId, length)) {
+            read = stream.readAllBytes();
+        }
+
+        // then
+        assertThat(length).isEqualTo(content.length);
+        assertThat(read).isEqualTo(content);
+    }
+
+    @Test
+    void should_read_content_of_letters_saved_in_database() {
+        // given
+        UUID letterId = UUID.randomUUID();
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(letterId))).willReturn(List.of());
+        given(databaseReader.getContentLength(letterId)).willReturn(5L);
+
+        // when
+        long length = store.getContentLength(letterId);
+
+        // then
+        assertThat(length).isEqualTo(5L);
+    }
+
+    @Test
+    void should_fail_when_file_is_missing() {
+        // given
+        UUID letterId = UUID.randomUUID();
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(letterId)))
+            .willReturn(List.of(sha256("gone".getBytes())));
+
+        // when
+        // then
+        assertThatThrownBy(() -> store.getContentLength(letterId))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("has no file content");
+    }
+
+    @Test
+    void should_delete_only_old_files_no_letter_references() throws Exception {
+        // given
+        Path referenced = blob("referenced", NOW.minus(Duration.ofHours(2)));
+        Path unreferenced = blob("unreferenced", NOW.minus(Duration.ofHours(2)));
+        Path recent = blob("recent", NOW.minus(Duration.ofMinutes(10)));
+        Path leftOver = Files.createFile(referenced.resolveSibling(referenced.getFileName() + "123.tmp"));
+        Files.setLastModifiedTime(leftOver, FileTime.from(NOW.minus(Duration.ofHours(2))));
+
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(referenced.getFileName().toString())))
+            .willReturn(true);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(unreferenced.getFileName().toString())))
+            .willReturn(false);
+
+        // when
+        int deleted = store.deleteUnreferenced();
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(files()).containsExactlyInAnyOrder(referenced, recent);
+    }
+
+    @Test
+    void should_keep_file_refreshed_by_letter_saved_while_checking_references() throws Exception {
+        // given
+        Path file = blob("content", NOW.minus(Duration.ofHours(2)));
+        String key = file.getFileName().toString();
+
+        // a letter with the same content is saved once the file is checked, its row not committed yet
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(key))).willAnswer(invocation -> {
+            store.save(UUID.randomUUID(), "content".getBytes());
+            return false;
+        });
+
+        // when
+        int deleted = store.deleteUnreferenced();
+
+        // then
+        assertThat(deleted).isZero();
+        assertThat(files()).containsExactly(file);
+        assertThat(file).hasBinaryContent("content".getBytes());
+    }
+
+    @Test
+    void should_restore_file_left_moved_aside_when_referenced() throws Exception {
+        // given
+        Path file = blob("referenced", NOW.minus(Duration.ofHours(2)));
+        Path deleting = Files.move(file, file.resolveSibling(file.getFileName() + ".deleting"));
+        Path unreferenced = blob("unreferenced", NOW.minus(Duration.ofHours(2)));
+        Path unreferencedDeleting = Files.move(
+            unreferenced,
+            unreferenced.resolveSibling(unreferenced.getFileName() + ".deleting")
+        );
+
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(file.getFileName().toString())))
+            .willReturn(true);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(unreferenced.getFileName().toString())))
+            .willReturn(false);
+
+        // when
+        int deleted = store.deleteUnreferenced();
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(files()).containsExactly(file);
+        assertThat(deleting).doesNotExist();
+        assertThat(unreferencedDeleting).doesNotExist();
+    }
+
+    private Path blob(String content, Instant modifiedAt) throws Exception {
+        String key = sha256(content.getBytes());
+        Path file = root.resolve(key.substring(0, 2)).resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes());
+        Files.setLastModifiedTime(file, FileTime.from(modifiedAt));
+        return file;
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.schmizz.sshj.SSHClient;
 import net.schmizz.sshj.sftp.RemoteResourceInfo;
 import net.schmizz.sshj.sftp.SFTPClient;
@@ -16,11 +17,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.sendletter.config.FtpConfigProperties;
 import uk.gov.hmcts.reform.sendletter.config.RetryConfig;
 import uk.gov.hmcts.reform.sendletter.exception.FtpException;
-import uk.gov.hmcts.reform.sendletter.model.Report;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FileToSend;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpClient;
+import uk.gov.hmcts.reform.sendletter.services.ftp.IFtpAvailabilityChecker;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -36,6 +41,7 @@ import static org.mockito.BDDMockito.doNothing;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -60,7 +66,6 @@ class FtpClientTest {
     void download_should_not_include_non_csv_files() throws Exception {
         // given
         given(sshClient.newSFTPClient()).willReturn(sftpClient);
-        given(sftpClient.getFileTransfer()).willReturn(sftpFileTransfer);
         RemoteResourceInfo nonCsvFile = mock(RemoteResourceInfo.class);
         given(nonCsvFile.isRegularFile()).willReturn(true);
         given(nonCsvFile.getName()).willReturn("test-report.pdf");
@@ -69,7 +74,8 @@ class FtpClientTest {
             .willReturn(singletonList(nonCsvFile));
 
         // when
-        List<Report> reports = client.downloadReports();
+        List<StreamedReport> reports = new ArrayList<>();
+        client.readReports((report, sftp) -> reports.add(report));
 
         // then
         assertThat(reports).isEmpty();
@@ -79,11 +85,10 @@ class FtpClientTest {
     void should_track_failure_when_trying_to_download_report() throws IOException {
         // given
         given(sshClient.newSFTPClient()).willReturn(sftpClient);
-        given(sftpClient.getFileTransfer()).willReturn(sftpFileTransfer);
         willThrow(IOException.class).given(sftpClient).ls(eq(null));
 
         // when
-        Throwable exception = catchThrowable(() -> client.downloadReports());
+        Throwable exception = catchThrowable(() -> client.readReports((report, sftp) -> { }));
 
         // then
         assertThat(exception).isInstanceOf(FtpException.class);
@@ -154,11 +159,10 @@ class FtpClientTest {
     @Test
     void should_delete_report_from_ftp() throws IOException {
         // given
-        given(sshClient.newSFTPClient()).willReturn(sftpClient);
         doNothing().when(sftpClient).rm(anyString());
 
         // when
-        Throwable exception = catchThrowable(() -> client.deleteReport("some/report"));
+        Throwable exception = catchThrowable(() -> client.deleteReport("some/report", sftpClient));
 
         // then
         assertThat(exception).isNull();
@@ -167,11 +171,10 @@ class FtpClientTest {
     @Test
     void should_track_failure_when_trying_to_delete_report_from_ftp() throws IOException {
         // given
-        given(sshClient.newSFTPClient()).willReturn(sftpClient);
         willThrow(IOException.class).given(sftpClient).rm(anyString());
 
         // when
-        Throwable exception = catchThrowable(() -> client.deleteReport("some/report"));
+        Throwable exception = catchThrowable(() -> client.deleteReport("some/report", sftpClient));
 
         // then
         assertThat(exception).isInstanceOf(FtpException.class);
@@ -196,4 +199,39 @@ class FtpClientTest {
             .hasMessage("Unable to authenticate.")
             .hasCauseInstanceOf(UserAuthException.class);
     }
+
+    @Test
+    void should_reuse_pooled_session_until_an_action_fails() throws IOException {
+        // given
+        given(ftpProps.getPool()).willReturn(new FtpConfigProperties.Pool());
+        IFtpAvailabilityChecker availabilityChecker = mock(IFtpAvailabilityChecker.class);
+        given(availabilityChecker.isFtpAvailable(any(LocalTime.class))).willReturn(true);
+        given(sshClient.newSFTPClient()).willReturn(sftpClient);
+        given(sshClient.isConnected()).willReturn(true);
+        given(sshClient.isAuthenticated()).willReturn(true);
+        FtpClient pooledClient = new FtpClient(
+            () -> sshClient,
+            ftpProps,
+            new RetryConfig().retryTemplate(2, 2000),
+            availabilityChecker,
+            Clock.systemUTC(),
+            new SimpleMeterRegistry()
+        );
+
+        // when
+        pooledClient.runWith(sftp -> sftp);
+        pooledClient.runWith(sftp -> sftp);
+
+        // then
+        verify(sshClient, times(1)).newSFTPClient();
+        verify(sshClient, never()).disconnect();
+
+        // when
+        catchThrowable(() -> pooledClient.runWith(sftp -> {
+            throw new FtpException("broken", new IOException());
+        }));
+
+        // then
+        verify(sshClient).disconnect();
+    }
 }
@@ -74,7 +74,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -134,7 +133,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -193,7 +191,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -224,7 +221,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -264,7 +260,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -300,7 +295,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -347,7 +341,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -405,7 +398,6 @@ class LetterActionServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             LocalDateTime.now(),
@@ -1,19 +1,27 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.Test;
 import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
 import uk.gov.hmcts.reform.sendletter.model.in.Document;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterRequest;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsAndNumberOfCopiesRequest;
 import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsRequest;
+import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
 
 class LetterChecksumServiceTest {
 
@@ -31,9 +39,23 @@ class LetterChecksumServiceTest {
         // Simply send in the same documents through the check twice and assert they match
         // Check that the parent method calls the calculateContentChecksum as well
         assertThat(letterChecksumService.generateChecksumForPdfPages(docOne))
-            .isEqualTo(letterChecksumService.calculateContentChecksum(docOne.content));
+            .isEqualTo(letterChecksumService.calculateContentChecksum(docOne.getContent()));
         assertThat(letterChecksumService.generateChecksumForPdfPages(docTwo))
-            .isEqualTo(letterChecksumService.calculateContentChecksum(docTwo.content));
+            .isEqualTo(letterChecksumService.calculateContentChecksum(docTwo.getContent()));
+    }
+
+    @Test
+    void should_return_same_content_checksum_for_parsed_document_including_after_duplex_padding() throws Exception {
+        byte[] pdf = loadResource("test1.pdf");
+        String expected = letterChecksumService.calculateContentChecksum(pdf);
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            assertThat(letterChecksumService.calculateContentChecksum(document)).isEqualTo(expected);
+
+            new DuplexPreparator().prepare(document);
+
+            assertThat(letterChecksumService.calculateContentChecksum(document)).isEqualTo(expected);
+        }
     }
 
     @Test
@@ -70,8 +92,8 @@ class LetterChecksumServiceTest {
         Supplier<LetterWithPdfsRequest> letterSupplier =
             () -> new LetterWithPdfsRequest(
                 asList(
-                    "foo".getBytes(),
-                    "bar".getBytes()
+                    DocumentContent.of("foo".getBytes()),
+                    DocumentContent.of("bar".getBytes())
                 ),
                 "print-job-1234",
                 ImmutableMap.of(
@@ -129,8 +151,8 @@ class LetterChecksumServiceTest {
 
         LetterWithPdfsRequest letter1 = new LetterWithPdfsRequest(
             asList(
-                "foo".getBytes(),
-                "bar".getBytes()
+                DocumentContent.of("foo".getBytes()),
+                DocumentContent.of("bar".getBytes())
             ),
             "print-job-1234",
             ImmutableMap.of(
@@ -141,8 +163,8 @@ class LetterChecksumServiceTest {
 
         LetterWithPdfsRequest letter2 = new LetterWithPdfsRequest(
             asList(
-                "foo".getBytes(),
-                "bar!".getBytes()
+                DocumentContent.of("foo".getBytes()),
+                DocumentContent.of("bar!".getBytes())
             ),
             "print-job-1234",
             ImmutableMap.of(
@@ -154,4 +176,119 @@ class LetterChecksumServiceTest {
         assertThat(letterChecksumService.generateChecksum(letter1))
             .isNotEqualTo(letterChecksumService.generateChecksum(letter2));
     }
+
+    @Test
+    void should_return_legacy_checksum_of_letters_as_when_documents_were_bound_as_arrays() {
+        LetterWithPdfsRequest letter = new LetterWithPdfsRequest(
+            asList(DocumentContent.of("foo".getBytes()), DocumentContent.of("bar".getBytes())), "print-job-1234", null
+        );
+        LetterWithPdfsAndNumberOfCopiesRequest letterWithCopies = new LetterWithPdfsAndNumberOfCopiesRequest(
+            asList(new Doc("foo".getBytes(), 2), new Doc("bar".getBytes(), 3)), "print-job-1234", null
+        );
+
+        // checksums of the same letters taken before documents could be spooled
+        assertThat(letterChecksumService.generateChecksum(letter))
+            .isEqualTo("a2b8d8e26f0ae22e93b9bcbbda6c1be4");
+        assertThat(letterChecksumService.generateChecksum(letterWithCopies))
+            .isEqualTo("563dc9b07938d6efb78deadf08aa4ca7");
+    }
+
+    @Test
+    void should_return_same_document_checksum_as_for_serialised_array() {
+        byte[] pdf = "foo".getBytes();
+
+        assertThat(letterChecksumService.generateChecksumForPdfPages(DocumentContent.of(pdf)))
+            .isEqualTo(letterChecksumService.generateChecksum((Object) pdf))
+            .isEqualTo("fc2fa724b366361e2557bd94763ba70c");
+    }
+
+    @Test
+    void should_return_same_canonical_checksum_regardless_of_additional_data_key_order() {
+        Map<String, Object> additionalData = new LinkedHashMap<>();
+        additionalData.put("doc_type", "my doc type");
+        additionalData.put("caseId", "123");
+        Map<String, Object> reorderedAdditionalData = new LinkedHashMap<>();
+        reorderedAdditionalData.put("caseId", "123");
+        reorderedAdditionalData.put("doc_type", "my doc type");
+
+        LetterWithPdfsAndNumberOfCopiesRequest letter1 = new LetterWithPdfsAndNumberOfCopiesRequest(
+            singletonList(new Doc("foo".getBytes(), 2)), "print-job-1234", additionalData
+        );
+        LetterWithPdfsAndNumberOfCopiesRequest letter2 = new LetterWithPdfsAndNumberOfCopiesRequest(
+            singletonList(new Doc("foo".getBytes(), 2)), "print-job-1234", reorderedAdditionalData
+        );
+
+        assertThat(letterChecksumService.generateCanonicalChecksum(letter1))
+            .isEqualTo(letterChecksumService.generateCanonicalChecksum(letter2));
+    }
+
+    @Test
+    void should_return_different_canonical_checksum_for_different_number_of_copies() {
+        LetterWithPdfsAndNumberOfCopiesRequest letter1 = new LetterWithPdfsAndNumberOfCopiesRequest(
+            singletonList(new Doc("foo".getBytes(), 1)), "print-job-1234", null
+        );
+        LetterWithPdfsAndNumberOfCopiesRequest letter2 = new LetterWithPdfsAndNumberOfCopiesRequest(
+            singletonList(new Doc("foo".getBytes(), 2)), "print-job-1234", null
+        );
+
+        assertThat(letterChecksumService.generateCanonicalChecksum(letter1))
+            .isNotEqualTo(letterChecksumService.generateCanonicalChecksum(letter2));
+    }
+
+    @Test
+    void should_not_mix_up_document_boundaries_in_canonical_checksum() {
+        LetterWithPdfsRequest letter1 = new LetterWithPdfsRequest(
+            asList(DocumentContent.of("foo".getBytes()), DocumentContent.of("bar".getBytes())), "print-job-1234", null
+        );
+        LetterWithPdfsRequest letter2 = new LetterWithPdfsRequest(
+            asList(DocumentContent.of("fo".getBytes()), DocumentContent.of("obar".getBytes())), "print-job-1234", null
+        );
+
+        assertThat(letterChecksumService.generateCanonicalChecksum(letter1))
+            .isNotEqualTo(letterChecksumService.generateCanonicalChecksum(letter2));
+    }
+
+    @Test
+    void should_generate_letter_checksum_of_configured_version() {
+        LetterWithPdfsRequest letter = new LetterWithPdfsRequest(
+            asList(DocumentContent.of("foo".getBytes()), DocumentContent.of("bar".getBytes())),
+            "print-job-1234",
+            ImmutableMap.of("caseId", "123")
+        );
+
+        assertThat(letterChecksumService.generateLetterChecksum(letter))
+            .isEqualTo(letterChecksumService.generateChecksum(letter));
+        assertThat(new LetterChecksumService(LetterChecksumService.CANONICAL_VERSION).generateLetterChecksum(letter))
+            .isEqualTo(letterChecksumService.generateCanonicalChecksum(letter))
+            .isNotEqualTo(letterChecksumService.generateChecksum(letter))
+            .startsWith("v2:")
+            .hasSize(35);
+    }
+
+    @Test
+    void should_generate_letter_checksums_of_configured_and_previous_version() {
+        LetterWithPdfsRequest letter = new LetterWithPdfsRequest(
+            asList(DocumentContent.of("foo".getBytes()), DocumentContent.of("bar".getBytes())),
+            "print-job-1234",
+            ImmutableMap.of("caseId", "123")
+        );
+        String legacy = letterChecksumService.generateChecksum(letter);
+        String canonical = letterChecksumService.generateCanonicalChecksum(letter);
+
+        assertThat(letterChecksumService.generateLetterChecksums(letter)).containsExactly(legacy);
+        assertThat(new LetterChecksumService(2, 1).generateLetterChecksums(letter))
+            .containsExactly(canonical, legacy);
+        assertThat(new LetterChecksumService(1, 2).generateLetterChecksums(letter))
+            .containsExactly(legacy, canonical);
+    }
+
+    @Test
+    void should_reject_unknown_checksum_version() {
+        assertThatThrownBy(() -> new LetterChecksumService(3))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LetterChecksumService(2, 3))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LetterChecksumService(2, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -0,0 +1,204 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sendletter.SampleData;
+import uk.gov.hmcts.reform.sendletter.entity.LetterEventRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsRequest;
+import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptor;
+import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
+import uk.gov.hmcts.reform.sendletter.services.zip.Zipper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.sendletter.entity.LetterStatus.Created;
+
+class LetterServiceInFlightSaveTest {
+
+    private static final String SERVICE_NAME = "some_service";
+
+    private final PdfCreator pdfCreator = mock(PdfCreator.class);
+    private final LetterRepository letterRepository = mock(LetterRepository.class);
+    private final ServiceFolderMapping serviceFolderMapping = mock(ServiceFolderMapping.class);
+    private final ExecusionService execusionService = mock(ExecusionService.class);
+
+    private final CountDownLatch pdfStarted = new CountDownLatch(1);
+    private final CountDownLatch pdfReleased = new CountDownLatch(1);
+
+    private LetterService service;
+
+    @BeforeEach
+    void setUp() {
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("some_folder"));
+        given(letterRepository.findLatestIdByChecksumAndStatus(any(), any())).willReturn(Optional.empty());
+
+        service = letterService(new LetterChecksumService());
+    }
+
+    @Test
+    void should_create_letter_once_when_same_letter_is_saved_concurrently() throws Exception {
+        // given
+        willAnswer(invocation -> {
+            pdfStarted.countDown();
+            pdfReleased.await(5, TimeUnit.SECONDS);
+            return new byte[0];
+        }).given(pdfCreator).create(any(), any());
+        LetterWithPdfsRequest letter = SampleData.letterWithPdfsRequest();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<UUID> first = executor.submit(() -> service.save(letter, SERVICE_NAME, "false"));
+            assertThat(pdfStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Thread> retryThread = new CompletableFuture<>();
+            Future<UUID> retry = executor.submit(() -> {
+                retryThread.complete(Thread.currentThread());
+                return service.save(letter, SERVICE_NAME, "false");
+            });
+            waitUntilWaiting(retryThread.get(5, TimeUnit.SECONDS));
+            pdfReleased.countDown();
+
+            // then
+            assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+            verify(pdfCreator, times(1)).create(any(), any());
+            verify(execusionService, times(1)).execute(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_return_letter_to_waiting_request_once_its_save_has_committed() throws Exception {
+        // given
+        given(pdfCreator.create(any(), any())).willReturn(new byte[0]);
+        willAnswer(invocation -> {
+            pdfStarted.countDown();
+            pdfReleased.await(5, TimeUnit.SECONDS);
+            return null;
+        }).given(execusionService).execute(any());
+        LetterWithPdfsRequest letter = SampleData.letterWithPdfsRequest();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<UUID> first = executor.submit(() -> service.save(letter, SERVICE_NAME, "false"));
+            assertThat(pdfStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Thread> retryThread = new CompletableFuture<>();
+            Future<UUID> retry = executor.submit(() -> {
+                retryThread.complete(Thread.currentThread());
+                return service.save(letter, SERVICE_NAME, "false");
+            });
+            waitUntilWaiting(retryThread.get(5, TimeUnit.SECONDS));
+
+            // then
+            assertThat(retry.isDone()).isFalse();
+            pdfReleased.countDown();
+            assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+            verify(execusionService, times(1)).execute(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_save_letter_again_when_first_save_fails() throws Exception {
+        // given
+        willAnswer(invocation -> {
+            pdfStarted.countDown();
+            pdfReleased.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("failed");
+        }).willReturn(new byte[0]).given(pdfCreator).create(any(), any());
+        LetterWithPdfsRequest letter = SampleData.letterWithPdfsRequest();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<UUID> first = executor.submit(() -> service.save(letter, SERVICE_NAME, "false"));
+            assertThat(pdfStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Thread> retryThread = new CompletableFuture<>();
+            Future<UUID> retry = executor.submit(() -> {
+                retryThread.complete(Thread.currentThread());
+                return service.save(letter, SERVICE_NAME, "false");
+            });
+            waitUntilWaiting(retryThread.get(5, TimeUnit.SECONDS));
+            pdfReleased.countDown();
+
+            // then
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(retry.get(5, TimeUnit.SECONDS)).isNotNull();
+            verify(pdfCreator, times(2)).create(any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_return_letter_saved_with_previous_checksum_version() {
+        // given
+        LetterChecksumService checksumService = new LetterChecksumService(2, 1);
+        LetterWithPdfsRequest letter = SampleData.letterWithPdfsRequest();
+        UUID existingId = UUID.randomUUID();
+        given(letterRepository.findLatestIdByChecksumAndStatus(checksumService.generateChecksum(letter), Created))
+            .willReturn(Optional.of(existingId));
+
+        // when
+        UUID id = letterService(checksumService).save(letter, SERVICE_NAME, "false");
+
+        // then
+        assertThat(id).isEqualTo(existingId);
+        verify(letterRepository)
+            .findLatestIdByChecksumAndStatus(checksumService.generateCanonicalChecksum(letter), Created);
+        verify(pdfCreator, never()).create(any(), any());
+    }
+
+    private LetterService letterService(LetterChecksumService checksumService) {
+        return new LetterService(
+            pdfCreator,
+            letterRepository,
+            mock(LetterContentStore.class),
+            mock(LetterEventRepository.class),
+            mock(DocumentService.class),
+            new Zipper(),
+            new PgpEncryptor(),
+            new ObjectMapper(),
+            false,
+            null,
+            serviceFolderMapping,
+            execusionService,
+            mock(DuplicateLetterService.class),
+            mock(ExceptionLetterService.class),
+            checksumService,
+            new RecentLetterChecksums(100, Duration.ofHours(1), Clock.systemUTC())
+        );
+    }
+
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
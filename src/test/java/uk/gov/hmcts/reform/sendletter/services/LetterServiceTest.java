@@ -33,13 +33,17 @@ import uk.gov.hmcts.reform.sendletter.model.in.LetterWithPdfsRequest;
 import uk.gov.hmcts.reform.sendletter.model.out.ExtendedLetterStatus;
 import uk.gov.hmcts.reform.sendletter.model.out.LetterStatus;
 import uk.gov.hmcts.reform.sendletter.model.out.v2.LetterStatusV2;
+import uk.gov.hmcts.reform.sendletter.services.encryption.PgpEncryptor;
 import uk.gov.hmcts.reform.sendletter.services.encryption.UnableToLoadPgpPublicKeyException;
 import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
 import uk.gov.hmcts.reform.sendletter.services.zip.Zipper;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -83,6 +87,9 @@ class LetterServiceTest {
     @Mock
     private LetterRepository letterRepository;
 
+    @Mock
+    private LetterContentStore letterContentStore;
+
     @Mock
     private LetterEventRepository letterEventRepository;
 
@@ -138,8 +145,8 @@ class LetterServiceTest {
         }
 
         // then
-        verify(documentService).checkDocumentDuplicates(anyList(), anyString());
-        verify(pdfCreator).createFromBase64Pdfs(eq(letter.documents), anyString());
+        verify(documentService).checkDocumentChecksumDuplicates(anyList(), anyString());
+        verify(pdfCreator).loadPdfs(eq(letter.documents), anyString());
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
         }
@@ -162,13 +169,13 @@ class LetterServiceTest {
         service.save(letter, "some_service", async);
 
         // then
-        verify(documentService, never()).checkDocumentDuplicates(anyList(), anyString());
-        verify(pdfCreator).createFromBase64Pdfs(eq(letter.documents), anyString());
+        verify(documentService, never()).checkDocumentChecksumDuplicates(anyList(), anyString());
+        verify(pdfCreator).loadPdfs(eq(letter.documents), anyString());
 
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
         }
-        verify(documentService).saveDocuments(any(UUID.class), anyList(), isNull());
+        verify(documentService).saveDocumentChecksums(any(UUID.class), anyList(), isNull());
     }
 
     @ParameterizedTest
@@ -188,13 +195,13 @@ class LetterServiceTest {
         service.save(letter, "some_service", async);
 
         // then
-        verify(documentService).checkDocumentDuplicates(anyList(), anyString());
-        verify(pdfCreator).createFromBase64Pdfs(eq(letter.documents), anyString());
+        verify(documentService).checkDocumentChecksumDuplicates(anyList(), anyString());
+        verify(pdfCreator).loadPdfs(eq(letter.documents), anyString());
 
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
         }
-        verify(documentService).saveDocuments(any(UUID.class), anyList(), anyString());
+        verify(documentService).saveDocumentChecksums(any(UUID.class), anyList(), anyString());
     }
 
     @ParameterizedTest
@@ -210,18 +217,14 @@ class LetterServiceTest {
         final LetterWithPdfsAndNumberOfCopiesRequest letterWithPdfsAndNumberOfCopiesRequest =
                 SampleData.letterWithPdfAndCopiesRequest(5, 10);
 
-        byte[] inputZipFile = Resources.toByteArray(getResource("unencrypted.zip"));
-
-        when(zipper.zip(any(PdfDoc.class))).thenReturn(inputZipFile);
-
         // when
         service.save(letterWithPdfsAndNumberOfCopiesRequest, "some_service", async);
 
         // then
-        verify(documentService, never()).checkDocumentDuplicates(anyList(), anyString());
+        verify(documentService, never()).checkDocumentChecksumDuplicates(anyList(), anyString());
         verify(pdfCreator)
-            .createFromBase64PdfWithCopies(eq(letterWithPdfsAndNumberOfCopiesRequest.documents), anyString());
-        verify(zipper).zip(any(PdfDoc.class));
+            .loadPdfsWithCopies(eq(letterWithPdfsAndNumberOfCopiesRequest.documents), anyString());
+        verify(zipper).zip(any(PdfDoc.class), any(OutputStream.class));
 
         ArgumentCaptor<Letter> letterArgumentCaptor = ArgumentCaptor.forClass(Letter.class);
         verify(letterRepository).save(letterArgumentCaptor.capture());
@@ -232,7 +235,7 @@ class LetterServiceTest {
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
         }
-        verify(documentService).saveDocuments(any(UUID.class), anyList(), isNull());
+        verify(documentService).saveDocumentChecksums(any(UUID.class), anyList(), isNull());
     }
 
     @ParameterizedTest
@@ -248,16 +251,12 @@ class LetterServiceTest {
 
         LetterWithPdfsRequest letter = SampleData.letterWithPdfsRequest();
 
-        byte[] inputZipFile = Resources.toByteArray(getResource("unencrypted.zip"));
-
-        when(zipper.zip(any(PdfDoc.class))).thenReturn(inputZipFile);
-
         // when
         service.save(letter, "some_service", async);
 
         // then
-        verify(pdfCreator).createFromBase64Pdfs(eq(letter.documents), anyString());
-        verify(zipper).zip(any(PdfDoc.class));
+        verify(pdfCreator).loadPdfs(eq(letter.documents), anyString());
+        verify(zipper).zip(any(PdfDoc.class), any(OutputStream.class));
 
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
@@ -268,8 +267,8 @@ class LetterServiceTest {
 
         assertThat(getCopies.apply(letterArgumentCaptor.getValue().getCopies()))
                 .containsAllEntriesOf(Map.of("Document_1", 1));
-        verify(documentService, never()).checkDocumentDuplicates(anyList(), anyString());
-        verify(documentService).saveDocuments(any(UUID.class), anyList(), isNull());
+        verify(documentService, never()).checkDocumentChecksumDuplicates(anyList(), anyString());
+        verify(documentService).saveDocumentChecksums(any(UUID.class), anyList(), isNull());
     }
 
     @ParameterizedTest
@@ -284,14 +283,12 @@ class LetterServiceTest {
 
         LetterWithPdfsAndNumberOfCopiesRequest letter = SampleData.letterWithPdfAndCopiesRequest(3, 8);
 
-        when(zipper.zip(any(PdfDoc.class))).thenReturn(Resources.toByteArray(getResource("unencrypted.zip")));
-
         // when
         service.save(letter, "some_service", async);
 
         // then
-        verify(pdfCreator).createFromBase64PdfWithCopies(eq(letter.documents), anyString());
-        verify(zipper).zip(any(PdfDoc.class));
+        verify(pdfCreator).loadPdfsWithCopies(eq(letter.documents), anyString());
+        verify(zipper).zip(any(PdfDoc.class), any(OutputStream.class));
 
         if (Boolean.parseBoolean(async)) {
             verify(execusionService).run(any(), any(), any(), any());
@@ -302,8 +299,8 @@ class LetterServiceTest {
 
         assertThat(getCopies.apply(letterArgumentCaptor.getValue().getCopies()))
                 .containsAllEntriesOf(Map.of("Document_1", 3, "Document_2", 8));
-        verify(documentService, never()).checkDocumentDuplicates(anyList(), anyString());
-        verify(documentService).saveDocuments(any(UUID.class), anyList(), isNull());
+        verify(documentService, never()).checkDocumentChecksumDuplicates(anyList(), anyString());
+        verify(documentService).saveDocumentChecksums(any(UUID.class), anyList(), isNull());
     }
 
     @Test
@@ -371,7 +368,7 @@ class LetterServiceTest {
         given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("some_folder"));
         createLetterService(false, null);
         doThrow(new DuplicateDocumentException("msg")).when(documentService)
-            .checkDocumentDuplicates(anyList(), anyString());
+            .checkDocumentChecksumDuplicates(anyList(), anyString());
 
         // when
         Throwable throwable = catchThrowable(() -> service.save(
@@ -526,7 +523,7 @@ class LetterServiceTest {
     }
 
     private void thereAreNoDuplicates() {
-        given(letterRepository.findByChecksumAndStatusOrderByCreatedAtDesc(any(), any()))
+        given(letterRepository.findLatestIdByChecksumAndStatus(any(), any()))
             .willReturn(Optional.empty());
     }
 
@@ -535,9 +532,11 @@ class LetterServiceTest {
         this.service = new LetterService(
             pdfCreator,
             letterRepository,
+            letterContentStore,
             letterEventRepository,
             documentService,
             zipper,
+            new PgpEncryptor(),
             objectMapper,
             isEncryptionEnabled,
             encryptionKey,
@@ -545,7 +544,8 @@ class LetterServiceTest {
             execusionService,
             duplicateLetterService,
             exceptionLetterService,
-            letterChecksumService);
+            letterChecksumService,
+            new RecentLetterChecksums(100, Duration.ofHours(1), Clock.systemUTC()));
     }
 
     private byte[] loadPublicKey() throws IOException {
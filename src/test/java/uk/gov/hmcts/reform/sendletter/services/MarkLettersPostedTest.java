@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import net.schmizz.sshj.sftp.SFTPClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,51 +8,56 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import uk.gov.hmcts.reform.sendletter.SampleData;
 import uk.gov.hmcts.reform.sendletter.config.ReportsServiceConfig;
-import uk.gov.hmcts.reform.sendletter.entity.Letter;
+import uk.gov.hmcts.reform.sendletter.entity.LetterReportInfo;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
 import uk.gov.hmcts.reform.sendletter.entity.ReportRepository;
-import uk.gov.hmcts.reform.sendletter.exception.LetterNotFoundException;
 import uk.gov.hmcts.reform.sendletter.logging.AppInsights;
+import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
-import uk.gov.hmcts.reform.sendletter.model.Report;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
 import uk.gov.hmcts.reform.sendletter.model.out.PostedReportTaskResponse;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpAvailabilityChecker;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpClient;
 
-import java.time.Instant;
+import java.io.InputStream;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class MarkLettersPostedTest {
 
+    private static final LocalDate FILE_DATE = LocalDate.of(2026, 1, 10);
+
     @Mock LetterDataAccessService dataAccessService;
-    @Mock LetterService letterService;
     @Mock FtpClient ftpClient;
     @Mock FtpAvailabilityChecker availabilityChecker;
     @Mock ReportParser parser;
     @Mock AppInsights insights;
     @Mock ReportsServiceConfig reportsServiceConfig;
     @Mock ReportRepository reportRepository;
+    @Mock SFTPClient sftpClient;
 
     private MarkLettersPostedService task;
 
@@ -59,7 +65,6 @@ class MarkLettersPostedTest {
     void setup() {
         task = new MarkLettersPostedService(
             dataAccessService,
-            letterService,
             ftpClient,
             availabilityChecker,
             parser,
@@ -76,22 +81,44 @@ class MarkLettersPostedTest {
         UUID unknown = UUID.randomUUID();
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(filePath, null, Instant.now().getEpochSecond())));
-        given(parser.parse(any()))
-            .willReturn(SampleData.parsedReport(filePath, asList(known, unknown), true));
-        Letter letter = SampleData.letterEntity("a.service");
-        letter.setStatus(LetterStatus.Uploaded);
-        given(dataAccessService.findLetterStatus(known)).willReturn(Optional.of(letter.getStatus()));
-        given(dataAccessService.findLetterStatus(unknown)).willReturn(Optional.empty());
+        List<LetterPrintStatus> statuses = givenReport(filePath, asList(known, unknown), true);
+        LetterPostedResults results = new LetterPostedResults();
+        results.posted(known);
+        results.unknown(unknown);
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(results);
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CMC"));
 
         // when
-        task.processReports();
+        List<PostedReportTaskResponse> processedReports = task.processReports();
+
+        // then
+        verify(dataAccessService).markLettersAsPosted(statuses);
+        verify(ftpClient).deleteReport(filePath, sftpClient);
+        assertThat(processedReports).hasSize(1);
+        assertThat(processedReports.getFirst().getMarkedPostedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_count_letters_with_unexpected_status_as_posted() {
+        String filePath = "MOJ_CMC_domestic.csv";
+        UUID uploaded = UUID.randomUUID();
+        UUID posted = UUID.randomUUID();
+
+        given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
+        List<LetterPrintStatus> statuses = givenReport(filePath, asList(uploaded, posted), true);
+        LetterPostedResults results = new LetterPostedResults();
+        results.posted(uploaded);
+        results.unexpectedStatus(posted, LetterStatus.Posted);
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(results);
+        given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CMC"));
+
+        // when
+        List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(dataAccessService).markLetterAsPosted(eq(known), any(LocalDateTime.class));
-        verify(dataAccessService, never()).markLetterAsPosted(eq(unknown), any(LocalDateTime.class));
+        assertThat(processedReports).hasSize(1);
+        assertThat(processedReports.getFirst().getMarkedPostedCount()).isEqualTo(1);
+        assertThat(processedReports.getFirst().isProcessingFailed()).isFalse();
     }
 
     @Test
@@ -101,13 +128,9 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        given(parser.parse(any())).willReturn(SampleData.parsedReport(reportName, allParsed));
+        givenReport(reportName, allParsed);
 
-        given(dataAccessService.findLetterStatus(any()))
-            .willReturn(Optional.of(SampleData.letterEntity("cmc").getStatus()));
+        given(dataAccessService.markLettersAsPosted(any())).willReturn(new LetterPostedResults());
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CMC"));
 
@@ -115,7 +138,7 @@ class MarkLettersPostedTest {
         task.processReports();
 
         // then
-        verify(ftpClient).deleteReport(reportName);
+        verify(ftpClient).deleteReport(reportName, sftpClient);
     }
 
     @Test
@@ -125,13 +148,9 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
+        givenReport(reportName, allParsed);
 
-        given(parser.parse(any())).willReturn(SampleData.parsedReport(reportName, allParsed));
-
-        given(dataAccessService.findLetterStatus(any()))
-            .willReturn(Optional.of(SampleData.letterEntity("cmc").getStatus()));
+        given(dataAccessService.markLettersAsPosted(any())).willReturn(new LetterPostedResults());
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CMC"));
 
@@ -139,7 +158,7 @@ class MarkLettersPostedTest {
         task.processReports();
 
         // then
-        verify(ftpClient, never()).deleteReport(anyString());
+        verify(ftpClient, never()).deleteReport(anyString(), any());
     }
 
     @Test
@@ -150,7 +169,7 @@ class MarkLettersPostedTest {
         task.processReports();
 
         // then
-        verify(ftpClient, never()).downloadReports();
+        verify(ftpClient, never()).readReports(any());
     }
 
     // ------------------------------------------------------
@@ -163,13 +182,10 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        given(parser.parse(any())).willReturn(SampleData.parsedReport(reportName, allParsed));
+        givenReport(reportName, allParsed);
 
-        given(dataAccessService.findLetterService(any()))
-            .willReturn(Optional.of("not_a_proper_service"));
+        given(dataAccessService.findReportInfo(anyList()))
+            .willAnswer(invocation -> reportInfo(invocation.getArgument(0), "not_a_proper_service"));
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CODE1", "CODE2"));
 
@@ -177,7 +193,7 @@ class MarkLettersPostedTest {
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(ftpClient, never()).deleteReport(reportName);
+        verify(ftpClient, never()).deleteReport(reportName, sftpClient);
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
         assertThat(processedReports.getFirst()).satisfies(p -> {
             assertThat(p.isProcessingFailed()).isTrue();
@@ -195,46 +211,27 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
+        List<LetterPrintStatus> statuses = givenReport(reportName, allParsed);
 
-        ParsedReport parsedReport = SampleData.parsedReport(reportName, allParsed);
-        given(parser.parse(any())).willReturn(parsedReport);
+        given(dataAccessService.findReportInfo(anyList()))
+            .willAnswer(invocation -> reportInfo(invocation.getArgument(0), "some_service_name"));
 
-        given(dataAccessService.findLetterService(any()))
-            .willReturn(Optional.of("some_service_name"));
+        given(reportsServiceConfig.getReportCode("some_service_name", false)).willReturn("CODE1");
 
-        given(letterService.getStatus(any(), eq(Boolean.TRUE.toString()), eq(Boolean.FALSE.toString())))
-            .willReturn(new uk.gov.hmcts.reform.sendletter.model.out.LetterStatus(
-                UUID.randomUUID(),
-                "some_service_status",
-                "",
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                null,
-                null
-            ));
-
-        given(reportsServiceConfig.getReportCode(eq("some_service_name"),
-            any(uk.gov.hmcts.reform.sendletter.model.out.LetterStatus.class)))
-            .willReturn("CODE1");
-
-        given(dataAccessService.findLetterStatus(any())).willReturn(Optional.of(LetterStatus.Uploaded));
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(allPosted(statuses));
 
         // when
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(dataAccessService, times(parsedReport.statuses.size()))
-            .markLetterAsPosted(any(),any(LocalDateTime.class));
-        verify(ftpClient).deleteReport(reportName);
+        verify(dataAccessService).markLettersAsPosted(statuses);
+        verify(ftpClient).deleteReport(reportName, sftpClient);
         verify(reportRepository).save(any());
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
         assertThat(processedReports.getFirst()).satisfies(p -> {
             assertThat(p.isProcessingFailed()).isFalse();
-            // SampleData parsedReport has 2 letters in it
-            assertThat(p.getMarkedPostedCount()).isEqualTo(parsedReport.statuses.size());
+            // the report has 2 letters in it
+            assertThat(p.getMarkedPostedCount()).isEqualTo(statuses.size());
             assertThat(p.getErrorMessage()).isNull();
             assertThat(p.getReportCode()).isEqualTo("CODE1");
         });
@@ -247,25 +244,20 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        ParsedReport parsedReport = SampleData.parsedReport(reportName, allParsed);
-        given(parser.parse(any())).willReturn(parsedReport);
+        givenReport(reportName, allParsed);
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CODE1", "CODE2"));
-        given(dataAccessService.findLetterStatus(any())).willReturn(Optional.of(LetterStatus.Uploaded));
 
         // set the mark letters posted task up to explode
         willThrow(new RuntimeException("test exception message"))
             .given(dataAccessService)
-            .markLetterAsPosted(any(UUID.class),any(LocalDateTime.class));
+            .markLettersAsPosted(any());
 
         // when
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(ftpClient, never()).deleteReport(reportName);
+        verify(ftpClient, never()).deleteReport(reportName, sftpClient);
         verify(reportRepository, never()).save(any());
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
         assertThat(processedReports.getFirst()).satisfies(p -> {
@@ -284,42 +276,22 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        ParsedReport parsedReport = SampleData.parsedReport(reportName, allParsed);
-        given(parser.parse(any())).willReturn(parsedReport);
-
-        given(dataAccessService.findLetterService(parsedReport.statuses.getFirst().id))
-            .willThrow(new LetterNotFoundException(parsedReport.statuses.getFirst().id));
+        List<LetterPrintStatus> statuses = givenReport(reportName, allParsed);
 
-        given(dataAccessService.findLetterService(parsedReport.statuses.getLast().id))
-            .willReturn(Optional.of("some_service_name"));
-
-        given(letterService.getStatus(any(), eq(Boolean.TRUE.toString()), eq(Boolean.FALSE.toString())))
-            .willReturn(new uk.gov.hmcts.reform.sendletter.model.out.LetterStatus(
-                UUID.randomUUID(),
-                "some_service_status",
-                "",
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                null,
-                null
-            ));
+        // only the last letter of the report is known
+        given(dataAccessService.findReportInfo(anyList()))
+            .willReturn(reportInfo(List.of(statuses.getLast().id), "some_service_name"));
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CODE1", "CODE2"));
-        given(reportsServiceConfig.getReportCode(eq("some_service_name"),
-            any(uk.gov.hmcts.reform.sendletter.model.out.LetterStatus.class)))
-            .willReturn("CODE1");
+        given(reportsServiceConfig.getReportCode("some_service_name", false)).willReturn("CODE1");
 
-        given(dataAccessService.findLetterStatus(any())).willReturn(Optional.of(LetterStatus.Uploaded));
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(allPosted(statuses));
 
         // when
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(ftpClient).deleteReport(reportName);
+        verify(ftpClient).deleteReport(reportName, sftpClient);
         verify(reportRepository).save(any());
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
         assertThat(processedReports.getFirst().getReportCode()).isEqualTo("CODE1");
@@ -333,19 +305,16 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        ParsedReport parsedReport = SampleData.parsedReport(reportName, allParsed);
-        given(parser.parse(any())).willReturn(parsedReport);
+        List<LetterPrintStatus> statuses = givenReport(reportName, allParsed);
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CODE1", "CODE2"));
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(allPosted(statuses));
 
         // when
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(ftpClient).deleteReport(reportName);
+        verify(ftpClient).deleteReport(reportName, sftpClient);
         verify(reportRepository).save(any());
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
         assertThat(processedReports.getFirst().getReportDate()).isEqualTo(LocalDate.of(2026,1,13));
@@ -358,22 +327,59 @@ class MarkLettersPostedTest {
 
         given(availabilityChecker.isFtpAvailable(any())).willReturn(true);
 
-        given(ftpClient.downloadReports())
-            .willReturn(singletonList(new Report(reportName, null, Instant.now().getEpochSecond())));
-
-        ParsedReport parsedReport = SampleData.parsedReport(reportName, allParsed);
-        given(parser.parse(any())).willReturn(parsedReport);
+        List<LetterPrintStatus> statuses = givenReport(reportName, allParsed);
 
         given(reportsServiceConfig.getReportCodes()).willReturn(Set.of("CODE1", "CODE2"));
+        given(dataAccessService.markLettersAsPosted(statuses)).willReturn(allPosted(statuses));
 
         // when
         List<PostedReportTaskResponse> processedReports = task.processReports();
 
         // then
-        verify(ftpClient).deleteReport(reportName);
+        verify(ftpClient).deleteReport(reportName, sftpClient);
         verify(reportRepository).save(any());
         assertThat(processedReports).isNotNull().isNotEmpty().hasSize(1);
-        assertThat(processedReports.getFirst().getReportDate()).isEqualTo(parsedReport.reportDate);
+        assertThat(processedReports.getFirst().getReportDate()).isEqualTo(FILE_DATE);
+    }
+
+    private List<LetterPrintStatus> givenReport(String reportName, boolean allParsed) {
+        return givenReport(reportName, asList(UUID.randomUUID(), UUID.randomUUID()), allParsed);
     }
 
+    private List<LetterPrintStatus> givenReport(String reportName, List<UUID> letterIds, boolean allParsed) {
+        List<LetterPrintStatus> statuses = letterIds
+            .stream()
+            .map(id -> new LetterPrintStatus(id, ZonedDateTime.now()))
+            .toList();
+
+        StreamedReport report = new StreamedReport(
+            reportName,
+            InputStream.nullInputStream(),
+            FILE_DATE.atStartOfDay(ZoneOffset.UTC).toEpochSecond()
+        );
+        willAnswer(invocation -> {
+            BiConsumer<StreamedReport, SFTPClient> reader = invocation.getArgument(0);
+            reader.accept(report, sftpClient);
+            return null;
+        }).given(ftpClient).readReports(any());
+
+        given(parser.parse(eq(report), anyInt(), any())).willAnswer(invocation -> {
+            Consumer<List<LetterPrintStatus>> chunkConsumer = invocation.getArgument(2);
+            chunkConsumer.accept(statuses);
+            return new ParsedReport(reportName, statuses.size(), allParsed, FILE_DATE);
+        });
+        return statuses;
+    }
+
+    private static Map<UUID, LetterReportInfo> reportInfo(List<UUID> letterIds, String service) {
+        return letterIds
+            .stream()
+            .collect(toMap(id -> id, id -> new LetterReportInfo(id, service, false, false)));
+    }
+
+    private static LetterPostedResults allPosted(List<LetterPrintStatus> statuses) {
+        LetterPostedResults results = new LetterPostedResults();
+        statuses.forEach(status -> results.posted(status.id));
+        return results;
+    }
 }
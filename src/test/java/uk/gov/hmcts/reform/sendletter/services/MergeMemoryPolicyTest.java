@@ -0,0 +1,128 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfMerger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
+
+class MergeMemoryPolicyTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path scratchDir;
+
+    @Test
+    void should_spill_merge_to_scratch_file_when_over_memory_budget() throws Exception {
+        // given
+        MergeMemoryPolicy policy = new MergeMemoryPolicy(1, 1024 * 1024, 0, scratchDir.toString(), meterRegistry);
+        byte[] test1Pdf = loadResource("test1.pdf");
+        byte[] test2Pdf = loadResource("test2.pdf");
+
+        // when
+        byte[] merged;
+        try (PdfDocumentContext pdfs = new PdfCreator(new DuplexPreparator(), Runnable::run, 1, policy)
+            .loadPdfsWithCopies(asList(new Doc(test1Pdf, 2), new Doc(test2Pdf, 1)), "test_service")) {
+            merged = PdfMerger.mergeDocuments(pdfs, "test_service", policy);
+        }
+
+        // then
+        assertThat(pageCount(merged)).isEqualTo(2 * pageCount(test1Pdf) + pageCount(test2Pdf));
+        assertThat(meterRegistry.counter("pdf.merge.spills").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pdf.merge.spilled").counter().count()).isPositive();
+        assertThat(scratchDir).isEmptyDirectory();
+    }
+
+    @Test
+    void should_merge_in_memory_when_within_budget() throws Exception {
+        // given
+        MergeMemoryPolicy policy = new MergeMemoryPolicy(
+            50 * 1024 * 1024, 50 * 1024 * 1024, 0, scratchDir.toString(), meterRegistry
+        );
+        byte[] test1Pdf = loadResource("test1.pdf");
+
+        // when
+        try (PdfDocumentContext pdfs = new PdfCreator(new DuplexPreparator(), Runnable::run, 1, policy)
+            .loadPdfsWithCopies(asList(new Doc(test1Pdf, 3)), "test_service")) {
+            PdfMerger.mergeDocuments(pdfs, "test_service", policy);
+        }
+
+        // then
+        assertThat(meterRegistry.counter("pdf.merge.spills").count()).isZero();
+        assertThat(meterRegistry.counter("pdf.merge.memory.throttled").count()).isZero();
+        assertThat(availableMemory()).isEqualTo(50 * 1024 * 1024);
+    }
+
+    @Test
+    void should_fall_back_to_scratch_files_when_shared_budget_is_taken() {
+        // given
+        MergeMemoryPolicy policy = new MergeMemoryPolicy(4096, 4096, 0, scratchDir.toString(), meterRegistry);
+
+        // when
+        try (MergeMemoryPolicy.Lease first = policy.acquire(4096)) {
+            assertThat(availableMemory()).isZero();
+
+            try (MergeMemoryPolicy.Lease second = policy.acquire(4096)) {
+                // then
+                assertThat(meterRegistry.counter("pdf.merge.memory.throttled").count()).isEqualTo(1);
+            }
+            assertThat(availableMemory()).isZero();
+        }
+        assertThat(availableMemory()).isEqualTo(4096);
+        assertThat(scratchDir).isEmptyDirectory();
+    }
+
+    @Test
+    void should_keep_no_more_in_memory_than_reserved_for_merge() {
+        // given
+        MergeMemoryPolicy policy = new MergeMemoryPolicy(
+            50 * 1024 * 1024, 50 * 1024 * 1024, 0, scratchDir.toString(), meterRegistry
+        );
+
+        // when
+        try (MergeMemoryPolicy.Lease lease = policy.acquire(8192)) {
+            // then
+            assertThat(lease.mainMemoryBytes()).isEqualTo(8192);
+            assertThat(availableMemory()).isEqualTo(50 * 1024 * 1024 - 8192);
+        }
+    }
+
+    @Test
+    void should_keep_nothing_in_memory_when_shared_budget_is_taken() {
+        // given
+        MergeMemoryPolicy policy = new MergeMemoryPolicy(4096, 4096, 0, scratchDir.toString(), meterRegistry);
+
+        // when
+        try (MergeMemoryPolicy.Lease first = policy.acquire(4096);
+             MergeMemoryPolicy.Lease second = policy.acquire(4096)) {
+            // then
+            assertThat(first.mainMemoryBytes()).isEqualTo(4096);
+            assertThat(second.mainMemoryBytes()).isZero();
+        }
+    }
+
+    private double availableMemory() {
+        return meterRegistry.get("pdf.merge.memory.available").gauge().value();
+    }
+
+    private static int pageCount(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return document.getNumberOfPages();
+        }
+    }
+}
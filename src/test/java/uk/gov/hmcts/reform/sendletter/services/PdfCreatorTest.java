@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,13 +8,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.sendletter.exception.DuplexException;
 import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
 import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.BDDMockito.given;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
@@ -27,7 +37,12 @@ class PdfCreatorTest {
 
     @BeforeEach
     void setUp() {
-        pdfCreator = new PdfCreator(this.duplexPreparator);
+        pdfCreator = new PdfCreator(
+            this.duplexPreparator,
+            Runnable::run,
+            1,
+            MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+        );
     }
 
     @Test
@@ -37,9 +52,6 @@ class PdfCreatorTest {
         final byte[] test1Pdf = loadResource("test1.pdf");
         final byte[] test2Pdf = loadResource("test2.pdf");
 
-        given(duplexPreparator.prepare(test1Pdf, loggingContext)).willReturn(test1Pdf);
-        given(duplexPreparator.prepare(test2Pdf, loggingContext)).willReturn(test2Pdf);
-
         Doc doc1 = new Doc(test1Pdf, 5);
         Doc doc2 = new Doc(test2Pdf, 10);
 
@@ -47,11 +59,68 @@ class PdfCreatorTest {
         byte[] result = pdfCreator.createFromBase64PdfWithCopies(asList(doc1, doc2), loggingContext);
 
         // then
-        verify(duplexPreparator, times(1)).prepare(doc1.content, loggingContext);
-        verify(duplexPreparator, times(1)).prepare(doc2.content, loggingContext);
+        // each document is prepared once, from its parsed form
+        verify(duplexPreparator, times(2)).prepare(any(PDDocument.class));
 
         try (PDDocument doc = Loader.loadPDF(result)) {
             assertThat(doc.getNumberOfPages()).isEqualTo(doc1.copies + doc2.copies);
         }
     }
+
+    @Test
+    void should_keep_document_order_when_parsing_in_parallel() throws Exception {
+        // given
+        final DocumentContent test1Pdf = DocumentContent.of(loadResource("test1.pdf"));
+        final DocumentContent test2Pdf = DocumentContent.of(loadResource("test2.pdf"));
+        List<DocumentContent> pdfs = asList(test1Pdf, test2Pdf, test1Pdf, test2Pdf, test1Pdf);
+        LetterChecksumService checksumService = new LetterChecksumService();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            PdfCreator parallelCreator = new PdfCreator(
+                new DuplexPreparator(),
+                executor,
+                3,
+                MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+            );
+
+            // when
+            try (PdfDocumentContext context = parallelCreator.loadPdfs(pdfs, "test_service")) {
+                // then
+                assertThat(context.size()).isEqualTo(pdfs.size());
+                for (int i = 0; i < pdfs.size(); i++) {
+                    assertThat(checksumService.calculateContentChecksum(context.getDocument(i)))
+                        .isEqualTo(checksumService.calculateContentChecksum(pdfs.get(i)));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_throw_duplex_exception_when_any_document_parsed_in_parallel_is_not_pdf() throws Exception {
+        // given
+        final DocumentContent test1Pdf = DocumentContent.of(loadResource("test1.pdf"));
+        List<DocumentContent> pdfs =
+            asList(test1Pdf, test1Pdf, DocumentContent.of("clearly not a pdf".getBytes()), test1Pdf);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            PdfCreator parallelCreator = new PdfCreator(
+                new DuplexPreparator(),
+                executor,
+                4,
+                MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry())
+            );
+
+            // when
+            Throwable exc = catchThrowable(() -> parallelCreator.loadPdfs(pdfs, "test_service"));
+
+            // then
+            assertThat(exc).isInstanceOf(DuplexException.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -1,14 +1,23 @@
 package uk.gov.hmcts.reform.sendletter.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.Test;
 import uk.gov.hmcts.reform.sendletter.exception.PdfMergeException;
+import uk.gov.hmcts.reform.sendletter.model.in.Doc;
+import uk.gov.hmcts.reform.sendletter.model.in.DocumentContent;
+import uk.gov.hmcts.reform.sendletter.services.pdf.DuplexPreparator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.MergeMemoryPolicy;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfCreator;
+import uk.gov.hmcts.reform.sendletter.services.pdf.PdfDocumentContext;
 import uk.gov.hmcts.reform.sendletter.services.pdf.PdfMerger;
 
 import java.io.IOException;
 import java.io.InputStream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -16,6 +25,8 @@ import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
 
 class PdfMergerTest {
 
+    private final MergeMemoryPolicy memoryPolicy = MergeMemoryPolicy.withDefaults(new SimpleMeterRegistry());
+
     @Test
     void should_return_a_merged_pdf_when_multiple_documents_are_sent() throws Exception {
         //given
@@ -51,6 +62,66 @@ class PdfMergerTest {
         assertThat(actualMergedPdf).containsExactly(testPdf);
     }
 
+    @Test
+    void should_merge_parsed_documents_with_their_copies() throws Exception {
+        //given
+        byte[] test1Pdf = loadResource("test1.pdf");
+        byte[] test2Pdf = loadResource("test2.pdf");
+        int expectedPages = 2 * pageCount(test1Pdf) + 3 * pageCount(test2Pdf);
+
+        //when
+        byte[] actualMergedPdf;
+        try (PdfDocumentContext pdfs = new PdfCreator(new DuplexPreparator(), Runnable::run, 1, memoryPolicy)
+            .loadPdfsWithCopies(asList(new Doc(test1Pdf, 2), new Doc(test2Pdf, 3)), "test_service")) {
+            actualMergedPdf = PdfMerger.mergeDocuments(pdfs, "test_service", memoryPolicy);
+        }
+
+        // then
+        assertThat(pageCount(actualMergedPdf)).isEqualTo(expectedPages);
+    }
+
+    @Test
+    void should_share_page_content_between_copies_of_a_document() throws Exception {
+        //given
+        byte[] testPdf = loadResource("test1.pdf");
+        byte[] separatelyMergedCopies = PdfMerger.mergeDocuments(nCopies(10, testPdf), "test_service");
+
+        //when
+        byte[] actualMergedPdf;
+        try (PdfDocumentContext pdfs = new PdfCreator(new DuplexPreparator(), Runnable::run, 1, memoryPolicy)
+            .loadPdfsWithCopies(singletonList(new Doc(testPdf, 10)), "test_service")) {
+            actualMergedPdf = PdfMerger.mergeDocuments(pdfs, "test_service", memoryPolicy);
+        }
+
+        // then
+        int pagesPerCopy = pageCount(testPdf);
+        assertThat(pageCount(actualMergedPdf)).isEqualTo(10 * pagesPerCopy);
+        try (
+            InputStream firstCopy = getPdfPageContents(actualMergedPdf, 0);
+            InputStream lastCopy = getPdfPageContents(actualMergedPdf, 9 * pagesPerCopy)
+        ) {
+            assertThat(lastCopy).hasSameContentAs(firstCopy);
+        }
+        // content streams are written once rather than once per copy
+        assertThat(actualMergedPdf.length).isLessThan(separatelyMergedCopies.length);
+    }
+
+    @Test
+    void should_return_original_bytes_when_single_parsed_document_is_unchanged() throws Exception {
+        //given
+        byte[] testPdf = loadResource("test1.pdf");
+
+        //when
+        byte[] actualMergedPdf;
+        try (PdfDocumentContext pdfs = new PdfCreator(new DuplexPreparator(), Runnable::run, 1, memoryPolicy)
+            .loadPdfs(singletonList(DocumentContent.of(testPdf)), "test_service")) {
+            actualMergedPdf = PdfMerger.mergeDocuments(pdfs, "test_service", memoryPolicy);
+        }
+
+        // then
+        assertThat(actualMergedPdf).isSameAs(testPdf);
+    }
+
     @Test
     void should_throw_pdf_merge_exception_when_doc_is_not_pdf_stream() {
         assertThatThrownBy(PdfMergerTest::merge)
@@ -61,6 +132,12 @@ class PdfMergerTest {
         return Loader.loadPDF(pdf).getPage(pageNumber).getContents();
     }
 
+    private static int pageCount(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return document.getNumberOfPages();
+        }
+    }
+
     private static void merge() {
         PdfMerger.mergeDocuments(asList("test1".getBytes(), "test2".getBytes()), "test_service");
     }
@@ -0,0 +1,83 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RecentLetterChecksumsTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final Clock clock = mock(Clock.class);
+
+    private RecentLetterChecksums recentLetterChecksums;
+
+    @BeforeEach
+    void setUp() {
+        given(clock.instant()).willReturn(NOW);
+        recentLetterChecksums = new RecentLetterChecksums(2, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void should_find_letter_saved_with_checksum() {
+        UUID letterId = UUID.randomUUID();
+
+        recentLetterChecksums.put("checksum", letterId);
+
+        assertThat(recentLetterChecksums.find("checksum")).contains(letterId);
+        assertThat(recentLetterChecksums.find("other")).isEmpty();
+    }
+
+    @Test
+    void should_forget_checksum_once_expired() {
+        recentLetterChecksums.put("checksum", UUID.randomUUID());
+
+        given(clock.instant()).willReturn(NOW.plus(Duration.ofMinutes(11)));
+
+        assertThat(recentLetterChecksums.find("checksum")).isEmpty();
+        assertThat(recentLetterChecksums.size()).isZero();
+    }
+
+    @Test
+    void should_drop_least_recently_used_checksum_when_full() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        recentLetterChecksums.put("first", first);
+        recentLetterChecksums.put("second", second);
+        recentLetterChecksums.find("first");
+        recentLetterChecksums.put("third", third);
+
+        assertThat(recentLetterChecksums.find("first")).contains(first);
+        assertThat(recentLetterChecksums.find("second")).isEmpty();
+        assertThat(recentLetterChecksums.find("third")).contains(third);
+    }
+
+    @Test
+    void should_forget_checksum_of_removed_letter() {
+        UUID letterId = UUID.randomUUID();
+        recentLetterChecksums.put("checksum", letterId);
+
+        recentLetterChecksums.removeLetter(letterId);
+
+        assertThat(recentLetterChecksums.find("checksum")).isEmpty();
+    }
+
+    @Test
+    void should_hold_nothing_when_disabled() {
+        RecentLetterChecksums disabled = new RecentLetterChecksums(0, Duration.ofMinutes(10), clock);
+
+        disabled.put("checksum", UUID.randomUUID());
+
+        assertThat(disabled.find("checksum")).isEmpty();
+    }
+}
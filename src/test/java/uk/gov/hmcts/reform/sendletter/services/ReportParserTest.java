@@ -4,10 +4,13 @@ import org.junit.jupiter.api.Test;
 import uk.gov.hmcts.reform.sendletter.exception.ReportParsingException;
 import uk.gov.hmcts.reform.sendletter.model.LetterPrintStatus;
 import uk.gov.hmcts.reform.sendletter.model.ParsedReport;
-import uk.gov.hmcts.reform.sendletter.model.Report;
+import uk.gov.hmcts.reform.sendletter.model.StreamedReport;
 
+import java.io.ByteArrayInputStream;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,13 +25,14 @@ class ReportParserTest {
         2018, 3, 27, 16, 38, 0, 0,
         ZoneId.of("Z"));
 
+    private final List<LetterPrintStatus> statuses = new ArrayList<>();
+
     @Test
     void should_parse_valid_csv_report() {
         String report = formatReport(UUID_1, UUID_2);
-        ParsedReport result = new ReportParser().parse(
-            new Report("a.csv", report.getBytes(), ZonedDateTime.now().toEpochSecond()));
+        ParsedReport result = parse(report.getBytes());
 
-        assertThat(result.statuses)
+        assertThat(statuses)
             .usingFieldByFieldElementComparator()
             .containsExactlyInAnyOrder(
                 new LetterPrintStatus(UUID_1, expectedZonedDateTime),
@@ -40,10 +44,9 @@ class ReportParserTest {
     @Test
     void should_filter_out_rows_with_invalid_file_name() {
         String report = formatReport("invalidID", UUID_1);
-        ParsedReport result = new ReportParser().parse(
-            new Report("a.csv", report.getBytes(), ZonedDateTime.now().toEpochSecond()));
+        ParsedReport result = parse(report.getBytes());
 
-        assertThat(result.statuses)
+        assertThat(statuses)
             .usingFieldByFieldElementComparator()
             .containsExactly(new LetterPrintStatus(UUID_1, expectedZonedDateTime));
 
@@ -57,27 +60,88 @@ class ReportParserTest {
                 + "20180101,16:38,CMC001_cmcclaimstore_ff99f8ad-7ab8-43f8-9671-5397cbfa96a6.pdf\n"
                 + String.format("27-03-2018,16:38,CMC001_cmcclaimstore_%s\n", UUID_1);
 
-        ParsedReport result = new ReportParser().parse(
-            new Report("a.csv", report.getBytes(),  ZonedDateTime.now().toEpochSecond()));
+        ParsedReport result = parse(report.getBytes());
 
-        assertThat(result.statuses)
+        assertThat(statuses)
             .usingFieldByFieldElementComparator()
             .containsExactly(new LetterPrintStatus(UUID_1, expectedZonedDateTime));
 
         assertThat(result.allRowsParsed).isFalse();
     }
 
+    @Test
+    void should_parse_file_names_the_same_way_as_file_name_helper() {
+        String report =
+            "\"StartDate\",\"StartTime\",\"InputFileName\"\n"
+                + "27-03-2018,16:38,CMC001_cmcclaimstore_EDCC9E2D-EDDB-4D87-9A16-61F4499F524C.pdf\n"
+                + "27-03-2018,16:38,CMC001_cmcclaimstore_edcc9e2d-eddb-4d87-9a16-61f4499f524d\n"
+                + "27-03-2018,16:38,cmcclaimstore_edcc9e2d-eddb-4d87-9a16-61f4499f524c.pdf\n"
+                + "27-03-2018,16:38,CMC001_cmcclaimstore_edcc9e2d-eddb-4d87-9a16-61f4499f524g.pdf\n";
+
+        ParsedReport result = parse(report.getBytes());
+
+        assertThat(statuses)
+            .usingFieldByFieldElementComparator()
+            .containsExactly(
+                new LetterPrintStatus(UUID_1, expectedZonedDateTime),
+                new LetterPrintStatus(UUID_2, expectedZonedDateTime)
+            );
+        assertThat(result.allRowsParsed).isFalse();
+    }
+
+    @Test
+    void should_resolve_dates_the_same_way_as_date_formatter() {
+        String report =
+            "\"StartDate\",\"StartTime\",\"InputFileName\"\n"
+                + String.format("31-02-2018,16:38,CMC001_cmcclaimstore_%s.pdf\n", UUID_1)
+                + String.format("32-03-2018,16:38,CMC001_cmcclaimstore_%s.pdf\n", UUID_2)
+                + String.format("27-03-2018,16:60,CMC001_cmcclaimstore_%s.pdf\n", UUID_2);
+
+        ParsedReport result = parse(report.getBytes());
+
+        assertThat(statuses)
+            .usingFieldByFieldElementComparator()
+            .containsExactly(
+                new LetterPrintStatus(UUID_1, ZonedDateTime.of(2018, 2, 28, 16, 38, 0, 0, ZoneId.of("Z")))
+            );
+        assertThat(result.allRowsParsed).isFalse();
+    }
+
     @Test
     void should_parse_sample_report() throws Exception {
         byte[] report = loadResource("report.csv");
 
-        ParsedReport result = new ReportParser().parse(
-            new Report("a.csv", report, ZonedDateTime.now().toEpochSecond()));
+        ParsedReport result = parse(report);
+
+        assertThat(statuses).hasSize(3);
+        assertThat(result.allRowsParsed).isTrue();
+    }
+
+    @Test
+    void should_hand_over_statuses_in_chunks() {
+        String report = formatReport(
+            UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID_1
+        );
+        List<List<LetterPrintStatus>> chunks = new ArrayList<>();
+
+        ParsedReport result = new ReportParser().parse(streamed(report.getBytes()), 2, chunks::add);
 
-        assertThat(result.statuses).hasSize(3);
+        assertThat(chunks.stream().map(List::size).toList()).containsExactly(2, 2, 1);
+        assertThat(chunks.getLast().getFirst().id).isEqualTo(UUID_1);
+        assertThat(result.letterCount).isEqualTo(5);
         assertThat(result.allRowsParsed).isTrue();
     }
 
+    @Test
+    void should_count_only_parsed_rows() {
+        String report = formatReport("invalidID", UUID_1, UUID_2);
+
+        ParsedReport result = parse(report.getBytes());
+
+        assertThat(result.letterCount).isEqualTo(2);
+        assertThat(result.path).isEqualTo("a.csv");
+    }
+
     @Test
     void should_throw_report_parsing_exception_when_csv_contains_semicolon_delimiter() {
         String report =
@@ -86,12 +150,20 @@ class ReportParserTest {
                 + "27-03-2018;16:38;CMC001_cmcclaimstore_ff88f8ad-8ab8-44f8-9672-5398cbfa96a7.pdf\n";
 
         Throwable exc = catchThrowable(() ->
-            new ReportParser().parse(new Report("a.csv", report.getBytes(), ZonedDateTime.now().toEpochSecond())));
+            parse(report.getBytes()));
 
         assertThat(exc)
             .isInstanceOf(ReportParsingException.class);
     }
 
+    private ParsedReport parse(byte[] csv) {
+        return new ReportParser().parse(streamed(csv), 2, statuses::addAll);
+    }
+
+    private static StreamedReport streamed(byte[] csv) {
+        return new StreamedReport("a.csv", new ByteArrayInputStream(csv), ZonedDateTime.now().toEpochSecond());
+    }
+
     private String formatReport(Object... ids) {
         StringBuilder report = new StringBuilder(
             "\"StartDate\",\"StartTime\",\"InputFileName\"\n");
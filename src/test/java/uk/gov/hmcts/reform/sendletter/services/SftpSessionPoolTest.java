@@ -0,0 +1,213 @@
+package uk.gov.hmcts.reform.sendletter.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sendletter.config.FtpConfigProperties;
+import uk.gov.hmcts.reform.sendletter.exception.FtpException;
+import uk.gov.hmcts.reform.sendletter.services.ftp.IFtpAvailabilityChecker;
+import uk.gov.hmcts.reform.sendletter.services.ftp.SftpSessionPool;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SftpSessionPoolTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T10:00:00Z");
+
+    private final Clock clock = mock(Clock.class);
+    private final IFtpAvailabilityChecker availabilityChecker = mock(IFtpAvailabilityChecker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<SSHClient> connections = new ArrayList<>();
+    private final FtpConfigProperties.Pool settings = new FtpConfigProperties.Pool();
+
+    @BeforeEach
+    void setUp() {
+        given(clock.instant()).willReturn(NOW);
+        given(availabilityChecker.isFtpAvailable(any(LocalTime.class))).willReturn(true);
+        settings.setMaxSessions(2);
+        settings.setMaxIdleTime(Duration.ofMinutes(5));
+        settings.setBorrowTimeout(Duration.ofMillis(10));
+        settings.setValidateAfter(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void should_reuse_session_given_back_healthy() throws Exception {
+        SftpSessionPool pool = pool();
+
+        SftpSessionPool.Session first = pool.borrow();
+        pool.giveBack(first, true);
+        SftpSessionPool.Session second = pool.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(connections).hasSize(1);
+        assertThat(meterRegistry.get("sftp.pool.handshakes").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sftp.pool.borrow.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_close_session_given_back_broken() throws Exception {
+        SftpSessionPool pool = pool();
+
+        SftpSessionPool.Session first = pool.borrow();
+        pool.giveBack(first, false);
+        SftpSessionPool.Session second = pool.borrow();
+
+        assertThat(second).isNotSameAs(first);
+        verify(connections.get(0)).disconnect();
+        assertThat(pool.getOpenSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fail_to_borrow_when_all_sessions_are_in_use() throws Exception {
+        settings.setMaxSessions(1);
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session session = pool.borrow();
+
+        assertThatThrownBy(pool::borrow)
+            .isInstanceOf(FtpException.class)
+            .hasMessageStartingWith("No SFTP session available");
+
+        pool.giveBack(session, true);
+        assertThat(pool.borrow()).isSameAs(session);
+    }
+
+    @Test
+    void should_check_session_idle_for_a_while_before_reusing_it() throws Exception {
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session first = pool.borrow();
+        pool.giveBack(first, true);
+        given(first.getSftpClient().canonicalize(".")).willThrow(new IOException("connection reset"));
+        given(clock.instant()).willReturn(NOW.plusSeconds(31));
+
+        SftpSessionPool.Session second = pool.borrow();
+
+        assertThat(second).isNotSameAs(first);
+        verify(connections.get(0)).disconnect();
+    }
+
+    @Test
+    void should_not_check_recently_used_session() throws Exception {
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session first = pool.borrow();
+        pool.giveBack(first, true);
+
+        pool.borrow();
+
+        verify(first.getSftpClient(), never()).canonicalize(".");
+    }
+
+    @Test
+    void should_evict_sessions_idle_for_too_long_down_to_min_idle() throws Exception {
+        settings.setMinIdle(1);
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session first = pool.borrow();
+        SftpSessionPool.Session second = pool.borrow();
+        pool.giveBack(first, true);
+        pool.giveBack(second, true);
+        given(clock.instant()).willReturn(NOW.plus(Duration.ofMinutes(6)));
+
+        pool.maintain();
+
+        assertThat(pool.getIdleSessions()).isEqualTo(1);
+        assertThat(pool.getOpenSessions()).isEqualTo(1);
+        verify(connections.get(0)).disconnect();
+        verify(connections.get(1), never()).disconnect();
+    }
+
+    @Test
+    void should_open_sessions_up_to_min_idle() throws Exception {
+        settings.setMinIdle(2);
+        SftpSessionPool pool = pool();
+
+        pool.maintain();
+
+        assertThat(pool.getIdleSessions()).isEqualTo(2);
+        assertThat(connections).hasSize(2);
+    }
+
+    @Test
+    void should_not_open_idle_sessions_beyond_max_sessions() throws Exception {
+        settings.setMinIdle(2);
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session idle = pool.borrow();
+        pool.borrow();
+        pool.giveBack(idle, true);
+
+        pool.maintain();
+
+        assertThat(pool.getIdleSessions()).isEqualTo(1);
+        assertThat(pool.getOpenSessions()).isEqualTo(2);
+        assertThat(connections).hasSize(2);
+    }
+
+    @Test
+    void should_reject_negative_min_idle() {
+        settings.setMinIdle(-1);
+
+        assertThatThrownBy(this::pool).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_close_sessions_when_downtime_starts() throws Exception {
+        SftpSessionPool pool = pool();
+        SftpSessionPool.Session idle = pool.borrow();
+        SftpSessionPool.Session inUse = pool.borrow();
+        pool.giveBack(idle, true);
+        given(availabilityChecker.isFtpAvailable(any(LocalTime.class))).willReturn(false);
+
+        pool.maintain();
+        pool.giveBack(inUse, true);
+
+        assertThat(pool.getOpenSessions()).isZero();
+        verify(connections.get(0)).disconnect();
+        verify(connections.get(1)).disconnect();
+    }
+
+    @Test
+    void should_release_permit_when_connecting_fails() throws Exception {
+        settings.setMaxSessions(1);
+        SftpSessionPool pool = new SftpSessionPool(
+            () -> {
+                throw new IOException("refused");
+            },
+            settings,
+            availabilityChecker,
+            clock,
+            meterRegistry
+        );
+
+        assertThatThrownBy(pool::borrow).isInstanceOf(IOException.class);
+        assertThatThrownBy(pool::borrow).isInstanceOf(IOException.class);
+        assertThat(meterRegistry.get("sftp.pool.handshake.failures").counter().count()).isEqualTo(2);
+    }
+
+    private SftpSessionPool pool() {
+        return new SftpSessionPool(this::connect, settings, availabilityChecker, clock, meterRegistry);
+    }
+
+    private SSHClient connect() throws IOException {
+        SSHClient ssh = mock(SSHClient.class);
+        given(ssh.isConnected()).willReturn(true);
+        given(ssh.isAuthenticated()).willReturn(true);
+        SFTPClient sftp = mock(SFTPClient.class);
+        given(ssh.newSFTPClient()).willReturn(sftp);
+        connections.add(ssh);
+        return ssh;
+    }
+}
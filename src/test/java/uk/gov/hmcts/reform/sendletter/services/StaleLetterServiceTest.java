@@ -244,7 +244,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays + 1).toLocalDateTime(),
@@ -320,7 +319,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays + 1).toLocalDateTime(),
@@ -364,7 +362,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays - 1).toLocalDateTime(),
@@ -407,7 +404,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays + 1).toLocalDateTime(),
@@ -483,7 +479,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays + 1).toLocalDateTime(),
@@ -527,7 +522,6 @@ class StaleLetterServiceTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now.minusDays(minStaleLetterAgeInBusinessDays - 1).toLocalDateTime(),
@@ -0,0 +1,122 @@
+package uk.gov.hmcts.reform.sendletter.services.encryption;
+
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.gov.hmcts.reform.sendletter.util.ResourceLoader.loadResource;
+
+class PgpEncryptorTest {
+
+    private final PgpEncryptor encryptor = new PgpEncryptor();
+
+    @Test
+    void should_encrypt_and_create_pgp_encrypted_zip_file_when_valid_public_key_is_passed()
+        throws Exception {
+        //Given
+        String inputFileName = "unencrypted.zip";
+
+        byte[] inputZipFile = loadResource(inputFileName);
+
+        PGPPublicKey pgpPublicKey = PgpEncryptionUtil.loadPublicKey(loadPublicKey());
+
+        //when
+        byte[] pgpEncryptedZip = encryptor.encrypt(
+            inputZipFile,
+            inputFileName,
+            pgpPublicKey
+        );
+
+        //We are decrypting it using BountyCastle to validate if the decrypted zip is same as input file.
+        //Currently this seems to be the only way to validate the file contents.
+        PgpDecryptionHelper.DecryptedFile decryptedZip = PgpDecryptionHelper.decryptFile(
+            pgpEncryptedZip,
+            loadPrivateKey(),
+            "Password1".toCharArray()
+        );
+
+        //then
+        assertThat(inputZipFile).containsExactly(decryptedZip.content);
+        assertThat(decryptedZip.filename).isEqualTo(inputFileName);
+    }
+
+    @Test
+    void should_encrypt_content_written_to_encryption_stream() throws Exception {
+        //Given
+        String inputFileName = "unencrypted.zip";
+
+        byte[] inputZipFile = loadResource(inputFileName);
+
+        PGPPublicKey pgpPublicKey = PgpEncryptionUtil.loadPublicKey(loadPublicKey());
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+        //when
+        try (OutputStream out = encryptor.openEncryptionStream(sink, inputFileName, pgpPublicKey)) {
+            // write in chunks to make sure content spanning several partial packets is handled
+            for (int offset = 0; offset < inputZipFile.length; offset += 1000) {
+                out.write(inputZipFile, offset, Math.min(1000, inputZipFile.length - offset));
+            }
+        }
+
+        PgpDecryptionHelper.DecryptedFile decryptedZip = PgpDecryptionHelper.decryptFile(
+            sink.toByteArray(),
+            loadPrivateKey(),
+            "Password1".toCharArray()
+        );
+
+        //then
+        assertThat(inputZipFile).containsExactly(decryptedZip.content);
+        assertThat(decryptedZip.filename).isEqualTo(inputFileName);
+    }
+
+    @Test
+    void should_produce_different_ciphertext_for_same_content() throws Exception {
+        byte[] content = loadResource("unencrypted.zip");
+        PGPPublicKey pgpPublicKey = PgpEncryptionUtil.loadPublicKey(loadPublicKey());
+
+        byte[] first = encryptor.encrypt(content, "unencrypted.zip", pgpPublicKey);
+        byte[] second = encryptor.encrypt(content, "unencrypted.zip", pgpPublicKey);
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void should_encrypt_content_decryptable_by_same_decryptor_when_jce_backend_is_used() throws Exception {
+        String inputFileName = "unencrypted.zip";
+
+        byte[] inputZipFile = loadResource(inputFileName);
+
+        PGPPublicKey pgpPublicKey = PgpEncryptionUtil.loadPublicKey(loadPublicKey());
+
+        byte[] pgpEncryptedZip = new PgpEncryptor("jce").encrypt(inputZipFile, inputFileName, pgpPublicKey);
+
+        PgpDecryptionHelper.DecryptedFile decryptedZip = PgpDecryptionHelper.decryptFile(
+            pgpEncryptedZip,
+            loadPrivateKey(),
+            "Password1".toCharArray()
+        );
+
+        assertThat(inputZipFile).containsExactly(decryptedZip.content);
+        assertThat(decryptedZip.filename).isEqualTo(inputFileName);
+    }
+
+    @Test
+    void should_reject_unknown_backend() {
+        assertThatThrownBy(() -> new PgpEncryptor("rot13"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] loadPublicKey() throws Exception {
+        return loadResource("encryption/pubkey.asc");
+    }
+
+    private InputStream loadPrivateKey() {
+        return getClass().getResourceAsStream("/encryption/privatekey.asc");
+    }
+}
@@ -50,7 +50,6 @@ class FileNameHelperTest {
             "sscs",
             objectMapper.valueToTree(additionalData),
             "SSCS001",
-            null,
             false,
             null,
             now(),
@@ -73,7 +72,6 @@ class FileNameHelperTest {
             "sscs",
             objectMapper.valueToTree(additionalData),
             "SSCS001",
-            null,
             false,
             null,
             now(),
@@ -94,7 +92,6 @@ class FileNameHelperTest {
             "prlcosapi",
             objectMapper.valueToTree(additionalData),
             "PRL001",
-            null,
             false,
             null,
             now(),
@@ -115,7 +112,6 @@ class FileNameHelperTest {
             "prlcosapi",
             objectMapper.valueToTree(additionalData),
             "PRL001",
-            null,
             false,
             null,
             now(),
@@ -214,7 +210,6 @@ class FileNameHelperTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now(),
@@ -308,7 +303,6 @@ class FileNameHelperTest {
             "cmc_claim_store",
             null,
             "type",
-            null,
             false,
             null,
             now(),
@@ -331,7 +325,6 @@ class FileNameHelperTest {
             "service",
             null,
             "some_type",
-            null,
             false,
             null,
             now(),
@@ -353,7 +346,6 @@ class FileNameHelperTest {
             "cmc",
             null,
             "type",
-            null,
             false,
             null,
             now(),
@@ -366,7 +358,6 @@ class FileNameHelperTest {
             "cmc",
             null,
             "type",
-            null,
             true,
             "752c14ea195c369bac3c3b7896975ee9fd15eeb7",
             now(),
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import uk.gov.hmcts.reform.sendletter.model.PdfDoc;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.zip.ZipInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +25,17 @@ class ZipperTest {
         assertThat(asZip(result)).hasSameContentAs(asZip(expectedZipFileContent));
     }
 
+    @Test
+    void should_zip_file_into_given_stream() throws Exception {
+        byte[] fileContent = loadResource("hello.pdf");
+        byte[] expectedZipFileContent = loadResource("hello.zip");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new Zipper().zip(new PdfDoc("hello.pdf", fileContent), out);
+
+        assertThat(asZip(out.toByteArray())).hasSameContentAs(asZip(expectedZipFileContent));
+    }
+
     private ZipInputStream asZip(byte[] bytes) {
         return new ZipInputStream(new ByteArrayInputStream(bytes));
     }
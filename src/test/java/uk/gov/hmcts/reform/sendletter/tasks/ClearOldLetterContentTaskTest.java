@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.sendletter.entity.LetterStatus;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
 import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
 
 import java.time.Clock;
@@ -19,6 +20,7 @@ import static org.mockito.Mockito.verify;
 class ClearOldLetterContentTaskTest {
 
     @Mock LetterDataAccessService letterService;
+    @Mock LetterContentStore contentStore;
     @Mock Clock clock;
 
     @Test
@@ -29,7 +31,7 @@ class ClearOldLetterContentTaskTest {
         given(clock.getZone()).willReturn(UTC);
         var ttl = Duration.ofDays(30);
 
-        var task = new ClearOldLetterContentTask(letterService, ttl, clock);
+        var task = new ClearOldLetterContentTask(letterService, contentStore, ttl, clock);
 
         // when
         task.run();
@@ -39,5 +41,6 @@ class ClearOldLetterContentTaskTest {
             now.minusDays(30),
             LetterStatus.Uploaded
         );
+        verify(contentStore).deleteUnreferenced();
     }
 }
@@ -0,0 +1,119 @@
+package uk.gov.hmcts.reform.sendletter.tasks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class UploadDrainPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T10:00:00Z");
+
+    private final Clock clock = mock(Clock.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UploadDrainPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        given(clock.instant()).willReturn(NOW);
+        policy = new UploadDrainPolicy(
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(2),
+            0,
+            clock,
+            meterRegistry
+        );
+    }
+
+    @Test
+    void should_back_off_twice_as_long_each_time_up_to_max() {
+        assertThat(policy.mayRun()).isTrue();
+
+        policy.backOff();
+        assertThat(policy.getBackoff()).isEqualTo(Duration.ofSeconds(30));
+        policy.backOff();
+        assertThat(policy.getBackoff()).isEqualTo(Duration.ofMinutes(1));
+        policy.backOff();
+        policy.backOff();
+        assertThat(policy.getBackoff()).isEqualTo(Duration.ofMinutes(2));
+
+        assertThat(policy.mayRun()).isFalse();
+        given(clock.instant()).willReturn(NOW.plus(Duration.ofMinutes(2)));
+        assertThat(policy.mayRun()).isTrue();
+    }
+
+    @Test
+    void should_continue_after_full_clean_batch_and_reset_backoff() {
+        policy.backOff();
+        given(clock.instant()).willReturn(NOW.plus(Duration.ofMinutes(1)));
+        UploadDrainPolicy.Drain drain = policy.startDrain();
+
+        assertThat(drain.shouldContinue(report(2, LetterUploadReport.Outcome.UPLOADED), 2)).isTrue();
+        assertThat(policy.getBackoff()).isZero();
+        assertThat(policy.mayRun()).isTrue();
+    }
+
+    @Test
+    void should_stop_without_backing_off_when_batch_is_not_full() {
+        UploadDrainPolicy.Drain drain = policy.startDrain();
+
+        assertThat(drain.shouldContinue(report(1, LetterUploadReport.Outcome.UPLOADED), 2)).isFalse();
+        assertThat(policy.mayRun()).isTrue();
+    }
+
+    @Test
+    void should_stop_and_back_off_when_letters_failed() {
+        UploadDrainPolicy.Drain drain = policy.startDrain();
+
+        assertThat(drain.shouldContinue(report(2, LetterUploadReport.Outcome.FAILED), 2)).isFalse();
+        assertThat(policy.getBackoff()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(policy.mayRun()).isFalse();
+    }
+
+    @Test
+    void should_stop_when_drain_time_is_used_up() {
+        UploadDrainPolicy.Drain drain = policy.startDrain();
+        given(clock.instant()).willReturn(NOW.plus(Duration.ofMinutes(5)));
+
+        assertThat(drain.shouldContinue(report(2, LetterUploadReport.Outcome.UPLOADED), 2)).isFalse();
+        assertThat(drain.getBatches()).isEqualTo(1);
+    }
+
+    @Test
+    void should_report_backlog_and_backoff_as_metrics() {
+        policy.recordBacklog(7);
+        policy.backOff();
+
+        assertThat(meterRegistry.get("letters.upload.backlog").gauge().value()).isEqualTo(7);
+        assertThat(meterRegistry.get("letters.upload.backoff").gauge().value()).isEqualTo(30);
+        assertThat(meterRegistry.get("letters.upload.drain.rate").gauge().value()).isZero();
+    }
+
+    @Test
+    void single_batch_policy_never_continues_or_backs_off() {
+        UploadDrainPolicy singleBatch = UploadDrainPolicy.singleBatch();
+
+        singleBatch.backOff();
+
+        assertThat(singleBatch.mayRun()).isTrue();
+        assertThat(singleBatch.startDrain().shouldContinue(report(2, LetterUploadReport.Outcome.UPLOADED), 2))
+            .isFalse();
+    }
+
+    private static LetterUploadReport report(int letters, LetterUploadReport.Outcome outcome) {
+        LetterUploadReport report = new LetterUploadReport(letters, 1);
+        for (int i = 0; i < letters; i++) {
+            report.record(UUID.randomUUID(), outcome);
+        }
+        return report.finish();
+    }
+}
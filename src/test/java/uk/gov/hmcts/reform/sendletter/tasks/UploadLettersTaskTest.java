@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.sendletter.tasks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.schmizz.sshj.sftp.SFTPClient;
 import nl.altindag.log.LogCaptor;
 import nl.altindag.log.model.LogEvent;
@@ -14,40 +15,52 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.sendletter.entity.Letter;
 import uk.gov.hmcts.reform.sendletter.entity.LetterRepository;
+import uk.gov.hmcts.reform.sendletter.entity.LetterUploadInfo;
 import uk.gov.hmcts.reform.sendletter.exception.FtpException;
-import uk.gov.hmcts.reform.sendletter.services.LetterEventService;
+import uk.gov.hmcts.reform.sendletter.services.LetterContentStore;
+import uk.gov.hmcts.reform.sendletter.services.LetterDataAccessService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadClaimService;
+import uk.gov.hmcts.reform.sendletter.services.LetterUploadResults;
+import uk.gov.hmcts.reform.sendletter.services.RecentLetterChecksums;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FileToSend;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpAvailabilityChecker;
 import uk.gov.hmcts.reform.sendletter.services.ftp.FtpClient;
 import uk.gov.hmcts.reform.sendletter.services.ftp.ServiceFolderMapping;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 
 import static java.time.LocalDateTime.now;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static uk.gov.hmcts.reform.sendletter.entity.LetterStatus.Created;
-import static uk.gov.hmcts.reform.sendletter.entity.LetterStatus.Skipped;
-import static uk.gov.hmcts.reform.sendletter.entity.LetterStatus.Uploaded;
 import static uk.gov.hmcts.reform.sendletter.tasks.UploadLettersTask.INTERNATIONAL_FOLDER;
 import static uk.gov.hmcts.reform.sendletter.tasks.UploadLettersTask.SMOKE_TEST_LETTER_TYPE;
 
@@ -57,6 +70,12 @@ class UploadLettersTaskTest {
     @Mock
     private LetterRepository repo;
 
+    @Mock
+    private LetterUploadClaimService claimService;
+
+    @Mock
+    private LetterContentStore contentStore;
+
     @Mock
     private FtpClient ftpClient;
 
@@ -67,11 +86,13 @@ class UploadLettersTaskTest {
     private FtpAvailabilityChecker availabilityChecker;
 
     @Mock
-    private LetterEventService letterEventService;
+    private LetterDataAccessService dataAccessService;
 
     @Mock
     private ServiceFolderMapping serviceFolderMapping;
 
+    @Mock
+    private RecentLetterChecksums recentLetterChecksums;
 
     private final ArgumentCaptor<FileToSend> captureFileToSend = ArgumentCaptor.forClass(FileToSend.class);
 
@@ -102,10 +123,10 @@ class UploadLettersTaskTest {
 
         given(repo.countByStatus(Created)).willReturn(2);
 
-        given(repo.findFirstLetterCreated(isA(LocalDateTime.class)))
-            .willReturn(Optional.of(letterOfType(SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))))
-            .willReturn(Optional.of(letterOfType("not_" + SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))))
-            .willReturn(Optional.empty());
+        givenCreatedLetters(
+            letterOfType(SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1)),
+            letterOfType("not_" + SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))
+        );
 
         // when
         task().run();
@@ -143,11 +164,10 @@ class UploadLettersTaskTest {
 
         given(repo.countByStatus(Created)).willReturn(2);
 
-        given(repo.findFirstLetterCreated(isA(LocalDateTime.class)))
-            .willReturn(Optional.of(internationalLetterOfType(SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))))
-            .willReturn(Optional.of(internationalLetterOfType(
-                "not_" + SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))))
-            .willReturn(Optional.empty());
+        givenCreatedLetters(
+            internationalLetterOfType(SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1)),
+            internationalLetterOfType("not_" + SMOKE_TEST_LETTER_TYPE, Map.of("Document_1", 1))
+        );
 
         // when
         task().run();
@@ -187,11 +207,7 @@ class UploadLettersTaskTest {
 
         given(repo.countByStatus(Created)).willReturn(3);
 
-        given(repo.findFirstLetterCreated(isA(LocalDateTime.class)))
-            .willReturn(Optional.of(letterA))
-            .willReturn(Optional.of(letterB))
-            .willReturn(Optional.of(letterC))
-            .willReturn(Optional.empty());
+        givenCreatedLetters(letterA, letterB, letterC);
 
         // and
         given(serviceFolderMapping.getFolderFor(letterA.getService())).willReturn(Optional.of("folder_A"));
@@ -213,9 +229,10 @@ class UploadLettersTaskTest {
 
         // then
         assertThat(uploadAttempts).isEqualTo(2);
-        assertThat(letterA.getStatus()).isEqualTo(Uploaded);
-        assertThat(letterB.getStatus()).isEqualTo(Skipped);
-        assertThat(letterC.getStatus()).isEqualTo(Uploaded);
+        LetterUploadResults results = savedResults();
+        assertThat(results.getUploaded()).containsOnlyKeys(letterA.getId(), letterC.getId());
+        assertThat(results.getSkipped()).containsExactly(letterB.getId());
+        assertThat(results.getFailed()).isEmpty();
 
         // and
         verify(ftpClient).upload(any(), eq("folder_A"), any());
@@ -232,11 +249,7 @@ class UploadLettersTaskTest {
 
         given(repo.countByStatus(Created)).willReturn(3);
 
-        given(repo.findFirstLetterCreated(isA(LocalDateTime.class)))
-            .willReturn(Optional.of(letterA))
-            .willReturn(Optional.of(letterB))
-            .willReturn(Optional.of(letterC))
-            .willReturn(Optional.empty());
+        givenCreatedLetters(letterA, letterB, letterC);
 
         // and
         given(serviceFolderMapping.getFolderFor(letterA.getService())).willReturn(Optional.of("folder_A"));
@@ -261,13 +274,16 @@ class UploadLettersTaskTest {
 
         // then
         assertThat(uploadAttempts).isEqualTo(1);
-        assertThat(letterA.getStatus()).isEqualTo(Uploaded);
-        assertThat(letterC.getStatus()).isEqualTo(Created);
+        LetterUploadResults results = savedResults();
+        assertThat(results.getUploaded()).containsOnlyKeys(letterA.getId());
+        assertThat(results.getSkipped()).isEmpty();
+        assertThat(results.getFailed()).containsExactly(entry(letterB.getId(), "msg"));
+        assertThat(uploadLettersTaskLogCaptor.getErrorLogs())
+            .contains("Error uploading letter " + letterB.getId());
 
         // and
         verify(ftpClient).upload(any(), eq("folder_A"), any());
         verify(ftpClient).upload(any(), eq("folder_B"), any());
-        verify(letterEventService).failLetterUpload(letterB, ex);
         verifyNoMoreInteractions(ftpClient);
     }
 
@@ -280,11 +296,7 @@ class UploadLettersTaskTest {
 
         given(repo.countByStatus(Created)).willReturn(3);
 
-        given(repo.findFirstLetterCreated(isA(LocalDateTime.class)))
-            .willReturn(Optional.of(letterA))
-            .willReturn(Optional.of(letterB))
-            .willReturn(Optional.of(letterC))
-            .willReturn(Optional.empty());
+        givenCreatedLetters(letterA, letterB, letterC);
 
         // and
         given(serviceFolderMapping.getFolderFor(letterA.getService())).willReturn(Optional.of("folder_A"));
@@ -309,15 +321,227 @@ class UploadLettersTaskTest {
 
         // then
         assertThat(uploadAttempts).isEqualTo(1);
-        assertThat(letterA.getStatus()).isEqualTo(Uploaded);
-        assertThat(letterB.getStatus()).isEqualTo(Created);
-        assertThat(letterC.getStatus()).isEqualTo(Created);
+        LetterUploadResults results = savedResults();
+        assertThat(results.getUploaded()).containsOnlyKeys(letterA.getId());
+        assertThat(results.getSkipped()).isEmpty();
+        assertThat(results.getFailed()).isEmpty();
 
         // and
         verify(ftpClient).upload(any(), eq("folder_A"), any());
         verify(ftpClient).upload(any(), eq("folder_B"), any());
-        verifyNoInteractions(letterEventService);
         verifyNoMoreInteractions(ftpClient);
+        verify(claimService).release(List.of(letterB.getId()));
+    }
+
+    @Test
+    void should_share_batch_between_sessions_and_report_outcomes() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+        Letter letterB = letterForService("service_B", Map.of("Document_1", 1));
+        Letter letterC = letterForService("service_C", Map.of("Document_1", 1));
+        Letter letterD = letterForService("service_D", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(4);
+        givenCreatedLetters(letterA, letterB, letterC, letterD);
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("folder"));
+        given(serviceFolderMapping.getFolderFor(letterD.getService())).willReturn(Optional.empty());
+        given(ftpClient.runWith(any())).willAnswer(invocation -> {
+            Function<SFTPClient, Integer> action = invocation.getArgument(0);
+            return action.apply(sftpClient);
+        });
+
+        // when
+        task(3).run();
+
+        // then
+        verify(ftpClient, times(3)).runWith(any());
+        verify(ftpClient, times(3)).upload(any(), eq("folder"), eq(sftpClient));
+        verify(dataAccessService, times(3)).saveUploadResults(any());
+        LetterUploadResults results = savedResults();
+        assertThat(results.getUploaded()).containsOnlyKeys(letterA.getId(), letterB.getId(), letterC.getId());
+        assertThat(results.getSkipped()).containsExactly(letterD.getId());
+        assertThat(uploadLettersTaskLogCaptor.getInfoLogs())
+            .anyMatch(log -> log.contains("Uploaded 3, skipped 1, failed 0 of 4 letters over 3 sessions"));
+    }
+
+    @Test
+    void should_not_open_more_sessions_than_letters_and_rethrow_session_failure() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+        Letter letterB = letterForService("service_B", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(2);
+        given(claimService.claim(isA(LocalDateTime.class), anyInt()))
+            .willReturn(List.of(letterA.getId(), letterB.getId()));
+        FtpException ex = new FtpException("Unable to authenticate.", new IOException("auth"));
+        given(ftpClient.runWith(any())).willThrow(ex);
+
+        // when
+        Throwable thrown = catchThrowable(() -> task(8).run());
+
+        // then
+        assertThat(thrown).isSameAs(ex);
+        verify(ftpClient, times(2)).runWith(any());
+        verify(dataAccessService, never()).saveUploadResults(any());
+        verify(claimService).release(List.of(letterA.getId(), letterB.getId()));
+    }
+
+    @Test
+    void should_rethrow_session_failure_when_saving_its_results_fails() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+        Letter letterB = letterForService("service_B", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(2);
+        givenCreatedLetters(letterA, letterB);
+        IllegalStateException sessionFailure = new IllegalStateException("session");
+        given(repo.findLetterToUpload(letterB.getId())).willThrow(sessionFailure);
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("folder"));
+        given(ftpClient.runWith(any())).willAnswer(invocation -> {
+            Function<SFTPClient, Integer> action = invocation.getArgument(0);
+            return action.apply(sftpClient);
+        });
+        doThrow(new IllegalStateException("database")).when(dataAccessService).saveUploadResults(any());
+
+        // when
+        Throwable thrown = catchThrowable(() -> task(1).run());
+
+        // then
+        assertThat(thrown).isSameAs(sessionFailure);
+        assertThat(savedResults().getUploaded()).containsOnlyKeys(letterA.getId());
+        assertThat(uploadLettersTaskLogCaptor.getErrorLogs())
+            .contains("Unable to save the status of letters handled by a failed SFTP session");
+    }
+
+    @Test
+    void should_save_results_every_few_letters_of_a_session() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+        Letter letterB = letterForService("service_B", Map.of("Document_1", 1));
+        Letter letterC = letterForService("service_C", Map.of("Document_1", 1));
+        Letter letterD = letterForService("service_D", Map.of("Document_1", 1));
+        Letter letterE = letterForService("service_E", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(5);
+        givenCreatedLetters(letterA, letterB, letterC, letterD, letterE);
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("folder"));
+        given(ftpClient.runWith(any())).willAnswer(invocation -> {
+            Function<SFTPClient, Integer> action = invocation.getArgument(0);
+            return action.apply(sftpClient);
+        });
+
+        // when
+        taskFlushingResultsEvery(2).run();
+
+        // then
+        ArgumentCaptor<LetterUploadResults> captor = ArgumentCaptor.forClass(LetterUploadResults.class);
+        verify(dataAccessService, times(3)).saveUploadResults(captor.capture());
+        assertThat(captor.getAllValues())
+            .extracting(results -> results.getUploaded().keySet())
+            .containsExactly(
+                Set.of(letterA.getId(), letterB.getId()),
+                Set.of(letterC.getId(), letterD.getId()),
+                Set.of(letterE.getId())
+            );
+        assertThat(uploadLettersTaskLogCaptor.getInfoLogs())
+            .anyMatch(log -> log.contains("Uploaded 5, skipped 0, failed 0 of 5 letters over 1 sessions"));
+    }
+
+    @Test
+    void should_keep_uploading_batches_while_full_batches_are_claimed() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+        Letter letterB = letterForService("service_B", Map.of("Document_1", 1));
+        Letter letterC = letterForService("service_C", Map.of("Document_1", 1));
+        Letter letterD = letterForService("service_D", Map.of("Document_1", 1));
+        Letter letterE = letterForService("service_E", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(5, 3, 1);
+        givenCreatedLetters(letterA, letterB, letterC, letterD, letterE);
+        given(claimService.claim(isA(LocalDateTime.class), anyInt()))
+            .willReturn(List.of(letterA.getId(), letterB.getId()))
+            .willReturn(List.of(letterC.getId(), letterD.getId()))
+            .willReturn(List.of(letterE.getId()));
+        given(serviceFolderMapping.getFolderFor(any())).willReturn(Optional.of("folder"));
+        given(ftpClient.runWith(any())).willAnswer(invocation -> {
+            Function<SFTPClient, Integer> action = invocation.getArgument(0);
+            return action.apply(sftpClient);
+        });
+        UploadDrainPolicy drainPolicy = new UploadDrainPolicy(
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(2),
+            0,
+            Clock.systemUTC(),
+            new SimpleMeterRegistry()
+        );
+
+        // when
+        task(drainPolicy, 2).run();
+
+        // then
+        verify(ftpClient, times(3)).runWith(any());
+        verify(ftpClient, times(5)).upload(any(), eq("folder"), eq(sftpClient));
+        assertThat(savedResults().getUploaded()).hasSize(5);
+        assertThat(drainPolicy.mayRun()).isTrue();
+    }
+
+    @Test
+    void should_back_off_after_failed_batch() {
+        // given
+        Letter letterA = letterForService("service_A", Map.of("Document_1", 1));
+
+        given(repo.countByStatus(Created)).willReturn(1);
+        given(claimService.claim(isA(LocalDateTime.class), anyInt())).willReturn(List.of(letterA.getId()));
+        given(ftpClient.runWith(any())).willThrow(new FtpException("Unable to authenticate.", new IOException()));
+        UploadDrainPolicy drainPolicy = new UploadDrainPolicy(
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(2),
+            0,
+            Clock.systemUTC(),
+            new SimpleMeterRegistry()
+        );
+        UploadLettersTask task = task(drainPolicy, 2);
+
+        // when
+        catchThrowable(task::run);
+        task.run();
+
+        // then
+        verify(ftpClient, times(1)).runWith(any());
+        assertThat(drainPolicy.getBackoff()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    private LetterUploadResults savedResults() {
+        ArgumentCaptor<LetterUploadResults> captor = ArgumentCaptor.forClass(LetterUploadResults.class);
+        verify(dataAccessService, atLeastOnce()).saveUploadResults(captor.capture());
+
+        LetterUploadResults merged = new LetterUploadResults();
+        captor.getAllValues().forEach(results -> {
+            results.getUploaded().forEach(merged::uploaded);
+            results.getSkipped().forEach(merged::skipped);
+            results.getFailed().forEach(merged::failed);
+        });
+        return merged;
+    }
+
+    private void givenCreatedLetters(Letter... letters) {
+        Map<UUID, Letter> lettersById = Arrays.stream(letters).collect(toMap(Letter::getId, identity()));
+        given(claimService.claim(isA(LocalDateTime.class), anyInt()))
+            .willReturn(Arrays.stream(letters).map(Letter::getId).toList());
+        given(repo.findLetterToUpload(any())).willAnswer(invocation -> Optional.ofNullable(
+            lettersById.get(invocation.<UUID>getArgument(0))
+        ).map(letter -> new LetterUploadInfo(
+            letter.getId(),
+            letter.getChecksum(),
+            letter.getService(),
+            letter.getType(),
+            letter.getAdditionalData(),
+            letter.getCreatedAt(),
+            letter.isEncrypted()
+        )));
+        given(contentStore.getContentLength(any())).willReturn((long) "hello".length());
     }
 
     private Letter letterOfType(String type,  Map<String, Integer> copies) {
@@ -339,7 +563,6 @@ class UploadLettersTaskTest {
             service,
             null,
             type,
-            "hello".getBytes(),
             true,
             "9c61b7da4e6c94416be51136122ed01acea9884f",
             now(),
@@ -354,7 +577,6 @@ class UploadLettersTaskTest {
             service,
             new ObjectMapper().createObjectNode().put("isInternational",true),
             type,
-            "hello".getBytes(),
             true,
             "9c61b7da4e6c94416be51136122ed01acea9884f",
             now(),
@@ -365,11 +587,68 @@ class UploadLettersTaskTest {
     private UploadLettersTask task() {
         return new UploadLettersTask(
             repo,
+            claimService,
+            contentStore,
             ftpClient,
             availabilityChecker,
-            letterEventService,
+            dataAccessService,
             serviceFolderMapping,
+            recentLetterChecksums,
             0
         );
     }
+
+    private UploadLettersTask task(UploadDrainPolicy drainPolicy, int batchSize) {
+        return new UploadLettersTask(
+            repo,
+            claimService,
+            contentStore,
+            ftpClient,
+            availabilityChecker,
+            dataAccessService,
+            serviceFolderMapping,
+            recentLetterChecksums,
+            drainPolicy,
+            0,
+            batchSize,
+            1,
+            UploadLettersTask.RESULTS_FLUSH_SIZE
+        );
+    }
+
+    private UploadLettersTask task(int sessions) {
+        return new UploadLettersTask(
+            repo,
+            claimService,
+            contentStore,
+            ftpClient,
+            availabilityChecker,
+            dataAccessService,
+            serviceFolderMapping,
+            recentLetterChecksums,
+            UploadDrainPolicy.singleBatch(),
+            0,
+            UploadLettersTask.BATCH_SIZE,
+            sessions,
+            UploadLettersTask.RESULTS_FLUSH_SIZE
+        );
+    }
+
+    private UploadLettersTask taskFlushingResultsEvery(int resultsFlushSize) {
+        return new UploadLettersTask(
+            repo,
+            claimService,
+            contentStore,
+            ftpClient,
+            availabilityChecker,
+            dataAccessService,
+            serviceFolderMapping,
+            recentLetterChecksums,
+            UploadDrainPolicy.singleBatch(),
+            0,
+            UploadLettersTask.BATCH_SIZE,
+            1,
+            resultsFlushSize
+        );
+    }
 }